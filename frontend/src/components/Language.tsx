@@ -40,7 +40,7 @@ function Language() {
       const img = new Image();
       img.onload = () => setImageError(false);
       img.onerror = () => setImageError(true);
-      img.src = `http://localhost:8082/images/${language.name}/background.jpg`;
+      img.src = `http://localhost:8082/images/${language.name}/background.jpg?w=1920`;
     }
   }, [language]);
 
@@ -57,7 +57,7 @@ function Language() {
 
   return (
     <div className="App-main" style={{
-      backgroundImage: !imageError && language ? `url(http://localhost:8082/images/${language.name}/background.jpg)` : undefined,
+      backgroundImage: !imageError && language ? `url(http://localhost:8082/images/${language.name}/background.jpg?w=1920)` : undefined,
       backgroundSize: 'cover',
       backgroundPosition: 'center',
       backgroundColor: imageError ? '#E5DCC5' : undefined,
@@ -47,7 +47,8 @@ function Languages() {
           {languages.map(language => {
             const backgroundImageUrl = language.backgroundImageUrl ?
               (language.backgroundImageUrl.includes('blob.core.windows.net') ?
-                language.backgroundImageUrl.replace('https://languagesprod.blob.core.windows.net/languages/', 'http://localhost:8082/images/').replace('tagalog', 'Tagalog') :
+                // Cards only need a small variant of the background image
+                language.backgroundImageUrl.replace('https://languagesprod.blob.core.windows.net/languages/', 'http://localhost:8082/images/').replace('tagalog', 'Tagalog') + '?w=640' :
                 language.backgroundImageUrl) :
               null;
 
@@ -67,7 +67,7 @@ function Modules() {
   // Process background image URL similar to Languages component
   const backgroundImageUrl = language?.backgroundImageUrl ?
     (language.backgroundImageUrl.includes('blob.core.windows.net') ?
-      language.backgroundImageUrl.replace('https://languagesprod.blob.core.windows.net/languages/', 'http://localhost:8082/images/').replace('tagalog', 'Tagalog') :
+      language.backgroundImageUrl.replace('https://languagesprod.blob.core.windows.net/languages/', 'http://localhost:8082/images/').replace('tagalog', 'Tagalog') + '?w=960' :
       language.backgroundImageUrl) :
     null;
 
@@ -10,7 +10,7 @@ interface LanguageData {
 interface ModuleData {
   id: number;
   name: string;
-  language?: LanguageData;
+  languageId?: number;
 }
 
 interface SentenceData {
@@ -19,7 +19,13 @@ interface SentenceData {
   translationText: string;
   speaker: number;
   position?: number;
-  module?: ModuleData;
+  moduleId?: number;
+}
+
+interface LessonData {
+  language: LanguageData;
+  module: ModuleData;
+  sentences: SentenceData[];
 }
 
 function Sentences() {
@@ -33,29 +39,20 @@ function Sentences() {
 
   const fetchData = useCallback(async () => {
     try {
-      // First fetch the modules for the language to find the module by name
-      const modulesResponse = await fetch(`http://localhost:8082/languages/${languageName}/modules`);
-      if (!modulesResponse.ok) {
-        throw new Error('Failed to fetch modules');
-      }
-      const modulesData: ModuleData[] = await modulesResponse.json();
-      const foundModule = modulesData.find(m => m.name === decodeURIComponent(moduleName || ''));
-      if (!foundModule) {
+      // The lesson carries the language, the module and its sentences ordered by position
+      const lessonResponse = await fetch(
+        `http://localhost:8082/languages/${languageName}/modules/${encodeURIComponent(decodeURIComponent(moduleName || ''))}/lesson`
+      );
+      if (lessonResponse.status === 404) {
         throw new Error('Module not found');
       }
-      setModule(foundModule);
-      setLanguage({ id: foundModule.language?.id || 0, name: languageName || '' });
-
-      // Now fetch sentences for this module
-      const sentencesResponse = await fetch(`http://localhost:8082/modules/${foundModule.id}/sentences`);
-      if (!sentencesResponse.ok) {
-        throw new Error('Failed to fetch sentences');
+      if (!lessonResponse.ok) {
+        throw new Error('Failed to fetch lesson');
       }
-      const sentencesData = await sentencesResponse.json();
-
-      // Sort sentences by position
-      sentencesData.sort((a: SentenceData, b: SentenceData) => (a.position || 0) - (b.position || 0));
-      setSentences(sentencesData);
+      const lessonData: LessonData = await lessonResponse.json();
+      setModule(lessonData.module);
+      setLanguage(lessonData.language);
+      setSentences(lessonData.sentences);
 
       setLoading(false);
     } catch (err) {
@@ -0,0 +1,37 @@
+#!/usr/bin/env sh
+# Compares two JMH JSON reports benchmark by benchmark, for the same parameters, and exits with 1
+# if any score got worse by more than the threshold (percent, default 10) and more than the
+# error margins of both runs. Lower is better for the time modes, higher for throughput.
+#
+#   ./jmh-compare.sh jmh-results/<base commit>.json jmh-results/<new commit>.json [threshold]
+set -eu
+
+if [ "$#" -lt 2 ]; then
+	echo "Usage: $0 <baseline.json> <candidate.json> [threshold-percent]" >&2
+	exit 2
+fi
+
+report=$(jq -r -n --slurpfile base "$1" --slurpfile new "$2" --argjson threshold "${3:-10}" '
+	def name: .benchmark + (if .params then " [" + ([.params | to_entries[] | "\(.key)=\(.value)"] | join(", ")) + "]" else "" end);
+	($base[0] | map({key: name, value: .primaryMetric}) | from_entries) as $before
+	| $new[0][]
+	| name as $name
+	| .mode as $mode
+	| .primaryMetric as $after
+	| if $before[$name] == null then
+		"NEW         \($name): \($after.score) \($after.scoreUnit)"
+	else
+		$before[$name] as $b
+		| (($after.score - $b.score) / $b.score * 100) as $change
+		| (if $mode == "thrpt" then -$change else $change end) as $worse
+		| (($after.score - $b.score) | fabs) as $delta
+		| (if $worse > $threshold and $delta > (($b.scoreError // 0) + ($after.scoreError // 0)) then "REGRESSION"
+			elif $worse < -$threshold and $delta > (($b.scoreError // 0) + ($after.scoreError // 0)) then "IMPROVED  "
+			else "          " end) as $verdict
+		| "\($verdict)  \($name): \($b.score * 1000 | round / 1000) -> \($after.score * 1000 | round / 1000) \($after.scoreUnit) (\(if $change > 0 then "+" else "" end)\($change * 10 | round / 10)%)"
+	end
+')
+echo "$report"
+if echo "$report" | grep -q '^REGRESSION'; then
+	exit 1
+fi
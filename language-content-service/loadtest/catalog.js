@@ -0,0 +1,50 @@
+// Catalog read load for comparing thread-pool and virtual-thread request execution (see LoadTest.md).
+// Requests arrive at a fixed rate whatever the latency, so a saturated service shows up as
+// latency and dropped iterations instead of silently lowering the load.
+//
+//   k6 run -e BASE_URL=http://localhost:8082 -e RATE=400 -e LANGUAGE=English loadtest/catalog.js
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8082';
+const LANGUAGE = __ENV.LANGUAGE || 'English';
+const RATE = Number(__ENV.RATE || 400);
+const DURATION = __ENV.DURATION || '3m';
+
+export const options = {
+	discardResponseBodies: true,
+	summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+	scenarios: {
+		catalog: {
+			executor: 'constant-arrival-rate',
+			rate: RATE,
+			timeUnit: '1s',
+			duration: DURATION,
+			preAllocatedVUs: 200,
+			maxVUs: 2000,
+		},
+	},
+};
+
+// Module IDs of the language, read once before the run
+export function setup() {
+	const modules = http.get(`${BASE_URL}/languages/${LANGUAGE}/modules`, { responseType: 'text' }).json();
+	return { moduleIds: modules.map((module) => module.id) };
+}
+
+// Mix of a page load: the language list, the modules of a language, a sentence page, and an image
+export default function (data) {
+	const roll = Math.random();
+	let response;
+	if (roll < 0.3) {
+		response = http.get(`${BASE_URL}/languages`, { tags: { endpoint: 'languages' } });
+	} else if (roll < 0.55) {
+		response = http.get(`${BASE_URL}/languages/${LANGUAGE}/modules`, { tags: { endpoint: 'modules' } });
+	} else if (roll < 0.9) {
+		const moduleId = data.moduleIds[Math.floor(Math.random() * data.moduleIds.length)];
+		response = http.get(`${BASE_URL}/modules/${moduleId}/sentences`, { tags: { endpoint: 'sentences' } });
+	} else {
+		response = http.get(`${BASE_URL}/images/${LANGUAGE}/background.jpg?w=640`, { tags: { endpoint: 'image' } });
+	}
+	check(response, { 'status is 200': (r) => r.status === 200 });
+}
@@ -0,0 +1,32 @@
+// Image load for comparing the buffered and the streaming /images/** paths (see LoadTest.md).
+// Only originals are requested, the one kind of request both paths serve, at a fixed rate.
+//
+//   k6 run -e BASE_URL=http://localhost:8082 -e RATE=100 -e IMAGES=Tagalog/background.jpg,English/background.jpg loadtest/images.js
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8082';
+const IMAGES = (__ENV.IMAGES || 'English/background.jpg').split(',');
+const RATE = Number(__ENV.RATE || 100);
+const DURATION = __ENV.DURATION || '3m';
+
+export const options = {
+	discardResponseBodies: true,
+	summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+	scenarios: {
+		images: {
+			executor: 'constant-arrival-rate',
+			rate: RATE,
+			timeUnit: '1s',
+			duration: DURATION,
+			preAllocatedVUs: 100,
+			maxVUs: 1000,
+		},
+	},
+};
+
+export default function () {
+	const image = IMAGES[Math.floor(Math.random() * IMAGES.length)];
+	const response = http.get(`${BASE_URL}/images/${image}`, { tags: { endpoint: 'image' } });
+	check(response, { 'status is 200': (r) => r.status === 200 });
+}
@@ -0,0 +1,89 @@
+package com.gabrielrochon.languagecontent.blob;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round trip of an image through the Redis blob tier: the Base64 string in JSON that the
+ * former @Cacheable downloadBlob of AzureBlobService stored, against the binary value of
+ * RedisBlobCache (a small metadata header followed by the raw bytes). Redis I/O is not measured.
+ * Run with -prof gc to compare the bytes allocated per round trip as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlobEncodingBenchmark
+{
+
+	// A resized variant, and an original background image
+	@Param({"65536", "1048576"})
+	public int blobSize;
+
+	private GenericJackson2JsonRedisSerializer jsonSerializer;
+
+	private CachedBlob blob;
+
+	private byte[] base64Value;
+
+	private byte[] binaryValue;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException
+	{
+		jsonSerializer = new GenericJackson2JsonRedisSerializer();
+		// Random bytes, like compressed image data
+		byte[] content = new byte[blobSize];
+		new Random(42).nextBytes(content);
+		BlobMetadata metadata = new BlobMetadata("Tagalog/background.jpg", content.length, "image/jpeg", "\"0x8DC4A1B2C3D4E5F\"",
+			Instant.parse("2025-01-01T00:00:00Z"));
+		blob = new CachedBlob(metadata, content);
+		base64Value = jsonSerializer.serialize(Base64.getEncoder().encodeToString(content));
+		binaryValue = RedisBlobCache.encode(blob);
+		System.out.println(blobSize + " bytes: " + base64Value.length + " bytes as Base64 JSON, "
+			+ binaryValue.length + " bytes as binary");
+	}
+
+	@Benchmark
+	public byte[] base64JsonWrite()
+	{
+		return jsonSerializer.serialize(Base64.getEncoder().encodeToString(blob.content()));
+	}
+
+	@Benchmark
+	public byte[] base64JsonRead()
+	{
+		return Base64.getDecoder().decode((String) jsonSerializer.deserialize(base64Value));
+	}
+
+	@Benchmark
+	public byte[] binaryWrite() throws IOException
+	{
+		return RedisBlobCache.encode(blob);
+	}
+
+	@Benchmark
+	public CachedBlob binaryRead() throws IOException
+	{
+		return RedisBlobCache.decode(binaryValue);
+	}
+}
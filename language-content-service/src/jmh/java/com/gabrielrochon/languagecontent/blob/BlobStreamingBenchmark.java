@@ -0,0 +1,93 @@
+package com.gabrielrochon.languagecontent.blob;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serving one image from the store to the response, as /images/** did before it streamed and
+ * as it does now. Before, the whole blob was downloaded into a ByteArrayOutputStream, encoded
+ * to Base64 for the cache and decoded again (the @Cacheable of the private downloadBlobAsBase64
+ * never applied, so every request paid it) before the byte[] body was written. Now a BlobResource
+ * opens the store stream when the response is written and Spring copies it in small chunks.
+ * The store stream is an in-memory stream here, so only the service's own work is measured.
+ * Run with -prof gc: gc.alloc.rate.norm is the heap a single request allocates, which multiplied
+ * by the requests in flight bounds the heap the image path needs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlobStreamingBenchmark
+{
+
+	// A resized variant, and original background images
+	@Param({"65536", "1048576", "4194304"})
+	public int blobSize;
+
+	private byte[] stored;
+
+	private BlobMetadata metadata;
+
+	@Setup(Level.Trial)
+	public void setup()
+	{
+		// Random bytes, like compressed image data
+		stored = new byte[blobSize];
+		new Random(42).nextBytes(stored);
+		metadata = new BlobMetadata("Tagalog/background.jpg", stored.length, "image/jpeg", "\"0x8DC4A1B2C3D4E5F\"",
+			Instant.parse("2025-01-01T00:00:00Z"));
+	}
+
+	@Benchmark
+	public long bufferedBase64() throws IOException
+	{
+		ByteArrayOutputStream download = new ByteArrayOutputStream();
+		try (InputStream in = storeStream(0))
+		{
+			in.transferTo(download);
+		}
+		String base64Data = Base64.getEncoder().encodeToString(download.toByteArray());
+		byte[] body = Base64.getDecoder().decode(base64Data);
+		OutputStream response = OutputStream.nullOutputStream();
+		response.write(body);
+		return body.length;
+	}
+
+	@Benchmark
+	public long streamed() throws IOException
+	{
+		BlobResource resource = new BlobResource(metadata, this::storeStream);
+		try (InputStream in = resource.getInputStream())
+		{
+			return in.transferTo(OutputStream.nullOutputStream());
+		}
+	}
+
+	private InputStream storeStream(long offset)
+	{
+		int start = (int) Math.min(offset, stored.length);
+		return new ByteArrayInputStream(stored, start, stored.length - start);
+	}
+}
@@ -0,0 +1,89 @@
+package com.gabrielrochon.languagecontent.cache;
+
+import com.gabrielrochon.languagecontent.sentence.SentenceDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the Redis value serializers on sentence lists shaped like the cached ones:
+ * the JSON serializer used before value headers, the JSON codec behind a header, and the
+ * binary codec with and without compression. The encoded size of each variant is printed
+ * during setup, since JMH only measures time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheCodecBenchmark
+{
+
+	@Param({"legacy-json", "json", "binary", "binary-deflate"})
+	public String serializerName;
+
+	// Sentences of one module, and a language rollup across several modules
+	@Param({"40", "600"})
+	public int sentenceCount;
+
+	private RedisSerializer<Object> serializer;
+
+	private List<SentenceDto> sentences;
+
+	private byte[] encoded;
+
+	@Setup(Level.Trial)
+	public void setup()
+	{
+		serializer = switch (serializerName)
+		{
+			case "legacy-json" -> new GenericJackson2JsonRedisSerializer();
+			case "json" -> new VersionedValueSerializer(JsonValueCodec.NAME, 1024);
+			case "binary" -> new VersionedValueSerializer(CatalogBinaryCodec.NAME, -1);
+			default -> new VersionedValueSerializer(CatalogBinaryCodec.NAME, 1024);
+		};
+		sentences = sentences(sentenceCount);
+		encoded = serializer.serialize(sentences);
+		System.out.println(serializerName + " encodes " + sentenceCount + " sentences in " + encoded.length + " bytes");
+	}
+
+	@Benchmark
+	public byte[] serialize()
+	{
+		return serializer.serialize(sentences);
+	}
+
+	@Benchmark
+	public Object deserialize()
+	{
+		return serializer.deserialize(encoded);
+	}
+
+	static List<SentenceDto> sentences(int count)
+	{
+		List<SentenceDto> sentences = new ArrayList<>(count);
+		for (int i = 0; i < count; i++)
+		{
+			// 40 sentences per module
+			sentences.add(new SentenceDto(i + 1L, (long) (i / 40 + 1), i % 40 + 1,
+				"Magandang umaga po, kumusta po kayo ngayong araw? " + i, "Good morning, how are you today? " + i, i % 2 + 1));
+		}
+		return sentences;
+	}
+}
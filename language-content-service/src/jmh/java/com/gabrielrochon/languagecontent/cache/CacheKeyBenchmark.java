@@ -0,0 +1,96 @@
+package com.gabrielrochon.languagecontent.cache;
+
+import com.gabrielrochon.languagecontent.image.ImageVariant;
+import com.gabrielrochon.languagecontent.sentence.SentenceCursor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building the cache keys of one request, paid on hits and misses alike:
+ * the SpEL key of a @Cacheable method, evaluated in a new context per call as Spring does,
+ * against the same key concatenated in code; the versioned Redis key bytes; the sentence page
+ * key with its cursor; and the image variant key.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheKeyBenchmark
+{
+
+	private Expression lessonKey;
+
+	private StringRedisSerializer keySerializer;
+
+	private String languageName;
+
+	private String moduleName;
+
+	private String cursor;
+
+	@Setup(Level.Trial)
+	public void setup()
+	{
+		// The key expression of LessonService.getLesson, parsed once like Spring's expression cache
+		lessonKey = new SpelExpressionParser().parseExpression("'language-name:' + #languageName + ':module-name:' + #moduleName");
+		keySerializer = new StringRedisSerializer();
+		languageName = "Tagalog";
+		moduleName = "Greetings";
+		cursor = new SentenceCursor(50, 1234L).encode();
+	}
+
+	@Benchmark
+	public Object spelKey()
+	{
+		StandardEvaluationContext context = new StandardEvaluationContext();
+		context.setVariable("languageName", languageName);
+		context.setVariable("moduleName", moduleName);
+		return lessonKey.getValue(context);
+	}
+
+	@Benchmark
+	public String concatenatedKey()
+	{
+		return "language-name:" + languageName + ":module-name:" + moduleName;
+	}
+
+	// The prefix of RedisConfig with cache.version=3, and the cache name
+	@Benchmark
+	public byte[] redisKey()
+	{
+		return keySerializer.serialize("v3::lessons::" + "language-name:" + languageName + ":module-name:" + moduleName);
+	}
+
+	// The key of CatalogCache.getSentencePage, after reading the cursor of the request
+	@Benchmark
+	public String sentencePageKey()
+	{
+		SentenceCursor after = SentenceCursor.decode(cursor);
+		return "module:" + 42L + ":pages-" + "2f1c7a9e-4b1d-4c3e-9a57-0d7b1e6f3a21" + ":after:" + after.encode() + ":size:" + 50;
+	}
+
+	// The key of ImageVariantService.getVariantResource
+	@Benchmark
+	public String imageVariantKey()
+	{
+		ImageVariant variant = ImageVariant.of(600, null, null).resolve("image/jpeg");
+		return "variant::" + languageName + "/background.jpg" + "::" + "\"0x8DC4A1B2C3D4E5F\"" + "::" + variant.descriptor();
+	}
+}
@@ -0,0 +1,95 @@
+package com.gabrielrochon.languagecontent.cache;
+
+import com.gabrielrochon.languagecontent.sentence.SentenceDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * CPU spent producing the body of a sentence list response on a cache hit:
+ * a Redis hit decodes the cached value and serializes it with Jackson, a near-cache hit only
+ * serializes it, gzip adds the compression a compressing server would do on each request, and
+ * the encoded response cache returns the stored bytes. Redis and socket I/O are not measured.
+ * Run with -prof gc to compare the bytes allocated per request as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseEncodingBenchmark
+{
+
+	// Sentences of one module, and a language rollup across several modules
+	@Param({"40", "600"})
+	public int sentenceCount;
+
+	private JsonMapper jsonMapper;
+
+	private VersionedValueSerializer serializer;
+
+	private ResponseBytesCache responseCache;
+
+	private List<SentenceDto> sentences;
+
+	private byte[] redisValue;
+
+	@Setup(Level.Trial)
+	public void setup()
+	{
+		jsonMapper = JsonMapper.builder().build();
+		serializer = new VersionedValueSerializer(CatalogBinaryCodec.NAME, 1024);
+		responseCache = new ResponseBytesCache(jsonMapper, true, 16 * 1024 * 1024, 1024);
+		sentences = CacheCodecBenchmark.sentences(sentenceCount);
+		redisValue = serializer.serialize(sentences);
+		EncodedResponse encoded = responseCache.get("sentences", () -> sentences);
+		System.out.println(sentenceCount + " sentences: " + encoded.json().length + " bytes of JSON, "
+			+ encoded.gzip().length + " gzipped");
+	}
+
+	@Benchmark
+	public byte[] redisHit()
+	{
+		return jsonMapper.writeValueAsBytes(serializer.deserialize(redisValue));
+	}
+
+	@Benchmark
+	public byte[] nearCacheHit()
+	{
+		return jsonMapper.writeValueAsBytes(sentences);
+	}
+
+	@Benchmark
+	public byte[] nearCacheHitGzip() throws IOException
+	{
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		try (GZIPOutputStream out = new GZIPOutputStream(buffer))
+		{
+			out.write(jsonMapper.writeValueAsBytes(sentences));
+		}
+		return buffer.toByteArray();
+	}
+
+	@Benchmark
+	public byte[] responseCacheHitGzip()
+	{
+		return responseCache.get("sentences", () -> sentences).gzip();
+	}
+}
@@ -0,0 +1,115 @@
+package com.gabrielrochon.languagecontent.catalog;
+
+import com.gabrielrochon.languagecontent.cache.CatalogBinaryCodec;
+import com.gabrielrochon.languagecontent.cache.VersionedValueSerializer;
+import com.gabrielrochon.languagecontent.language.LanguageDto;
+import com.gabrielrochon.languagecontent.module.ModuleDto;
+import com.gabrielrochon.languagecontent.sentence.SentenceDto;
+import com.gabrielrochon.languagecontent.sentence.SentencePage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading the sentences of a module from the catalog snapshot with a Redis hit,
+ * which decodes the cached value of the module. The Redis round trip itself is not measured,
+ * so the Redis figures are a lower bound. The estimated size of the snapshot is printed
+ * during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CatalogSnapshotBenchmark
+{
+
+	private static final int LANGUAGES = 20;
+
+	@Param({"10", "40"})
+	public int modulesPerLanguage;
+
+	@Param({"40"})
+	public int sentencesPerModule;
+
+	private CatalogSnapshot snapshot;
+
+	private VersionedValueSerializer serializer;
+
+	private byte[][] cachedModules;
+
+	private int moduleCount;
+
+	@Setup(Level.Trial)
+	public void setup()
+	{
+		List<LanguageDto> languages = new ArrayList<>();
+		List<ModuleDto> modules = new ArrayList<>();
+		List<SentenceDto> sentences = new ArrayList<>();
+		long sentenceId = 1;
+		for (long languageId = 1; languageId <= LANGUAGES; languageId++)
+		{
+			languages.add(new LanguageDto(languageId, "Language " + languageId, null, "PH", "A language of the Philippines"));
+			for (int m = 0; m < modulesPerLanguage; m++)
+			{
+				long moduleId = (languageId - 1) * modulesPerLanguage + m + 1;
+				modules.add(new ModuleDto(moduleId, languageId, "Module " + m, "Everyday phrases", null, "chat"));
+				for (int position = 1; position <= sentencesPerModule; position++)
+				{
+					sentences.add(new SentenceDto(sentenceId++, moduleId, position,
+						"Magandang umaga po, kumusta po kayo ngayong araw? " + position, "Good morning, how are you today? " + position,
+						position % 2 + 1));
+				}
+			}
+		}
+		snapshot = CatalogSnapshot.build(1, languages, modules, sentences);
+		moduleCount = modules.size();
+
+		serializer = new VersionedValueSerializer(CatalogBinaryCodec.NAME, 1024);
+		cachedModules = new byte[moduleCount][];
+		for (int i = 0; i < moduleCount; i++)
+		{
+			cachedModules[i] = serializer.serialize(new ArrayList<>(snapshot.sentencesOfModule(i + 1L)));
+		}
+		System.out.println("Snapshot of " + snapshot.sentenceCount() + " sentences: about "
+			+ snapshot.estimatedBytes() / 1024 + " KB");
+	}
+
+	@Benchmark
+	public List<SentenceDto> snapshotModule()
+	{
+		return snapshot.sentencesOfModule(randomModuleId());
+	}
+
+	@Benchmark
+	public SentencePage snapshotPage()
+	{
+		return snapshot.sentencePage(randomModuleId(), null, 20);
+	}
+
+	@Benchmark
+	public Object redisHitModule()
+	{
+		return serializer.deserialize(cachedModules[(int) (randomModuleId() - 1)]);
+	}
+
+	private long randomModuleId()
+	{
+		return ThreadLocalRandom.current().nextInt(moduleCount) + 1L;
+	}
+}
@@ -0,0 +1,102 @@
+package com.gabrielrochon.languagecontent.image;
+
+import com.gabrielrochon.languagecontent.blob.BlobMetadata;
+import com.gabrielrochon.languagecontent.blob.BlobResource;
+import com.gabrielrochon.languagecontent.blob.CachedBlob;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The byte path of /images/** for a background image: on a variant miss the original is decoded,
+ * scaled down and encoded again (ImageVariantService), on a hit the cached variant bytes are
+ * copied to the response through a BlobResource. The original is a generated 1920x1280 JPEG
+ * with a gradient and noise, so it compresses about like a photo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ImageVariantBenchmark
+{
+
+	// Widths the frontend requests for language cards and backgrounds
+	@Param({"640", "1920"})
+	public int width;
+
+	private ImageVariant variant;
+
+	private byte[] original;
+
+	private BufferedImage decoded;
+
+	private CachedBlob cachedVariant;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException
+	{
+		variant = ImageVariant.of(width, null, null).resolve("image/jpeg");
+		BufferedImage source = new BufferedImage(1920, 1280, BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = source.createGraphics();
+		graphics.setPaint(new GradientPaint(0, 0, new Color(30, 90, 160), 1920, 1280, new Color(230, 180, 90)));
+		graphics.fillRect(0, 0, 1920, 1280);
+		graphics.dispose();
+		Random random = new Random(42);
+		for (int i = 0; i < 200_000; i++)
+		{
+			source.setRGB(random.nextInt(1920), random.nextInt(1280), random.nextInt(0x1000000));
+		}
+		original = ImageVariantService.encode(source, ImageVariant.of(null, "jpeg", 85));
+		decoded = ImageIO.read(new ByteArrayInputStream(original));
+
+		byte[] encoded = ImageVariantService.encode(ImageVariantService.resize(decoded, variant), variant);
+		cachedVariant = new CachedBlob(new BlobMetadata("Tagalog/background.jpg", encoded.length, variant.contentType(),
+			"\"0x8DC4A1B2C3D4E5F-" + variant.descriptor() + "\"", Instant.parse("2025-01-01T00:00:00Z")), encoded);
+		System.out.println("Original " + original.length + " bytes, variant " + variant.descriptor() + " " + encoded.length + " bytes");
+	}
+
+	@Benchmark
+	public BufferedImage decode() throws IOException
+	{
+		return ImageIO.read(new ByteArrayInputStream(original));
+	}
+
+	@Benchmark
+	public byte[] resizeAndEncode() throws IOException
+	{
+		return ImageVariantService.encode(ImageVariantService.resize(decoded, variant), variant);
+	}
+
+	@Benchmark
+	public long cachedVariantCopy() throws IOException
+	{
+		try (InputStream in = BlobResource.of(cachedVariant).getInputStream())
+		{
+			return in.transferTo(OutputStream.nullOutputStream());
+		}
+	}
+}
@@ -0,0 +1,89 @@
+package com.gabrielrochon.languagecontent.sentence;
+
+import com.gabrielrochon.languagecontent.language.Language;
+import com.gabrielrochon.languagecontent.module.Module;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON serialization of a sentence list as the endpoints wrote it from entities, each sentence
+ * nesting its module and the module its language, against the flat DTOs they write now.
+ * The entities are plain objects here: the lazy loading the entity graph also needed is not measured.
+ * The size of each body is printed during setup, since JMH only measures time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SentenceSerializationBenchmark
+{
+
+	// A page of one module, and a language rollup across several modules
+	@Param({"50", "600"})
+	public int sentenceCount;
+
+	private JsonMapper jsonMapper;
+
+	private List<Sentence> entities;
+
+	private List<SentenceDto> dtos;
+
+	@Setup(Level.Trial)
+	public void setup()
+	{
+		jsonMapper = JsonMapper.builder().build();
+		Language language = new Language("Tagalog", "https://example.blob.core.windows.net/languages/tagalog/background.jpg");
+		language.setId(1L);
+		language.setLanguagePresentation("Tagalog is the language of Manila and the basis of Filipino, the national language.");
+		entities = new ArrayList<>(sentenceCount);
+		dtos = new ArrayList<>(sentenceCount);
+		Module module = null;
+		for (int i = 0; i < sentenceCount; i++)
+		{
+			// 40 sentences per module
+			if (i % 40 == 0)
+			{
+				module = new Module(language, "Module " + (i / 40 + 1), "Greetings and introductions",
+					"Say hello, introduce yourself and ask how someone is doing.", "waving_hand");
+				module.setId(i / 40 + 1L);
+			}
+			Sentence sentence = new Sentence(module, i % 40 + 1, "Magandang umaga po, kumusta po kayo ngayong araw? " + i,
+				"Good morning, how are you today? " + i, i % 2 + 1);
+			sentence.setId(i + 1L);
+			entities.add(sentence);
+			dtos.add(new SentenceDto(sentence.getId(), module.getId(), sentence.getPosition(), sentence.getLearningText(),
+				sentence.getTranslationText(), sentence.getSpeaker()));
+		}
+		System.out.println(sentenceCount + " sentences: " + entitiesJson().length + " bytes of JSON from entities, "
+			+ dtosJson().length + " from DTOs");
+	}
+
+	@Benchmark
+	public byte[] entitiesJson()
+	{
+		return jsonMapper.writeValueAsBytes(entities);
+	}
+
+	@Benchmark
+	public byte[] dtosJson()
+	{
+		return jsonMapper.writeValueAsBytes(dtos);
+	}
+}
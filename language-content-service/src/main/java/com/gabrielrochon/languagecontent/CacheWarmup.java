@@ -0,0 +1,150 @@
+package com.gabrielrochon.languagecontent;
+
+import com.gabrielrochon.languagecontent.blob.BlobService;
+import com.gabrielrochon.languagecontent.image.ImageVariant;
+import com.gabrielrochon.languagecontent.image.ImageVariantService;
+import com.gabrielrochon.languagecontent.language.LanguageDto;
+import com.gabrielrochon.languagecontent.language.LanguageService;
+import com.gabrielrochon.languagecontent.module.ModuleService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Preloads the caches every page load needs when the application starts: the language list,
+ * each language and its modules, and the language background images with the variants the
+ * frontend requests. Loads run in parallel and are bounded by a time budget.
+ * Spring Boot only reports the readiness state ACCEPTING_TRAFFIC once all application runners
+ * have returned, so a replica receives traffic after warm-up completes or its budget runs out.
+ */
+@Component
+public class CacheWarmup implements ApplicationRunner
+{
+
+	@Autowired
+	private LanguageService languageService;
+
+	@Autowired
+	private ModuleService moduleService;
+
+	@Autowired
+	private BlobService blobService;
+
+	@Autowired
+	private ImageVariantService imageVariantService;
+
+	@Value("${cache.warmup.enabled:true}")
+	private boolean enabled;
+
+	@Value("${cache.warmup.budget:PT30S}")
+	private Duration budget;
+
+	@Value("${cache.warmup.image-widths:640,1920}")
+	private List<Integer> imageWidths;
+
+	@Override
+	public void run(ApplicationArguments args) throws InterruptedException
+	{
+		if (!enabled)
+		{
+			System.out.println("Cache warm-up disabled");
+			return;
+		}
+
+		long start = System.nanoTime();
+		List<LanguageDto> languages;
+		try
+		{
+			languages = languageService.getAllLanguages();
+		}
+		catch (Exception e)
+		{
+			System.err.println("Cache warm-up aborted, languages could not be loaded: " + e.getMessage());
+			return;
+		}
+
+		List<Callable<Void>> tasks = new ArrayList<>();
+		AtomicInteger completed = new AtomicInteger();
+		for (LanguageDto language : languages)
+		{
+			String name = language.name();
+			String background = name + "/background.jpg";
+			tasks.add(task("language " + name, completed, () -> languageService.getLanguageByName(name)));
+			tasks.add(task("modules of " + name, completed, () -> moduleService.getModulesByLanguageName(name)));
+			tasks.add(task(background, completed, () -> blobService.preloadBlob(background)));
+			for (Integer width : imageWidths)
+			{
+				ImageVariant variant = ImageVariant.of(width, null, null);
+				tasks.add(task(background + "?w=" + width, completed,
+					() -> imageVariantService.getVariantResource(background, variant)));
+			}
+		}
+		System.out.println("Cache warm-up started: " + tasks.size() + " loads for " + languages.size()
+			+ " languages, budget " + budget.toMillis() + " ms");
+
+		// Loads still running when the budget is spent are cancelled, the rest are cached on first request
+		ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+		int failed = 0;
+		int timedOut = 0;
+		try
+		{
+			long remaining = budget.toNanos() - (System.nanoTime() - start);
+			for (Future<Void> future : executor.invokeAll(tasks, Math.max(remaining, 0), TimeUnit.NANOSECONDS))
+			{
+				try
+				{
+					future.get();
+				}
+				catch (CancellationException e)
+				{
+					timedOut++;
+				}
+				catch (ExecutionException e)
+				{
+					failed++;
+				}
+			}
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+
+		long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		System.out.println("Cache warm-up finished in " + elapsed + " ms: " + completed.get() + " loaded, "
+			+ failed + " failed, " + timedOut + " cut off by the budget");
+	}
+
+	private static Callable<Void> task(String description, AtomicInteger completed, Runnable load)
+	{
+		return () ->
+		{
+			try
+			{
+				load.run();
+				completed.incrementAndGet();
+				System.out.println("Cache warm-up loaded " + description);
+				return null;
+			}
+			catch (RuntimeException e)
+			{
+				System.err.println("Cache warm-up failed for " + description + ": " + e.getMessage());
+				throw e;
+			}
+		};
+	}
+}
@@ -0,0 +1,249 @@
+package com.gabrielrochon.languagecontent;
+
+import com.gabrielrochon.languagecontent.cache.NearCacheManager;
+import com.gabrielrochon.languagecontent.catalog.ContentVersionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.NoOpCache;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+
+/**
+ * Keyspace and targeted eviction of the catalog caches.
+ * Every cached query uses a key prefixed by its query type, so lookups by different kinds
+ * of ids never share a key. The key formats below must match the key expressions of the
+ * Cacheable methods in LanguageService, ModuleService, SentenceService and LessonService.
+ *
+ * languages: all, name:{name}, and the version tags version:all, version:name:{name}
+ * modules: language-id:{languageId}, language-name:{languageName}, and the version tag
+ *   version:language-name:{languageName}
+ * sentences: module:{moduleId}, language:{languageId}, and pages of a module:
+ *   module-pages:{moduleId} holds a random version, and each page is cached under
+ *   module:{moduleId}:pages-{version}:after:{cursor}:size:{size}
+ * lessons: language-name:{languageName}:module-name:{moduleName}
+ *
+ * Pages are evicted together by evicting the version: the next read picks a new version, so the
+ * old page keys are never read again and expire with the cache TTL, like the cache.version prefix.
+ * Version tags are random values evicted with the entries they describe; the ETags of the JSON
+ * endpoints are built from them (see getVersionTag), and module-pages:{moduleId} is the tag of
+ * a module's pages.
+ *
+ * Writes evict only the keys they affect. Inside a transaction evictions run after commit,
+ * so a concurrent read cannot cache the old rows again between eviction and commit.
+ * With Redis caching each eviction also reaches the near-caches of the other replicas.
+ * Every eviction also marks the content as changed, which rebuilds the in-memory catalog
+ * snapshot once the transaction commits (see ContentCatalog).
+ *
+ * The Cacheable methods use sync, which hands their loader to the cache: misses load once per
+ * key, and entries past their soft TTL are served while the cache reloads them in the background.
+ */
+@Component
+public class CatalogCache
+{
+
+	public static final String LANGUAGES = "languages";
+
+	public static final String MODULES = "modules";
+
+	public static final String SENTENCES = "sentences";
+
+	public static final String LESSONS = "lessons";
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	@Autowired
+	private ContentVersionService contentVersionService;
+
+	/**
+	 * Evicts the entries of a language: the language list, its lookup by name
+	 * and its module lists, which are looked up by the language ID and name.
+	 *
+	 * @param languageId the ID of the language
+	 * @param languageName the name of the language, may be null
+	 */
+	public void evictLanguage(Long languageId, String languageName)
+	{
+		evict(LANGUAGES, "all");
+		evict(LANGUAGES, "version:all");
+		if (languageName != null)
+		{
+			evict(LANGUAGES, "name:" + languageName);
+			evict(LANGUAGES, "version:name:" + languageName);
+		}
+		evictModules(languageId, languageName);
+	}
+
+	/**
+	 * Evicts the module lists of a language.
+	 *
+	 * @param languageId the ID of the language
+	 * @param languageName the name of the language, may be null
+	 */
+	public void evictModules(Long languageId, String languageName)
+	{
+		if (languageId != null)
+		{
+			evict(MODULES, "language-id:" + languageId);
+		}
+		if (languageName != null)
+		{
+			evict(MODULES, "language-name:" + languageName);
+			evict(MODULES, "version:language-name:" + languageName);
+		}
+	}
+
+	/**
+	 * Evicts the sentence list of a module and the sentence rollup of its language.
+	 *
+	 * @param moduleId the ID of the module
+	 * @param languageId the ID of the language of the module, may be null
+	 */
+	public void evictSentences(Long moduleId, Long languageId)
+	{
+		if (moduleId != null)
+		{
+			evict(SENTENCES, "module:" + moduleId);
+			evict(SENTENCES, "module-pages:" + moduleId);
+		}
+		if (languageId != null)
+		{
+			evict(SENTENCES, "language:" + languageId);
+		}
+	}
+
+	/**
+	 * Returns the version tag of a group of entries, creating it if it is not cached. The tag
+	 * changes whenever a write evicts the entries, and is shared by the replicas through Redis.
+	 * Without a cache for the name, or with caching off, there is no tag.
+	 *
+	 * @param cacheName the name of the cache holding the entries
+	 * @param key the key of the tag, a version key listed above or module-pages:{moduleId}
+	 * @return the tag, or null
+	 */
+	public String getVersionTag(String cacheName, String key)
+	{
+		Cache cache = cacheManager.getCache(cacheName);
+		if (cache == null || cache instanceof NoOpCache)
+		{
+			// A tag that is never stored would change on every request
+			return null;
+		}
+		return versionTag(cache, key);
+	}
+
+	/**
+	 * Returns a page of the sentences of a module from the cache, loading it on a miss.
+	 * Without a sentences cache the page is loaded every time.
+	 *
+	 * @param moduleId the ID of the module
+	 * @param cursor the cursor token the page starts after, null for the first page
+	 * @param size the page size
+	 * @param loader loads the page from the database
+	 * @return the page
+	 */
+	public <T> T getSentencePage(Long moduleId, String cursor, int size, Callable<T> loader)
+	{
+		Cache cache = cacheManager.getCache(SENTENCES);
+		if (cache == null)
+		{
+			return call(loader);
+		}
+		String version = versionTag(cache, "module-pages:" + moduleId);
+		String key = "module:" + moduleId + ":pages-" + version + ":after:" + (cursor != null ? cursor : "") + ":size:" + size;
+		return cache.get(key, loader);
+	}
+
+	/**
+	 * Evicts a lesson, which embeds its language, its module and the module's sentences.
+	 *
+	 * @param languageName the name of the language, may be null
+	 * @param moduleName the name of the module, may be null
+	 */
+	public void evictLesson(String languageName, String moduleName)
+	{
+		if (languageName != null && moduleName != null)
+		{
+			evict(LESSONS, "language-name:" + languageName + ":module-name:" + moduleName);
+		}
+	}
+
+	/**
+	 * Returns the hit counters of the near-cache and Redis tiers by cache name, and the
+	 * invalidations exchanged with the other replicas. Empty when Redis caching is not used.
+	 *
+	 * @return the cache counters
+	 */
+	public Map<String, Object> getStats()
+	{
+		Map<String, Object> stats = new LinkedHashMap<>();
+		if (cacheManager instanceof NearCacheManager nearCacheManager)
+		{
+			stats.put("caches", nearCacheManager.getStats());
+			stats.put("invalidations", nearCacheManager.getInvalidationStats());
+		}
+		return stats;
+	}
+
+	private static <T> T call(Callable<T> loader)
+	{
+		try
+		{
+			return loader.call();
+		}
+		catch (RuntimeException e)
+		{
+			throw e;
+		}
+		catch (Exception e)
+		{
+			throw new IllegalStateException(e);
+		}
+	}
+
+	// Tags are read without a loader and created with putIfAbsent: read through a loader they
+	// would be reloaded past the soft TTL of their cache, changing every tag without any write
+	private static String versionTag(Cache cache, String key)
+	{
+		String tag = cache.get(key, String.class);
+		if (tag != null)
+		{
+			return tag;
+		}
+		String created = UUID.randomUUID().toString();
+		Cache.ValueWrapper existing = cache.putIfAbsent(key, created);
+		return existing != null ? (String) existing.get() : created;
+	}
+
+	private void evict(String cacheName, String key)
+	{
+		contentVersionService.markChanged();
+		Cache cache = cacheManager.getCache(cacheName);
+		if (cache == null)
+		{
+			return;
+		}
+		if (TransactionSynchronizationManager.isSynchronizationActive())
+		{
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization()
+			{
+				@Override
+				public void afterCommit()
+				{
+					cache.evict(key);
+				}
+			});
+		}
+		else
+		{
+			cache.evict(key);
+		}
+	}
+}
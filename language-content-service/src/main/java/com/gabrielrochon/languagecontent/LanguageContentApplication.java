@@ -1,11 +1,8 @@
 package com.gabrielrochon.languagecontent;
 
 import io.github.cdimascio.dotenv.Dotenv;
-import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.cache.CacheManager;
-import org.springframework.context.annotation.Bean;
 
 @SpringBootApplication
 public class LanguageContentApplication
@@ -30,17 +27,4 @@ public class LanguageContentApplication
 		SpringApplication.run(LanguageContentApplication.class, args);
 	}
 
-	@Bean
-	public CommandLineRunner clearCacheOnStartup(CacheManager cacheManager) 
-	{
-		return args -> 
-		{
-			// Clear all caches on application startup
-			cacheManager.getCacheNames().forEach(cacheName -> 
-			{
-				cacheManager.getCache(cacheName).clear();
-			});
-		};
-	}
-
 }
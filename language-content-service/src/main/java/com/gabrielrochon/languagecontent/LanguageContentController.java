@@ -1,27 +1,60 @@
 package com.gabrielrochon.languagecontent;
 
+import com.gabrielrochon.languagecontent.blob.BlobChangedException;
+import com.gabrielrochon.languagecontent.blob.BlobMetadata;
+import com.gabrielrochon.languagecontent.blob.BlobResource;
+import com.gabrielrochon.languagecontent.blob.BlobService;
+import com.gabrielrochon.languagecontent.blob.BlobUnavailableException;
+import com.gabrielrochon.languagecontent.cache.EncodedResponse;
+import com.gabrielrochon.languagecontent.cache.ResponseBytesCache;
+import com.gabrielrochon.languagecontent.catalog.CatalogSnapshot;
+import com.gabrielrochon.languagecontent.catalog.ContentCatalog;
+import com.gabrielrochon.languagecontent.export.CorpusExportService;
+import com.gabrielrochon.languagecontent.image.ImageVariant;
+import com.gabrielrochon.languagecontent.image.ImageVariantService;
 import com.gabrielrochon.languagecontent.language.Language;
+import com.gabrielrochon.languagecontent.language.LanguageDto;
+import com.gabrielrochon.languagecontent.lesson.Lesson;
+import com.gabrielrochon.languagecontent.lesson.LessonService;
 import com.gabrielrochon.languagecontent.language.LanguageService;
 import com.gabrielrochon.languagecontent.module.Module;
+import com.gabrielrochon.languagecontent.module.ModuleDto;
 import com.gabrielrochon.languagecontent.module.ModuleService;
 import com.gabrielrochon.languagecontent.sentence.Sentence;
+import com.gabrielrochon.languagecontent.sentence.SentenceDto;
+import com.gabrielrochon.languagecontent.sentence.SentenceImportResult;
+import com.gabrielrochon.languagecontent.sentence.SentenceImportService;
 import com.gabrielrochon.languagecontent.sentence.SentenceService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
 @RestController
 public class LanguageContentController
@@ -36,7 +69,40 @@ public class LanguageContentController
 	private SentenceService sentenceService;
 
 	@Autowired
-	private AzureBlobService azureBlobService;
+	private BlobService blobService;
+
+	@Autowired
+	private ImageVariantService imageVariantService;
+
+	@Autowired
+	private LessonService lessonService;
+
+	@Autowired
+	private CorpusExportService corpusExportService;
+
+	@Autowired
+	private SentenceImportService sentenceImportService;
+
+	@Autowired
+	private CatalogCache catalogCache;
+
+	@Autowired
+	private ContentCatalog contentCatalog;
+
+	@Autowired
+	private ResponseBytesCache responseBytesCache;
+
+	@Autowired
+	private VirtualThreadPinningMonitor pinningMonitor;
+
+	@Value("${images.cache-control:public, max-age=86400}")
+	private String imageCacheControl;
+
+	@Value("${catalog.cache-control:no-cache}")
+	private String catalogCacheControl;
+
+	@Value("${export.timeout:PT30M}")
+	private Duration exportTimeout;
 
 	@GetMapping("/")
 	public String hello()
@@ -51,9 +117,9 @@ public class LanguageContentController
 		try
 		{
 			// Try to check if container exists
-			boolean containerExists = azureBlobService.containerExists();
+			boolean containerExists = blobService.containerExists();
 			// Also check if one of the images exists
-			boolean tagalogImageExists = azureBlobService.blobExists("Tagalog/background.jpg");
+			boolean tagalogImageExists = blobService.blobExists("Tagalog/background.jpg");
 			return "Azure Storage connection successful. Container exists: " + containerExists + ", Tagalog image exists: " + tagalogImageExists;
 		}
 		catch (Exception e)
@@ -62,20 +128,87 @@ public class LanguageContentController
 		}
 	}
 
-	// Image endpoint to serve private blobs from Azure Storage
+	// Image endpoint to serve private blobs from the configured blob store.
+	// Cached blobs are served from memory, others are streamed to the response.
+	// Conditional requests are answered with 304 before any content is read, and
+	// Range requests on the returned Resource are served as 206 by Spring MVC.
+	// The w, format and q parameters select a resized variant (see ImageVariant).
+	// Blob store calls are bounded in time and concurrency; when storage is degraded
+	// the endpoint answers 503 quickly and other endpoints keep their threads.
 	@GetMapping("/images/**")
-	public ResponseEntity<byte[]> getImage(HttpServletRequest request)
+	public ResponseEntity<Resource> getImage(
+		HttpServletRequest request,
+		HttpServletResponse response,
+		WebRequest webRequest,
+		@RequestParam(name = "w", required = false) Integer width,
+		@RequestParam(name = "format", required = false) String format,
+		@RequestParam(name = "q", required = false) Integer quality)
 	{
 		String requestURI = request.getRequestURI();
 		String encodedImageName = requestURI.substring("/images/".length());
+		// Only a malformed name or variant is the client's fault; errors past this point are not
+		String imageName;
+		ImageVariant variant = null;
+		try
+		{
+			imageName = URLDecoder.decode(encodedImageName, StandardCharsets.UTF_8);
+			if (width != null || format != null || quality != null)
+			{
+				variant = ImageVariant.of(width, format, quality);
+			}
+		}
+		catch (IllegalArgumentException e)
+		{
+			System.err.println("Invalid image request " + encodedImageName + ": " + e.getMessage());
+			return ResponseEntity.badRequest().build();
+		}
 		try
 		{
-			String imageName = URLDecoder.decode(encodedImageName, StandardCharsets.UTF_8);
 			System.out.println("Image request for: " + imageName + " (decoded from: " + encodedImageName + ")");
-			byte[] imageBytes = azureBlobService.downloadBlob(imageName);
-			System.out.println("Serving image " + imageName + " with " + imageBytes.length + " bytes");
-			return ResponseEntity.ok()
-					.body(imageBytes);
+			// A variant is only looked up, or generated, once the request is known not to be a
+			// revalidation: its validators derive from the metadata of the original
+			BlobResource image = null;
+			BlobMetadata validators;
+			String eTag;
+			if (variant == null)
+			{
+				image = blobService.getBlobResource(imageName);
+				validators = image.getMetadata();
+				eTag = validators.strongETag();
+			}
+			else
+			{
+				validators = blobService.getBlobMetadata(imageName);
+				eTag = ImageVariantService.variantETag(validators, variant);
+			}
+			long lastModified = validators.lastModified() != null ? validators.lastModified().toEpochMilli() : -1;
+			if (webRequest.checkNotModified(eTag, lastModified))
+			{
+				// Response status and validators are already set to 304 Not Modified
+				response.setHeader(HttpHeaders.CACHE_CONTROL, imageCacheControl);
+				return null;
+			}
+			if (image == null)
+			{
+				image = imageVariantService.getVariantResource(imageName, variant);
+			}
+			BlobMetadata metadata = image.getMetadata();
+			System.out.println("Serving image " + imageName + " with " + metadata.size() + " bytes");
+			ResponseEntity.BodyBuilder ok = ResponseEntity.ok()
+					.eTag(metadata.strongETag())
+					.header(HttpHeaders.CACHE_CONTROL, imageCacheControl)
+					.contentType(metadata.mediaType())
+					.contentLength(metadata.size());
+			if (lastModified >= 0)
+			{
+				ok.lastModified(lastModified);
+			}
+			return ok.body(image);
+		}
+		catch (BlobUnavailableException e)
+		{
+			System.err.println("Blob storage unavailable for " + encodedImageName + ": " + e.getMessage());
+			return blobUnavailable();
 		}
 		catch (Exception e)
 		{
@@ -84,11 +217,72 @@ public class LanguageContentController
 		}
 	}
 
+	// Content of a blob missing from the cache is downloaded or opened while Spring writes the
+	// body, after getImage has returned, so failures there are answered here. The headers of
+	// the image are already set by then and are discarded with the rest of the response.
+	// A blob overwritten since its headers were chosen is also retried, to get the new version.
+	@ExceptionHandler({BlobUnavailableException.class, BlobChangedException.class})
+	public ResponseEntity<Void> handleBlobUnavailable(RuntimeException e, HttpServletRequest request,
+		HttpServletResponse response)
+	{
+		System.err.println("Blob storage unavailable for " + request.getRequestURI() + ": " + e.getMessage());
+		if (response.isCommitted())
+		{
+			// Part of the body is already sent, the client sees a truncated response
+			return null;
+		}
+		response.reset();
+		return blobUnavailable();
+	}
+
+	// Blob storage is slow or saturated, let clients retry instead of holding the request
+	private static <T> ResponseEntity<T> blobUnavailable()
+	{
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+	}
+
+	// Catalog cache counters per cache name and tier
+	@GetMapping("/cache/stats")
+	public Map<String, Object> getCacheStats()
+	{
+		return catalogCache.getStats();
+	}
+
+	// Version, size and rebuilds of the in-memory catalog snapshot
+	@GetMapping("/catalog/stats")
+	public Map<String, Object> getCatalogStats()
+	{
+		return contentCatalog.getStats();
+	}
+
+	// Blob cache counters per tier and coalesced blob store calls
+	@GetMapping("/cache/blobs/stats")
+	public Map<String, Object> getBlobCacheStats()
+	{
+		return blobService.getCacheStats();
+	}
+
+	// Encoded response cache counters
+	@GetMapping("/cache/responses/stats")
+	public Map<String, Object> getResponseCacheStats()
+	{
+		return responseBytesCache.getStats();
+	}
+
+	// Virtual threads pinned to their carrier, per blocking site
+	@GetMapping("/threads/pinning/stats")
+	public Map<String, Object> getPinningStats()
+	{
+		return pinningMonitor.getStats();
+	}
+
 	// Languages endpoints
+	// The catalog reads send their JSON as encoded by ResponseBytesCache, here a List<LanguageDto>
 	@GetMapping("/languages")
-	public List<Language> getAllLanguages()
+	public ResponseEntity<byte[]> getAllLanguages(WebRequest webRequest, HttpServletResponse response)
 	{
-		return languageService.getAllLanguages();
+		String eTag = catalogETag(CatalogCache.LANGUAGES, "version:all");
+		return conditional(webRequest, response, eTag, "languages", languageService::getAllLanguages);
 	}
 
 	// Clear languages cache
@@ -100,15 +294,30 @@ public class LanguageContentController
 	}
 
 	@PostMapping("/languages")
-	public Language addLanguage(@RequestBody Language language)
+	public ResponseEntity<LanguageDto> addLanguage(@RequestBody Language language)
 	{
-		return languageService.addLanguage(language);
+		try
+		{
+			return ResponseEntity.ok(LanguageDto.from(languageService.addLanguage(language)));
+		}
+		catch (DataIntegrityViolationException e)
+		{
+			// Language names are unique
+			return ResponseEntity.status(HttpStatus.CONFLICT).build();
+		}
 	}
 
 	@PutMapping("/languages/{id}")
-	public Language updateLanguage(@PathVariable Long id, @RequestBody Language language)
+	public ResponseEntity<LanguageDto> updateLanguage(@PathVariable Long id, @RequestBody Language language)
 	{
-		return languageService.updateLanguage(id, language);
+		try
+		{
+			return ResponseEntity.ok(LanguageDto.from(languageService.updateLanguage(id, language)));
+		}
+		catch (DataIntegrityViolationException e)
+		{
+			return ResponseEntity.status(HttpStatus.CONFLICT).build();
+		}
 	}
 
 	@DeleteMapping("/languages/{id}")
@@ -117,24 +326,51 @@ public class LanguageContentController
 		languageService.deleteLanguage(id);
 	}
 
-	// Language details endpoint
+	// Language details endpoint: a LanguageDto, or an empty body if there is no language with that name
 	@GetMapping("/languages/{name}")
-	public Language getLanguageByName(@PathVariable String name)
+	public ResponseEntity<byte[]> getLanguageByName(@PathVariable String name, WebRequest webRequest,
+		HttpServletResponse response)
+	{
+		String eTag = catalogETag(CatalogCache.LANGUAGES, "version:name:" + name);
+		return conditional(webRequest, response, eTag, "language:" + name, () -> languageService.getLanguageByName(name));
+	}
+
+	// Corpus export: the language, its modules and all its sentences as newline-delimited JSON,
+	// streamed from a database cursor. The export is written asynchronously under its own
+	// timeout, so only this endpoint may hold its request as long as a whole corpus takes
+	@GetMapping("/languages/{name}/export")
+	public WebAsyncTask<Void> exportLanguage(@PathVariable String name, HttpServletResponse response)
 	{
-		return languageService.getLanguageByName(name);
+		Language language = corpusExportService.findLanguage(name);
+		if (language == null)
+		{
+			response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+			return null;
+		}
+		response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+		response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+			.filename(language.getName() + ".ndjson", StandardCharsets.UTF_8).build().toString());
+		return new WebAsyncTask<>(exportTimeout.toMillis(), () ->
+		{
+			corpusExportService.export(language.getId(), response.getOutputStream());
+			return null;
+		});
 	}
 
 	// Modules endpoints
+	// JSON of a List<ModuleDto>
 	@GetMapping("/languages/{name}/modules")
-	public List<Module> getModulesByLanguage(@PathVariable String name)
+	public ResponseEntity<byte[]> getModulesByLanguage(@PathVariable String name, WebRequest webRequest,
+		HttpServletResponse response)
 	{
-		return moduleService.getModulesByLanguageName(name);
+		String eTag = catalogETag(CatalogCache.MODULES, "version:language-name:" + name);
+		return conditional(webRequest, response, eTag, "modules:" + name, () -> moduleService.getModulesByLanguageName(name));
 	}
 
 	@PostMapping("/modules")
-	public Module addModule(@RequestBody Module module)
+	public ModuleDto addModule(@RequestBody Module module)
 	{
-		return moduleService.addModule(module);
+		return ModuleDto.from(moduleService.addModule(module));
 	}
 
 	@DeleteMapping("/modules/{id}")
@@ -143,17 +379,59 @@ public class LanguageContentController
 		moduleService.deleteModule(id);
 	}
 
+	// Lesson endpoint: language, module and sentences by position in one response
+	@GetMapping("/languages/{name}/modules/{moduleName}/lesson")
+	public ResponseEntity<Lesson> getLesson(@PathVariable String name, @PathVariable String moduleName)
+	{
+		Lesson lesson = lessonService.getLesson(name, moduleName);
+		return lesson != null ? ResponseEntity.ok(lesson) : ResponseEntity.notFound().build();
+	}
+
 	// Sentences endpoints
+	// Pages of sentences ordered by position; pass nextCursor back as cursor for the next page
+	// JSON of a SentencePage
 	@GetMapping("/modules/{id}/sentences")
-	public List<Sentence> getSentencesByModule(@PathVariable Long id)
+	public ResponseEntity<byte[]> getSentencesByModule(
+		@PathVariable Long id,
+		@RequestParam(required = false) String cursor,
+		@RequestParam(required = false) Integer size,
+		WebRequest webRequest,
+		HttpServletResponse response)
 	{
-		return sentenceService.getSentencesByModuleId(id);
+		try
+		{
+			// One tag for all the pages of the module; clients keep one copy per URL
+			String eTag = catalogETag(CatalogCache.SENTENCES, "module-pages:" + id);
+			String endpoint = "sentences:" + id + ":" + (cursor != null ? cursor : "") + ":" + (size != null ? size : "");
+			return conditional(webRequest, response, eTag, endpoint, () -> sentenceService.getSentencePage(id, cursor, size));
+		}
+		catch (IllegalArgumentException e)
+		{
+			return ResponseEntity.badRequest().build();
+		}
 	}
 
 	@PostMapping("/sentences")
-	public Sentence addSentence(@RequestBody Sentence sentence)
+	public SentenceDto addSentence(@RequestBody Sentence sentence)
+	{
+		return SentenceDto.from(sentenceService.addSentence(sentence));
+	}
+
+	// Bulk import: one result per row, with the new ID or the reason the row was rejected
+	@PostMapping("/modules/{id}/sentences/bulk")
+	public ResponseEntity<List<SentenceImportResult>> importSentences(
+		@PathVariable Long id,
+		@RequestBody List<Sentence> sentences)
 	{
-		return sentenceService.addSentence(sentence);
+		try
+		{
+			List<SentenceImportResult> results = sentenceImportService.importSentences(id, sentences);
+			return results != null ? ResponseEntity.ok(results) : ResponseEntity.notFound().build();
+		}
+		catch (IllegalArgumentException e)
+		{
+			return ResponseEntity.badRequest().build();
+		}
 	}
 
 	@DeleteMapping("/sentences/{id}")
@@ -162,4 +440,54 @@ public class LanguageContentController
 		sentenceService.deleteSentence(id);
 	}
 
+	// Weak ETag of a JSON catalog response: the version tag of the cached entries behind it
+	// (see CatalogCache.getVersionTag), or the snapshot version while the catalog snapshot
+	// serves reads, as writes reach the snapshot only once it is rebuilt. The tag is read
+	// before the body, so a write in between leaves the client with a tag that no longer matches.
+	// Null when there is no cache to hold the tags.
+	private String catalogETag(String cacheName, String key)
+	{
+		CatalogSnapshot snapshot = contentCatalog.snapshot();
+		if (contentCatalog.isServing())
+		{
+			return "W/\"snapshot-" + snapshot.version() + "\"";
+		}
+		String tag = catalogCache.getVersionTag(cacheName, key);
+		return tag != null ? "W/\"" + tag + "\"" : null;
+	}
+
+	// Answers If-None-Match with 304 before the body is loaded from the caches or the database;
+	// Cache-Control makes browsers revalidate each time instead of reusing a response as is.
+	// Otherwise the body is sent from the encoded response cache, keyed by endpoint and ETag,
+	// gzipped when the client accepts it; without an ETag it is encoded for this request only.
+	private ResponseEntity<byte[]> conditional(WebRequest webRequest, HttpServletResponse response, String eTag,
+		String endpoint, Supplier<?> body)
+	{
+		if (eTag != null && webRequest.checkNotModified(eTag))
+		{
+			// Response status and validators are already set to 304 Not Modified
+			response.setHeader(HttpHeaders.CACHE_CONTROL, catalogCacheControl);
+			return null;
+		}
+		EncodedResponse encoded = eTag != null
+			? responseBytesCache.get(endpoint + "|" + eTag, body)
+			: responseBytesCache.encode(body.get());
+		ResponseEntity.BodyBuilder ok = ResponseEntity.ok()
+			.contentType(MediaType.APPLICATION_JSON)
+			.varyBy(HttpHeaders.ACCEPT_ENCODING);
+		if (eTag != null)
+		{
+			// Weak, as the gzip and identity bodies share it
+			ok.eTag(eTag).header(HttpHeaders.CACHE_CONTROL, catalogCacheControl);
+		}
+		if (encoded == null)
+		{
+			return ok.build();
+		}
+		if (encoded.gzip() != null && ResponseBytesCache.acceptsGzip(webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING)))
+		{
+			return ok.header(HttpHeaders.CONTENT_ENCODING, "gzip").contentLength(encoded.gzip().length).body(encoded.gzip());
+		}
+		return ok.contentLength(encoded.json().length).body(encoded.json());
+	}
 }
@@ -1,25 +1,150 @@
 package com.gabrielrochon.languagecontent;
 
+import com.gabrielrochon.languagecontent.cache.CacheInvalidationBus;
+import com.gabrielrochon.languagecontent.cache.NearCacheManager;
+import com.gabrielrochon.languagecontent.cache.VersionedValueSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
-import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
 
 @Configuration
 @EnableCaching
 public class RedisConfig
 {
 
+	// Keys are prefixed with the cache version so a deploy that changes cached shapes bumps
+	// cache.version instead of clearing Redis; entries of older versions expire with the TTL.
+	// Values carry a codec header, so the codec of a cache can change without either.
 	@Bean
-	public RedisCacheConfiguration cacheConfiguration()
+	public RedisCacheConfiguration cacheConfiguration(
+		@Value("${cache.version:1}") String cacheVersion,
+		@Value("${cache.ttl.default:PT24H}") Duration cacheTtl,
+		@Value("${cache.codec.default:json}") String codec,
+		@Value("${cache.codec.compression-threshold:1024}") int compressionThreshold)
 	{
 		return RedisCacheConfiguration.defaultCacheConfig()
+			.prefixCacheNameWith("v" + cacheVersion + "::")
+			.entryTtl(cacheTtl)
 			.serializeKeysWith(
 				RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
-			.serializeValuesWith(
-				RedisSerializationContext.SerializationPair.fromSerializer(new GenericJackson2JsonRedisSerializer()));
+			.serializeValuesWith(valueSerializer(codec, compressionThreshold));
+	}
+
+	// Catalog caches get their own TTLs; the language list changes least, sentences most.
+	// Lessons hold a module's sentences and use the sentence settings.
+	// Each Redis cache sits behind an in-process near-cache whose entries are invalidated on
+	// every replica through Redis pub/sub; the near-cache TTL bounds staleness if a message is lost.
+	// Past its soft TTL an entry is still served while one background reload replaces it; the
+	// reload runs in a read-only transaction so lazy associations can be read while encoding.
+	// Only created when Redis caching is selected so tests can run with other cache types.
+	@Bean
+	@ConditionalOnProperty(name = "spring.cache.type", havingValue = "redis")
+	public NearCacheManager cacheManager(
+		RedisConnectionFactory connectionFactory,
+		RedisCacheConfiguration cacheConfiguration,
+		CacheInvalidationBus cacheInvalidationBus,
+		@Value("${cache.ttl.languages:PT24H}") Duration languagesTtl,
+		@Value("${cache.ttl.modules:PT12H}") Duration modulesTtl,
+		@Value("${cache.ttl.sentences:PT6H}") Duration sentencesTtl,
+		@Value("${cache.codec.languages:${cache.codec.default:json}}") String languagesCodec,
+		@Value("${cache.codec.modules:${cache.codec.default:json}}") String modulesCodec,
+		@Value("${cache.codec.sentences:${cache.codec.default:json}}") String sentencesCodec,
+		@Value("${cache.codec.compression-threshold:1024}") int compressionThreshold,
+		@Value("${cache.near.ttl:PT5M}") Duration nearCacheTtl,
+		@Value("${cache.near.max-entries:1000}") int nearCacheMaxEntries,
+		@Value("${cache.soft-ttl.languages:}") Duration languagesSoftTtl,
+		@Value("${cache.soft-ttl.modules:}") Duration modulesSoftTtl,
+		@Value("${cache.soft-ttl.sentences:}") Duration sentencesSoftTtl,
+		PlatformTransactionManager transactionManager)
+	{
+		RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
+			.cacheDefaults(cacheConfiguration)
+			.withInitialCacheConfigurations(Map.of(
+				CatalogCache.LANGUAGES, cacheConfiguration.entryTtl(languagesTtl)
+					.serializeValuesWith(valueSerializer(languagesCodec, compressionThreshold)),
+				CatalogCache.MODULES, cacheConfiguration.entryTtl(modulesTtl)
+					.serializeValuesWith(valueSerializer(modulesCodec, compressionThreshold)),
+				CatalogCache.SENTENCES, cacheConfiguration.entryTtl(sentencesTtl)
+					.serializeValuesWith(valueSerializer(sentencesCodec, compressionThreshold)),
+				CatalogCache.LESSONS, cacheConfiguration.entryTtl(sentencesTtl)
+					.serializeValuesWith(valueSerializer(sentencesCodec, compressionThreshold))))
+			.build();
+		redisCacheManager.initializeCaches();
+
+		Map<String, Duration> softTtls = new HashMap<>();
+		softTtls.put(CatalogCache.LANGUAGES, languagesSoftTtl);
+		softTtls.put(CatalogCache.MODULES, modulesSoftTtl);
+		softTtls.put(CatalogCache.SENTENCES, sentencesSoftTtl);
+		softTtls.put(CatalogCache.LESSONS, sentencesSoftTtl);
+		TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+		readOnly.setReadOnly(true);
+		ThreadFactory refreshThreads = Thread.ofVirtual().name("cache-refresh-", 0).factory();
+		Executor refreshExecutor = task -> refreshThreads.newThread(
+			() -> readOnly.executeWithoutResult(status -> task.run())).start();
+
+		return new NearCacheManager(redisCacheManager, cacheInvalidationBus, nearCacheTtl, nearCacheMaxEntries,
+			softTtls, refreshExecutor);
+	}
+
+	// The channel is versioned like the keys so replicas of different versions do not mix
+	@Bean
+	@ConditionalOnProperty(name = "spring.cache.type", havingValue = "redis")
+	public CacheInvalidationBus cacheInvalidationBus(
+		StringRedisTemplate stringRedisTemplate,
+		@Value("${cache.version:1}") String cacheVersion)
+	{
+		return new CacheInvalidationBus(stringRedisTemplate, "v" + cacheVersion + "::cache-invalidation");
+	}
+
+	@Bean
+	@ConditionalOnProperty(name = "spring.cache.type", havingValue = "redis")
+	public RedisMessageListenerContainer cacheInvalidationListenerContainer(
+		RedisConnectionFactory connectionFactory,
+		CacheInvalidationBus cacheInvalidationBus,
+		NearCacheManager cacheManager)
+	{
+		RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+		container.setConnectionFactory(connectionFactory);
+		container.addMessageListener(
+			cacheInvalidationBus.listener(cacheManager::invalidateLocal),
+			new ChannelTopic(cacheInvalidationBus.getChannel()));
+		return container;
+	}
+
+	private static RedisSerializationContext.SerializationPair<Object> valueSerializer(String codec, int compressionThreshold)
+	{
+		return RedisSerializationContext.SerializationPair.fromSerializer(
+			new VersionedValueSerializer(codec, compressionThreshold));
+	}
+
+	// Template used by the blob cache to store raw bytes without any JSON encoding
+	@Bean
+	public RedisTemplate<String, byte[]> blobRedisTemplate(RedisConnectionFactory connectionFactory)
+	{
+		RedisTemplate<String, byte[]> template = new RedisTemplate<>();
+		template.setConnectionFactory(connectionFactory);
+		template.setKeySerializer(new StringRedisSerializer());
+		template.setValueSerializer(RedisSerializer.byteArray());
+		return template;
 	}
 }
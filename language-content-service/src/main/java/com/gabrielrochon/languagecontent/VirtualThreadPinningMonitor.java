@@ -0,0 +1,179 @@
+package com.gabrielrochon.languagecontent;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reports virtual threads pinned to their carrier thread while requests run on virtual threads.
+ * On Java 21 a virtual thread that blocks inside synchronized, or in a native frame, cannot
+ * unmount, so it holds one of the few carrier threads for the whole wait; enough of them stall
+ * every request. The JVM records these waits as jdk.VirtualThreadPinned JFR events; this monitor
+ * streams the ones longer than the threshold, counts them per blocking site (the first frame of
+ * our code in the stack, else the top frame) and logs each new site once with its stack.
+ * The same events land in any JFR recording started with -XX:StartFlightRecording.
+ */
+@Component
+public class VirtualThreadPinningMonitor implements ApplicationRunner, DisposableBean
+{
+
+	/**
+	 * Point-in-time copy of the counters of one blocking site, serialized by the stats endpoint.
+	 *
+	 * @param site the frame the pinned thread was blocked in
+	 * @param events pinned waits recorded at the site
+	 * @param maxMillis longest pinned wait at the site
+	 */
+	public record Site(String site, long events, long maxMillis)
+	{
+	}
+
+	private static final String EVENT = "jdk.VirtualThreadPinned";
+
+	private static final String APPLICATION_PACKAGE = "com.gabrielrochon.";
+
+	private static final int LOGGED_FRAMES = 12;
+
+	@Value("${spring.threads.virtual.enabled:false}")
+	private boolean virtualThreads;
+
+	@Value("${virtual-threads.pinning.enabled:true}")
+	private boolean enabled;
+
+	@Value("${virtual-threads.pinning.threshold:PT20MS}")
+	private Duration threshold;
+
+	private final ConcurrentHashMap<String, SiteCounters> sites = new ConcurrentHashMap<>();
+
+	private final LongAdder events = new LongAdder();
+
+	private volatile RecordingStream stream;
+
+	@Override
+	public void run(ApplicationArguments args)
+	{
+		if (!virtualThreads || !enabled)
+		{
+			System.out.println("Virtual thread pinning monitor disabled");
+			return;
+		}
+		try
+		{
+			RecordingStream recording = new RecordingStream();
+			recording.enable(EVENT).withThreshold(threshold).withStackTrace();
+			recording.onEvent(EVENT, this::record);
+			recording.startAsync();
+			stream = recording;
+			System.out.println("Virtual thread pinning monitor started, threshold " + threshold.toMillis() + " ms");
+		}
+		catch (RuntimeException e)
+		{
+			// JFR is missing from some runtimes; requests still run, only unreported
+			System.err.println("Virtual thread pinning monitor could not start: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Returns whether pinning is monitored, the threshold, and the blocking sites by number of events.
+	 *
+	 * @return the pinning statistics
+	 */
+	public Map<String, Object> getStats()
+	{
+		Map<String, Object> stats = new LinkedHashMap<>();
+		stats.put("virtualThreads", virtualThreads);
+		stats.put("monitoring", stream != null);
+		stats.put("thresholdMillis", threshold.toMillis());
+		stats.put("events", events.sum());
+		List<Site> snapshot = sites.entrySet().stream()
+			.map(entry -> entry.getValue().snapshot(entry.getKey()))
+			.sorted(Comparator.comparingLong(Site::events).reversed())
+			.toList();
+		stats.put("sites", snapshot);
+		return stats;
+	}
+
+	@Override
+	public void destroy()
+	{
+		RecordingStream recording = stream;
+		if (recording != null)
+		{
+			recording.close();
+		}
+	}
+
+	private void record(RecordedEvent event)
+	{
+		events.increment();
+		RecordedStackTrace stackTrace = event.getStackTrace();
+		List<RecordedFrame> frames = stackTrace != null ? stackTrace.getFrames() : List.of();
+		String site = siteOf(frames);
+		SiteCounters counters = sites.computeIfAbsent(site, key -> new SiteCounters());
+		if (counters.record(event.getDuration()))
+		{
+			StringBuilder message = new StringBuilder("Virtual thread pinned for ")
+				.append(event.getDuration().toMillis()).append(" ms at ").append(site);
+			frames.stream().limit(LOGGED_FRAMES).forEach(frame -> message.append("\n\tat ").append(describe(frame)));
+			System.err.println(message);
+		}
+	}
+
+	private static String siteOf(List<RecordedFrame> frames)
+	{
+		for (RecordedFrame frame : frames)
+		{
+			if (frame.isJavaFrame() && frame.getMethod().getType().getName().startsWith(APPLICATION_PACKAGE))
+			{
+				return describe(frame);
+			}
+		}
+		return frames.isEmpty() ? "unknown" : describe(frames.get(0));
+	}
+
+	private static String describe(RecordedFrame frame)
+	{
+		return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+	}
+
+	private static class SiteCounters
+	{
+
+		private final LongAdder events = new LongAdder();
+
+		private final AtomicLong maxNanos = new AtomicLong();
+
+		private final AtomicBoolean logged = new AtomicBoolean();
+
+		// Returns true for exactly one event of the site, which is logged. Testing the sum for 1
+		// would miss the site when its first two events both read 2.
+		boolean record(Duration duration)
+		{
+			events.increment();
+			maxNanos.accumulateAndGet(duration.toNanos(), Math::max);
+			return logged.compareAndSet(false, true);
+		}
+
+		Site snapshot(String site)
+		{
+			return new Site(site, events.sum(), TimeUnit.NANOSECONDS.toMillis(maxNanos.get()));
+		}
+	}
+}
@@ -0,0 +1,137 @@
+package com.gabrielrochon.languagecontent.blob;
+
+import com.azure.core.util.Context;
+import com.azure.core.util.HttpClientOptions;
+import com.azure.storage.blob.BlobContainerClient;
+import com.azure.storage.blob.BlobServiceClient;
+import com.azure.storage.blob.BlobServiceClientBuilder;
+import com.azure.storage.blob.models.BlobProperties;
+import com.azure.storage.blob.models.BlobRange;
+import com.azure.storage.blob.models.BlobRequestConditions;
+import com.azure.storage.blob.models.BlobStorageException;
+import com.azure.storage.blob.options.BlobInputStreamOptions;
+import com.azure.storage.common.StorageSharedKeyCredential;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.time.Duration;
+
+/**
+ * Blob store backed by a container in Azure Blob Storage.
+ * This is the default backend, used unless blob.store.type selects another one.
+ */
+@Component
+@ConditionalOnProperty(name = "blob.store.type", havingValue = "azure", matchIfMissing = true)
+public class AzureBlobStore implements BlobStore
+{
+
+	private final BlobContainerClient containerClient;
+
+	// Size of each ranged read issued to Azure while streaming a blob
+	private int streamChunkSize = 256 * 1024;
+
+	@Autowired
+	public AzureBlobStore(
+		@Value("${azure.storage.account-name}") String accountName,
+		@Value("${azure.storage.account-key}") String accountKey,
+		@Value("${azure.storage.container-name}") String containerName,
+		@Value("${blob.store.azure.read-timeout:PT10S}") Duration readTimeout)
+	{
+		String endpoint = String.format("https://%s.blob.core.windows.net", accountName);
+		BlobServiceClient blobServiceClient = new BlobServiceClientBuilder()
+			.endpoint(endpoint)
+			.credential(new StorageSharedKeyCredential(accountName, accountKey))
+			// Streamed reads happen outside the blob I/O executor, so each socket read is bounded here
+			.clientOptions(new HttpClientOptions().setResponseTimeout(readTimeout).setReadTimeout(readTimeout))
+			.buildClient();
+
+		this.containerClient = blobServiceClient.getBlobContainerClient(containerName);
+	}
+
+	AzureBlobStore(BlobContainerClient containerClient)
+	{
+		this.containerClient = containerClient;
+	}
+
+	@Value("${blob.stream.chunk-size:262144}")
+	void setStreamChunkSize(int streamChunkSize)
+	{
+		this.streamChunkSize = streamChunkSize;
+	}
+
+	@Override
+	public BlobMetadata getMetadata(String blobName)
+	{
+		try
+		{
+			BlobProperties properties = containerClient.getBlobClient(blobName).getProperties();
+			return new BlobMetadata(
+				blobName,
+				properties.getBlobSize(),
+				properties.getContentType(),
+				properties.getETag(),
+				properties.getLastModified() != null ? properties.getLastModified().toInstant() : null);
+		}
+		catch (BlobStorageException e)
+		{
+			if (e.getStatusCode() == 404)
+			{
+				throw new BlobNotFoundException(blobName);
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Downloads the content of a blob, on condition that it is still the version of the metadata,
+	 * so an overwrite since the metadata was read is never cached under the old ETag and size.
+	 */
+	@Override
+	public byte[] download(BlobMetadata metadata)
+	{
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream((int) metadata.size());
+		try
+		{
+			containerClient.getBlobClient(metadata.name()).downloadStreamWithResponse(outputStream, null, null,
+				new BlobRequestConditions().setIfMatch(metadata.eTag()), false, null, Context.NONE);
+		}
+		catch (BlobStorageException e)
+		{
+			if (e.getStatusCode() == 412)
+			{
+				throw new BlobChangedException(metadata.name());
+			}
+			if (e.getStatusCode() == 404)
+			{
+				throw new BlobNotFoundException(metadata.name());
+			}
+			throw e;
+		}
+		return outputStream.toByteArray();
+	}
+
+	/**
+	 * Opens a stream over the content of a blob.
+	 * Content is fetched from Azure in chunks of the configured size as the stream is read.
+	 */
+	@Override
+	public InputStream openStream(BlobMetadata metadata, long offset)
+	{
+		BlobInputStreamOptions options = new BlobInputStreamOptions()
+			.setBlockSize(streamChunkSize)
+			.setRange(new BlobRange(offset))
+			// Fail instead of mixing two versions if the blob is overwritten mid-stream
+			.setRequestConditions(new BlobRequestConditions().setIfMatch(metadata.eTag()));
+		return containerClient.getBlobClient(metadata.name()).openInputStream(options);
+	}
+
+	@Override
+	public boolean isAvailable()
+	{
+		return containerClient.exists();
+	}
+}
@@ -0,0 +1,96 @@
+package com.gabrielrochon.languagecontent.blob;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Two-tier cache for binary blob content.
+ * Lookups go to the in-process tier first, then to Redis; Redis hits are promoted
+ * to the in-process tier so the next request for the same blob stays local.
+ */
+@Component
+public class BlobCache
+{
+
+	private final LocalBlobCache localTier;
+
+	// Null when the Redis tier is disabled
+	private final RedisBlobCache redisTier;
+
+	@Autowired
+	public BlobCache(
+		RedisTemplate<String, byte[]> blobRedisTemplate,
+		@Value("${blob.cache.local.max-bytes:67108864}") long localMaxBytes,
+		@Value("${blob.cache.redis.enabled:true}") boolean redisEnabled,
+		@Value("${blob.cache.redis.ttl:PT24H}") Duration redisTtl)
+	{
+		this(new LocalBlobCache(localMaxBytes), redisEnabled ? new RedisBlobCache(blobRedisTemplate, redisTtl) : null);
+	}
+
+	public BlobCache(LocalBlobCache localTier, RedisBlobCache redisTier)
+	{
+		this.localTier = localTier;
+		this.redisTier = redisTier;
+	}
+
+	/**
+	 * Looks up a blob in both tiers.
+	 *
+	 * @param key the cache key
+	 * @return the cached blob, or null if neither tier has it
+	 */
+	public CachedBlob get(String key)
+	{
+		CachedBlob blob = localTier.get(key);
+		if (blob != null || redisTier == null)
+		{
+			return blob;
+		}
+		blob = redisTier.get(key);
+		if (blob != null)
+		{
+			localTier.put(key, blob);
+		}
+		return blob;
+	}
+
+	public void put(String key, CachedBlob blob)
+	{
+		localTier.put(key, blob);
+		if (redisTier != null)
+		{
+			redisTier.put(key, blob);
+		}
+	}
+
+	public void evict(String key)
+	{
+		localTier.evict(key);
+		if (redisTier != null)
+		{
+			redisTier.evict(key);
+		}
+	}
+
+	/**
+	 * Returns the counters of each tier, keyed by tier name.
+	 *
+	 * @return a snapshot of the per-tier counters
+	 */
+	public Map<String, CacheTierStats.Snapshot> getStats()
+	{
+		Map<String, CacheTierStats.Snapshot> stats = new LinkedHashMap<>();
+		stats.put("local", localTier.getStats().snapshot());
+		if (redisTier != null)
+		{
+			stats.put("redis", redisTier.getStats().snapshot());
+		}
+		return stats;
+	}
+}
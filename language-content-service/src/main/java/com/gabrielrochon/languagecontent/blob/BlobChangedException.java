@@ -0,0 +1,14 @@
+package com.gabrielrochon.languagecontent.blob;
+
+/**
+ * Thrown when a blob was overwritten after the metadata a read was made with,
+ * so its content no longer matches that metadata.
+ */
+public class BlobChangedException extends RuntimeException
+{
+
+	public BlobChangedException(String blobName)
+	{
+		super("Blob changed since its metadata was read: " + blobName);
+	}
+}
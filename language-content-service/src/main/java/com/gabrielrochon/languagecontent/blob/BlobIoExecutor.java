@@ -0,0 +1,182 @@
+package com.gabrielrochon.languagecontent.blob;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs blob store calls on virtual threads with a concurrency limit and a per-call timeout.
+ * Callers wait for a permit only up to the acquire timeout and for the call only up to the
+ * call timeout, so a slow or unreachable store costs a request thread a bounded amount of time
+ * and can never hold the whole servlet pool. A call that times out is interrupted but keeps
+ * its permit until it actually returns, so the limit reflects the load on the store.
+ */
+@Component
+public class BlobIoExecutor
+{
+
+	/**
+	 * Point-in-time copy of the counters, serialized by the stats endpoint.
+	 *
+	 * @param active calls currently running against the store
+	 * @param waiting callers currently queued for a permit
+	 * @param completed calls that returned, successfully or not, within their timeout
+	 * @param rejected callers that gave up waiting for a permit
+	 * @param timedOut calls abandoned after exceeding their timeout
+	 * @param queueWaitMillis total time callers spent waiting for a permit
+	 */
+	public record Snapshot(int active, int waiting, long completed, long rejected, long timedOut, long queueWaitMillis)
+	{
+	}
+
+	private final Semaphore permits;
+
+	private final long acquireTimeoutNanos;
+
+	private final long callTimeoutNanos;
+
+	private final ThreadFactory threadFactory = Thread.ofVirtual().name("blob-io-", 0).factory();
+
+	private final AtomicInteger active = new AtomicInteger();
+
+	private final AtomicInteger waiting = new AtomicInteger();
+
+	private final LongAdder completed = new LongAdder();
+
+	private final LongAdder rejected = new LongAdder();
+
+	private final LongAdder timedOut = new LongAdder();
+
+	private final LongAdder queueWaitNanos = new LongAdder();
+
+	@Autowired
+	public BlobIoExecutor(
+		@Value("${blob.io.max-concurrency:32}") int maxConcurrency,
+		@Value("${blob.io.acquire-timeout:PT1S}") Duration acquireTimeout,
+		@Value("${blob.io.timeout:PT10S}") Duration callTimeout)
+	{
+		this.permits = new Semaphore(maxConcurrency, true);
+		this.acquireTimeoutNanos = acquireTimeout.toNanos();
+		this.callTimeoutNanos = callTimeout.toNanos();
+	}
+
+	/**
+	 * Runs a blob store call and waits for its result.
+	 *
+	 * @param description what the call does, used in error messages
+	 * @param call the blob store call
+	 * @return the value returned by the call
+	 * @throws BlobUnavailableException if no permit is available in time or the call times out
+	 * @throws RuntimeException the exception thrown by the call itself
+	 */
+	public <T> T call(String description, Callable<T> call)
+	{
+		acquire(description);
+
+		CompletableFuture<T> result = new CompletableFuture<>();
+		active.incrementAndGet();
+		Thread worker = threadFactory.newThread(() ->
+		{
+			T value = null;
+			Throwable failure = null;
+			try
+			{
+				value = call.call();
+			}
+			catch (Throwable e)
+			{
+				failure = e;
+			}
+			finally
+			{
+				// Released before the caller is woken so it can issue its next call right away
+				active.decrementAndGet();
+				permits.release();
+			}
+			if (failure != null)
+			{
+				result.completeExceptionally(failure);
+			}
+			else
+			{
+				result.complete(value);
+			}
+		});
+		worker.start();
+
+		try
+		{
+			T value = result.get(callTimeoutNanos, TimeUnit.NANOSECONDS);
+			completed.increment();
+			return value;
+		}
+		catch (TimeoutException e)
+		{
+			worker.interrupt();
+			timedOut.increment();
+			System.err.println("Blob store call timed out: " + description);
+			throw new BlobUnavailableException("Blob store call timed out: " + description, e);
+		}
+		catch (InterruptedException e)
+		{
+			worker.interrupt();
+			Thread.currentThread().interrupt();
+			throw new BlobUnavailableException("Interrupted while waiting for " + description, e);
+		}
+		catch (ExecutionException e)
+		{
+			completed.increment();
+			if (e.getCause() instanceof RuntimeException runtimeException)
+			{
+				throw runtimeException;
+			}
+			if (e.getCause() instanceof Error error)
+			{
+				throw error;
+			}
+			throw new RuntimeException(description + " failed", e.getCause());
+		}
+	}
+
+	public Snapshot snapshot()
+	{
+		return new Snapshot(active.get(), waiting.get(), completed.sum(), rejected.sum(), timedOut.sum(),
+			TimeUnit.NANOSECONDS.toMillis(queueWaitNanos.sum()));
+	}
+
+	private void acquire(String description)
+	{
+		long start = System.nanoTime();
+		waiting.incrementAndGet();
+		try
+		{
+			if (!permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS))
+			{
+				rejected.increment();
+				System.err.println("Blob store saturated, rejected: " + description);
+				throw new BlobUnavailableException("Blob store saturated, rejected: " + description);
+			}
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new BlobUnavailableException("Interrupted while waiting for " + description, e);
+		}
+		finally
+		{
+			waiting.decrementAndGet();
+			queueWaitNanos.add(System.nanoTime() - start);
+		}
+	}
+}
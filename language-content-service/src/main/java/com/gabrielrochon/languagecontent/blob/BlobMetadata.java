@@ -0,0 +1,63 @@
+package com.gabrielrochon.languagecontent.blob;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+
+import java.time.Instant;
+
+/**
+ * Properties of a blob needed to serve it over HTTP without downloading its content.
+ *
+ * @param name the name of the blob
+ * @param size the size of the blob content in bytes
+ * @param contentType the content type stored with the blob, may be null
+ * @param eTag the ETag reported by the blob store
+ * @param lastModified the last modification time reported by the blob store
+ * @param contentHash the hex SHA-256 of the content once it is known, otherwise null
+ */
+public record BlobMetadata(String name, long size, String contentType, String eTag, Instant lastModified, String contentHash)
+{
+
+	public BlobMetadata(String name, long size, String contentType, String eTag, Instant lastModified)
+	{
+		this(name, size, contentType, eTag, lastModified, null);
+	}
+
+	public BlobMetadata withContentHash(String contentHash)
+	{
+		return new BlobMetadata(name, size, contentType, eTag, lastModified, contentHash);
+	}
+
+	/**
+	 * Returns the ETag to send to HTTP clients, derived from the blob store ETag only, so it
+	 * is the same before and after the content hash is known and clients keep revalidating
+	 * with 304s. Some stores return it unquoted or not at all, in which case one is derived
+	 * from the size and modification time.
+	 *
+	 * @return a quoted strong ETag
+	 */
+	public String strongETag()
+	{
+		String tag = eTag;
+		if (tag == null || tag.isBlank())
+		{
+			tag = Long.toHexString(size) + "-" + (lastModified != null ? Long.toHexString(lastModified.toEpochMilli()) : "0");
+		}
+		return tag.startsWith("\"") ? tag : "\"" + tag + "\"";
+	}
+
+	/**
+	 * Resolves the media type to serve the blob with.
+	 * Falls back to the file extension when the blob has no usable content type.
+	 *
+	 * @return the media type of the blob content
+	 */
+	public MediaType mediaType()
+	{
+		if (contentType != null && !contentType.isBlank() && !MediaType.APPLICATION_OCTET_STREAM_VALUE.equals(contentType))
+		{
+			return MediaType.parseMediaType(contentType);
+		}
+		return MediaTypeFactory.getMediaType(name).orElse(MediaType.APPLICATION_OCTET_STREAM);
+	}
+}
@@ -0,0 +1,159 @@
+package com.gabrielrochon.languagecontent.blob;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * In-process cache of blob metadata, including blobs known not to exist.
+ * Positive entries live for a long TTL; negative entries use a short TTL so a blob
+ * uploaded after a 404 becomes visible quickly. Existence checks, 304 answers and 404s
+ * for missing images are served from here without any call to the blob store.
+ */
+@Component
+public class BlobMetadataCache
+{
+
+	/**
+	 * Cached lookup result for one blob.
+	 *
+	 * @param metadata the blob metadata, or null when the blob does not exist
+	 * @param expiresAt the clock value after which the entry is stale
+	 */
+	public record Entry(BlobMetadata metadata, long expiresAt)
+	{
+
+		public boolean exists()
+		{
+			return metadata != null;
+		}
+
+		/**
+		 * Returns the metadata of an existing blob.
+		 *
+		 * @param blobName the name the entry was looked up with
+		 * @return the blob metadata
+		 * @throws BlobNotFoundException if the entry records a missing blob
+		 */
+		public BlobMetadata require(String blobName)
+		{
+			if (metadata == null)
+			{
+				throw new BlobNotFoundException(blobName);
+			}
+			return metadata;
+		}
+	}
+
+	private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+	private final CacheTierStats stats = new CacheTierStats();
+
+	private final long positiveTtlNanos;
+
+	private final long negativeTtlNanos;
+
+	private final int maxEntries;
+
+	private final LongSupplier clock;
+
+	@Autowired
+	public BlobMetadataCache(
+		@Value("${blob.metadata.ttl:PT10M}") Duration positiveTtl,
+		@Value("${blob.metadata.negative-ttl:PT30S}") Duration negativeTtl,
+		@Value("${blob.metadata.max-entries:10000}") int maxEntries)
+	{
+		this(positiveTtl, negativeTtl, maxEntries, System::nanoTime);
+	}
+
+	BlobMetadataCache(Duration positiveTtl, Duration negativeTtl, int maxEntries, LongSupplier clock)
+	{
+		this.positiveTtlNanos = positiveTtl.toNanos();
+		this.negativeTtlNanos = negativeTtl.toNanos();
+		this.maxEntries = maxEntries;
+		this.clock = clock;
+	}
+
+	/**
+	 * Looks up the metadata entry of a blob.
+	 *
+	 * @param blobName the name of the blob
+	 * @return the entry, or null when nothing fresh is cached
+	 */
+	public Entry get(String blobName)
+	{
+		Entry entry = entries.get(blobName);
+		if (entry == null)
+		{
+			stats.recordMiss();
+			return null;
+		}
+		if (clock.getAsLong() - entry.expiresAt() > 0)
+		{
+			entries.remove(blobName, entry);
+			stats.recordEviction();
+			stats.recordMiss();
+			return null;
+		}
+		stats.recordHit();
+		return entry;
+	}
+
+	// Looks up a fresh entry without counting it, for checks made ahead of the counted lookup
+	Entry peek(String blobName)
+	{
+		Entry entry = entries.get(blobName);
+		return entry != null && clock.getAsLong() - entry.expiresAt() <= 0 ? entry : null;
+	}
+
+	public void putPresent(BlobMetadata metadata)
+	{
+		put(metadata.name(), new Entry(metadata, clock.getAsLong() + positiveTtlNanos));
+	}
+
+	public void putMissing(String blobName)
+	{
+		put(blobName, new Entry(null, clock.getAsLong() + negativeTtlNanos));
+	}
+
+	public void evict(String blobName)
+	{
+		if (entries.remove(blobName) != null)
+		{
+			stats.recordEviction();
+		}
+	}
+
+	public CacheTierStats getStats()
+	{
+		return stats;
+	}
+
+	private void put(String blobName, Entry entry)
+	{
+		if (entries.size() >= maxEntries && !entries.containsKey(blobName))
+		{
+			makeRoom();
+		}
+		entries.put(blobName, entry);
+	}
+
+	// Drops expired entries first, then arbitrary ones, to keep the map bounded
+	private void makeRoom()
+	{
+		long now = clock.getAsLong();
+		entries.entrySet().removeIf(e -> now - e.getValue().expiresAt() > 0);
+		Iterator<String> iterator = entries.keySet().iterator();
+		while (entries.size() >= maxEntries && iterator.hasNext())
+		{
+			iterator.next();
+			iterator.remove();
+			stats.recordEviction();
+		}
+	}
+}
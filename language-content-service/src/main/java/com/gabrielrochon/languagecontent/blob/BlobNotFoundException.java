@@ -0,0 +1,13 @@
+package com.gabrielrochon.languagecontent.blob;
+
+/**
+ * Thrown when a requested blob does not exist in the blob store.
+ */
+public class BlobNotFoundException extends RuntimeException
+{
+
+	public BlobNotFoundException(String blobName)
+	{
+		super("Blob not found: " + blobName);
+	}
+}
@@ -0,0 +1,151 @@
+package com.gabrielrochon.languagecontent.blob;
+
+import org.springframework.core.io.AbstractResource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Spring Resource backed by a blob.
+ * The content is only opened when the response is written, so the controller can
+ * hand it to Spring MVC which copies it to the servlet output stream in fixed-size chunks.
+ * Spring serves Range requests on a Resource by skipping to the start of each range;
+ * skips issued before the first read are turned into the offset the content is opened at,
+ * so a range near the end of a large blob does not pull the bytes before it.
+ */
+public class BlobResource extends AbstractResource
+{
+
+	/**
+	 * Opens a fresh stream over the blob content, starting at the given offset.
+	 */
+	@FunctionalInterface
+	public interface ContentSource
+	{
+		InputStream open(long offset) throws IOException;
+	}
+
+	private final BlobMetadata metadata;
+
+	private final ContentSource contentSource;
+
+	public BlobResource(BlobMetadata metadata, ContentSource contentSource)
+	{
+		this.metadata = metadata;
+		this.contentSource = contentSource;
+	}
+
+	/**
+	 * Creates a resource over blob content already held in memory.
+	 *
+	 * @param blob the cached blob
+	 * @return a resource over the cached content
+	 */
+	public static BlobResource of(CachedBlob blob)
+	{
+		byte[] content = blob.content();
+		return new BlobResource(blob.metadata(), offset ->
+		{
+			int start = (int) Math.min(offset, content.length);
+			return new ByteArrayInputStream(content, start, content.length - start);
+		});
+	}
+
+	public BlobMetadata getMetadata()
+	{
+		return metadata;
+	}
+
+	@Override
+	public InputStream getInputStream()
+	{
+		return new OffsetInputStream();
+	}
+
+	// Overridden so Spring never reads the whole stream to compute the length
+	@Override
+	public long contentLength()
+	{
+		return metadata.size();
+	}
+
+	@Override
+	public boolean exists()
+	{
+		return true;
+	}
+
+	@Override
+	public String getFilename()
+	{
+		String name = metadata.name();
+		return name.substring(name.lastIndexOf('/') + 1);
+	}
+
+	@Override
+	public String getDescription()
+	{
+		return "Blob [" + metadata.name() + "]";
+	}
+
+	/**
+	 * Input stream that opens the content source lazily at the accumulated skip offset.
+	 */
+	private class OffsetInputStream extends InputStream
+	{
+
+		private long offset;
+
+		private InputStream delegate;
+
+		private InputStream delegate() throws IOException
+		{
+			if (delegate == null)
+			{
+				delegate = contentSource.open(offset);
+			}
+			return delegate;
+		}
+
+		@Override
+		public int read() throws IOException
+		{
+			return delegate().read();
+		}
+
+		@Override
+		public int read(byte[] buffer, int off, int len) throws IOException
+		{
+			return delegate().read(buffer, off, len);
+		}
+
+		@Override
+		public long skip(long n) throws IOException
+		{
+			if (delegate != null)
+			{
+				return delegate.skip(n);
+			}
+			long skipped = Math.max(0, Math.min(n, metadata.size() - offset));
+			offset += skipped;
+			return skipped;
+		}
+
+		@Override
+		public long transferTo(OutputStream out) throws IOException
+		{
+			return delegate().transferTo(out);
+		}
+
+		@Override
+		public void close() throws IOException
+		{
+			if (delegate != null)
+			{
+				delegate.close();
+			}
+		}
+	}
+}
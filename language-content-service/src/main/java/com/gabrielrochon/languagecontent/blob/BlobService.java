@@ -0,0 +1,396 @@
+package com.gabrielrochon.languagecontent.blob;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Service for reading blobs from the configured BlobStore.
+ * Provides methods to download blobs or serve them as resources.
+ * Blob content is cached as raw bytes in the two-tier BlobCache, and blob properties,
+ * including the absence of a blob, in the BlobMetadataCache.
+ * Cached content is addressed by its SHA-256 through the ContentManifest, so blobs stored
+ * under several names with identical bytes are cached once.
+ */
+@Service
+public class BlobService
+{
+
+	private final BlobStore blobStore;
+
+	private final BlobCache blobCache;
+
+	private final BlobMetadataCache metadataCache;
+
+	private final ContentManifest manifest;
+
+	// Every call to the store runs through it, bounded in concurrency and time
+	private final BlobIoExecutor blobIo;
+
+	// Coalesce concurrent cache misses so each blob is fetched from the store once at a time
+	private final SingleFlight<String, BlobMetadata> metadataFlight = new SingleFlight<>();
+
+	private final SingleFlight<String, CachedBlob> downloadFlight = new SingleFlight<>();
+
+	// Blobs above this size are always streamed and never cached
+	private long maxCachedBlobSize = 8L * 1024 * 1024;
+
+	public BlobService(
+		BlobStore blobStore,
+		BlobCache blobCache,
+		BlobMetadataCache metadataCache,
+		ContentManifest manifest,
+		BlobIoExecutor blobIo)
+	{
+		this.blobStore = blobStore;
+		this.blobCache = blobCache;
+		this.metadataCache = metadataCache;
+		this.manifest = manifest;
+		this.blobIo = blobIo;
+	}
+
+	@Value("${blob.cache.max-entry-size:8388608}")
+	void setMaxCachedBlobSize(long maxCachedBlobSize)
+	{
+		this.maxCachedBlobSize = maxCachedBlobSize;
+	}
+
+	/**
+	 * Retrieves the properties of a blob without downloading its content.
+	 * Answers come from the metadata cache while fresh, including for missing blobs.
+	 *
+	 * @param blobName the name of the blob
+	 * @return the metadata of the blob
+	 * @throws BlobNotFoundException if the blob does not exist
+	 * @throws RuntimeException if the blob cannot be reached
+	 */
+	public BlobMetadata getBlobMetadata(String blobName)
+	{
+		BlobMetadataCache.Entry entry = metadataCache.get(blobName);
+		BlobMetadata metadata = entry != null
+				? entry.require(blobName)
+				: metadataFlight.execute(blobName, () -> fetchMetadata(blobName));
+		return withKnownHash(metadata);
+	}
+
+	// Adds the content hash recorded in this replica when it still describes the same version
+	private BlobMetadata withKnownHash(BlobMetadata metadata)
+	{
+		BlobMetadata recorded = manifest.getLocal(metadata.name());
+		if (metadata.contentHash() != null || recorded == null)
+		{
+			return metadata;
+		}
+		return Objects.equals(recorded.eTag(), metadata.eTag()) ? recorded : metadata;
+	}
+
+	private BlobMetadata fetchMetadata(String blobName)
+	{
+		try
+		{
+			BlobMetadata metadata = blobIo.call("metadata of " + blobName, () -> blobStore.getMetadata(blobName));
+			metadataCache.putPresent(metadata);
+			return metadata;
+		}
+		catch (BlobNotFoundException e)
+		{
+			metadataCache.putMissing(blobName);
+			throw e;
+		}
+	}
+
+	/**
+	 * Opens a stream over the content of a blob.
+	 * Content is read from the store as the stream is consumed,
+	 * so the whole blob is never held in memory. Opening the stream is bounded by the
+	 * blob I/O timeout; later reads rely on the read timeout of the store client.
+	 *
+	 * @param metadata the metadata previously retrieved for the blob
+	 * @param offset the byte offset to start reading at
+	 * @return an input stream over the blob content
+	 */
+	public InputStream openBlobStream(BlobMetadata metadata, long offset)
+	{
+		return blobIo.call("open " + metadata.name(), () -> blobStore.openStream(metadata, offset));
+	}
+
+	/**
+	 * Resolves a blob into a resource that can be written to an HTTP response.
+	 * Blobs small enough to be cached are served from the blob cache; on a miss they are
+	 * downloaded and cached when the content is first opened, so a conditional request
+	 * answered with 304 only costs a properties call. Larger blobs are streamed from the store.
+	 *
+	 * @param blobName the name of the blob
+	 * @return a resource over the blob content
+	 * @throws RuntimeException if the blob does not exist or cannot be reached
+	 */
+	public BlobResource getBlobResource(String blobName)
+	{
+		CachedBlob cached = currentCachedBlob(blobName);
+		if (cached != null)
+		{
+			return BlobResource.of(cached);
+		}
+
+		BlobMetadata metadata = getBlobMetadata(blobName);
+		if (metadata.size() > maxCachedBlobSize)
+		{
+			return new BlobResource(metadata, offset -> openBlobStream(metadata, offset));
+		}
+		return new BlobResource(metadata, offset -> openContent(downloadAndCache(metadata).content(), offset));
+	}
+
+	/**
+	 * Downloads a blob as byte array, going through the blob cache.
+	 *
+	 * @param blobName the name of the blob to download
+	 * @return byte array of the blob content
+	 * @throws RuntimeException if the blob cannot be downloaded
+	 */
+	public byte[] downloadBlob(String blobName)
+	{
+		return fetchBlob(blobName).content();
+	}
+
+	/**
+	 * Downloads a blob together with its metadata, going through the blob cache.
+	 *
+	 * @param blobName the name of the blob to download
+	 * @return the blob content and metadata
+	 * @throws RuntimeException if the blob cannot be downloaded
+	 */
+	public CachedBlob fetchBlob(String blobName)
+	{
+		try
+		{
+			return fetchCurrentBlob(blobName);
+		}
+		catch (BlobChangedException e)
+		{
+			// Overwritten after its metadata was read; the metadata was evicted, so this reads it again
+			return fetchCurrentBlob(blobName);
+		}
+	}
+
+	private CachedBlob fetchCurrentBlob(String blobName)
+	{
+		CachedBlob cached = currentCachedBlob(blobName);
+		if (cached != null)
+		{
+			return cached;
+		}
+
+		BlobMetadata metadata = getBlobMetadata(blobName);
+		if (metadata.size() > maxCachedBlobSize)
+		{
+			return new CachedBlob(metadata, download(metadata));
+		}
+		return downloadAndCache(metadata);
+	}
+
+	/**
+	 * Loads a blob into the blob cache ahead of the first request for it.
+	 * Blobs too large to be cached only have their metadata cached.
+	 *
+	 * @param blobName the name of the blob to preload
+	 * @throws RuntimeException if the blob does not exist or cannot be downloaded
+	 */
+	public void preloadBlob(String blobName)
+	{
+		if (currentCachedBlob(blobName) != null)
+		{
+			return;
+		}
+		BlobMetadata metadata = getBlobMetadata(blobName);
+		if (metadata.size() <= maxCachedBlobSize)
+		{
+			downloadAndCache(metadata);
+		}
+	}
+
+	/**
+	 * Returns the hit, miss and eviction counters of each blob cache tier,
+	 * how many concurrent store calls were collapsed into in-flight ones,
+	 * the concurrency, queue and timeout counters of blob I/O,
+	 * and how many downloads were deduplicated by content hash.
+	 *
+	 * @return the blob cache counters keyed by tier or call name
+	 */
+	public Map<String, Object> getCacheStats()
+	{
+		Map<String, Object> stats = new LinkedHashMap<>(blobCache.getStats());
+		stats.put("metadata", metadataCache.getStats().snapshot());
+		stats.put("metadataCalls", metadataFlight.snapshot());
+		stats.put("downloads", downloadFlight.snapshot());
+		stats.put("io", blobIo.snapshot());
+		stats.put("manifest", manifest.snapshot());
+		return stats;
+	}
+
+	private byte[] download(BlobMetadata metadata)
+	{
+		try
+		{
+			System.out.println("Downloading blob: " + metadata.name());
+			byte[] data = blobIo.call("download " + metadata.name(), () -> blobStore.download(metadata));
+			System.out.println("Downloaded blob " + metadata.name() + ", size: " + data.length + " bytes");
+			return data;
+		}
+		catch (BlobUnavailableException e)
+		{
+			// The store is slow or saturated, the metadata is still valid
+			throw e;
+		}
+		catch (BlobChangedException e)
+		{
+			System.err.println(e.getMessage());
+			metadataCache.evict(metadata.name());
+			throw e;
+		}
+		catch (Exception e)
+		{
+			System.err.println("Failed to download blob: " + metadata.name() + ", error: " + e.getMessage());
+			// The cached metadata no longer matches the blob, look it up again next time
+			metadataCache.evict(metadata.name());
+			throw new RuntimeException("Failed to download blob: " + metadata.name(), e);
+		}
+	}
+
+	/**
+	 * Returns the cached content of a blob if it is still the current version.
+	 * The manifest entry of a blob, and through it the cached payload, is trusted until the
+	 * metadata entry expires; the store is then asked for fresh metadata, and once it shows a
+	 * different ETag, or that the blob is gone, the manifest entry is dropped. Payloads
+	 * themselves never go stale since they are addressed by their hash. Blobs the metadata
+	 * cache knows to be missing, or too large to be cached, skip the manifest and its Redis read.
+	 */
+	private CachedBlob currentCachedBlob(String blobName)
+	{
+		BlobMetadataCache.Entry entry = metadataCache.peek(blobName);
+		if (entry != null && (!entry.exists() || entry.metadata().size() > maxCachedBlobSize))
+		{
+			return null;
+		}
+		BlobMetadata recorded = manifest.get(blobName);
+		if (recorded == null)
+		{
+			return null;
+		}
+		if (!isCurrent(recorded))
+		{
+			manifest.remove(blobName);
+			return null;
+		}
+		CachedBlob payload = blobCache.get(ContentManifest.contentKey(recorded.contentHash()));
+		return payload != null ? new CachedBlob(recorded, payload.content()) : null;
+	}
+
+	// Revalidates against the store once the metadata entry has expired. While the store is
+	// unavailable the recorded version keeps being served, and the next request asks again.
+	private boolean isCurrent(BlobMetadata recorded)
+	{
+		BlobMetadataCache.Entry entry = metadataCache.get(recorded.name());
+		if (entry != null)
+		{
+			return entry.exists() && Objects.equals(entry.metadata().eTag(), recorded.eTag());
+		}
+		try
+		{
+			BlobMetadata fresh = metadataFlight.execute(recorded.name(), () -> fetchMetadata(recorded.name()));
+			return Objects.equals(fresh.eTag(), recorded.eTag());
+		}
+		catch (BlobNotFoundException e)
+		{
+			return false;
+		}
+		catch (BlobUnavailableException e)
+		{
+			System.err.println("Could not revalidate cached blob " + recorded.name() + ": " + e.getMessage());
+			return true;
+		}
+	}
+
+	// Concurrent misses for the same blob share one download. The cache is re-checked inside
+	// the flight so callers arriving just after it completes do not download again either.
+	// A payload already cached under another name is reused instead of stored a second time.
+	private CachedBlob downloadAndCache(BlobMetadata metadata)
+	{
+		return downloadFlight.execute(metadata.name(), () ->
+		{
+			CachedBlob cached = currentCachedBlob(metadata.name());
+			if (cached != null)
+			{
+				return cached;
+			}
+			byte[] content = download(metadata);
+			BlobMetadata hashed = metadata.withContentHash(ContentManifest.hash(content));
+			String contentKey = ContentManifest.contentKey(hashed.contentHash());
+			CachedBlob payload = blobCache.get(contentKey);
+			if (payload == null)
+			{
+				payload = new CachedBlob(hashed, content);
+				blobCache.put(contentKey, payload);
+			}
+			else
+			{
+				manifest.recordDuplicate();
+			}
+			manifest.put(hashed);
+			metadataCache.putPresent(hashed);
+			return new CachedBlob(hashed, payload.content());
+		});
+	}
+
+	private static InputStream openContent(byte[] content, long offset)
+	{
+		int start = (int) Math.min(offset, content.length);
+		return new ByteArrayInputStream(content, start, content.length - start);
+	}
+
+	/**
+	 * Checks if a blob exists, answering from the metadata cache while fresh.
+	 *
+	 * @param blobName the name of the blob
+	 * @return true if the blob exists, false otherwise
+	 */
+	public boolean blobExists(String blobName)
+	{
+		try
+		{
+			getBlobMetadata(blobName);
+			return true;
+		}
+		catch (BlobNotFoundException e)
+		{
+			return false;
+		}
+		catch (Exception e)
+		{
+			System.err.println("Error checking if blob exists " + blobName + ": " + e.getMessage());
+			return false;
+		}
+	}
+
+	/**
+	 * Checks if the blob store, such as the Azure container, is reachable.
+	 *
+	 * @return true if the store is available, false otherwise
+	 */
+	public boolean containerExists()
+	{
+		try
+		{
+			return blobIo.call("container check", blobStore::isAvailable);
+		}
+		catch (Exception e)
+		{
+			System.err.println("Error checking container existence: " + e.getMessage());
+			return false;
+		}
+	}
+}
@@ -0,0 +1,48 @@
+package com.gabrielrochon.languagecontent.blob;
+
+import java.io.InputStream;
+
+/**
+ * Storage backend holding the blobs served by the application.
+ * Implementations only talk to the underlying store; caching and coalescing of
+ * concurrent calls are done once for every backend by BlobService.
+ * The backend is selected with the blob.store.type property.
+ */
+public interface BlobStore
+{
+
+	/**
+	 * Reads the properties of a blob without its content.
+	 *
+	 * @param blobName the name of the blob
+	 * @return the metadata of the blob
+	 * @throws BlobNotFoundException if the blob does not exist
+	 */
+	BlobMetadata getMetadata(String blobName);
+
+	/**
+	 * Reads the whole content of a blob.
+	 *
+	 * @param metadata the metadata previously read for the blob
+	 * @return the blob content
+	 * @throws BlobChangedException if the blob no longer matches the metadata
+	 * @throws RuntimeException if the blob cannot be read
+	 */
+	byte[] download(BlobMetadata metadata);
+
+	/**
+	 * Opens a stream over the content of a blob without holding it in memory.
+	 *
+	 * @param metadata the metadata previously read for the blob
+	 * @param offset the byte offset to start reading at
+	 * @return an input stream over the blob content
+	 */
+	InputStream openStream(BlobMetadata metadata, long offset);
+
+	/**
+	 * Checks whether the store itself, such as the container or root directory, is reachable.
+	 *
+	 * @return true if blobs can be read from the store
+	 */
+	boolean isAvailable();
+}
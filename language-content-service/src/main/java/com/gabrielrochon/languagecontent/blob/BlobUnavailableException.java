@@ -0,0 +1,19 @@
+package com.gabrielrochon.languagecontent.blob;
+
+/**
+ * Thrown when the blob store cannot serve a call in time, either because the
+ * concurrency limit is exhausted or because the call exceeded its timeout.
+ */
+public class BlobUnavailableException extends RuntimeException
+{
+
+	public BlobUnavailableException(String message)
+	{
+		super(message);
+	}
+
+	public BlobUnavailableException(String message, Throwable cause)
+	{
+		super(message, cause);
+	}
+}
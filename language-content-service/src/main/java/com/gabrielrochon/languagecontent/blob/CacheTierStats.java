@@ -0,0 +1,47 @@
+package com.gabrielrochon.languagecontent.blob;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hit, miss and eviction counters for one tier of a cache.
+ */
+public class CacheTierStats
+{
+
+	/**
+	 * Point-in-time copy of the counters, serialized by the stats endpoint.
+	 * The hit rate is the share of lookups that were hits, 0 before any lookup.
+	 */
+	public record Snapshot(long hits, long misses, long evictions, double hitRate)
+	{
+	}
+
+	private final LongAdder hits = new LongAdder();
+
+	private final LongAdder misses = new LongAdder();
+
+	private final LongAdder evictions = new LongAdder();
+
+	public void recordHit()
+	{
+		hits.increment();
+	}
+
+	public void recordMiss()
+	{
+		misses.increment();
+	}
+
+	public void recordEviction()
+	{
+		evictions.increment();
+	}
+
+	public Snapshot snapshot()
+	{
+		long hitCount = hits.sum();
+		long missCount = misses.sum();
+		long lookups = hitCount + missCount;
+		return new Snapshot(hitCount, missCount, evictions.sum(), lookups == 0 ? 0 : (double) hitCount / lookups);
+	}
+}
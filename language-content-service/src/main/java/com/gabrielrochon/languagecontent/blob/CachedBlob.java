@@ -0,0 +1,12 @@
+package com.gabrielrochon.languagecontent.blob;
+
+/**
+ * Blob content held by the blob cache together with the metadata it was downloaded with,
+ * so a cache hit can be served without asking the blob store for its properties.
+ *
+ * @param metadata the metadata of the blob at download time
+ * @param content the raw blob content
+ */
+public record CachedBlob(BlobMetadata metadata, byte[] content)
+{
+}
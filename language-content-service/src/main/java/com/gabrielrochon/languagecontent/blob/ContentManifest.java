@@ -0,0 +1,303 @@
+package com.gabrielrochon.languagecontent.blob;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Maps blob names to the SHA-256 of their content, so the blob cache can store each unique
+ * payload once under a content key no matter how many names refer to it.
+ * Each entry records the blob metadata it was hashed with and is refreshed on its own: it is
+ * replaced when a new version of the blob is downloaded and dropped when fresh metadata shows
+ * a different blob store ETag. Entries are shared with other replicas through Redis; the
+ * local copy is bounded and entries dropped from it are read back from Redis when needed.
+ * Names Redis has no entry for are remembered for the metadata TTL, so a blob that is never
+ * hashed, such as one only revalidated with 304s, does not cost a Redis read per request.
+ */
+@Component
+public class ContentManifest
+{
+
+	/**
+	 * Point-in-time copy of the counters, serialized by the stats endpoint.
+	 *
+	 * @param entries names currently mapped in this replica
+	 * @param deduplicated downloads whose payload was already cached under another name
+	 */
+	public record Snapshot(int entries, long deduplicated)
+	{
+	}
+
+	private static final String KEY_PREFIX = "manifest::";
+
+	private static final String CONTENT_KEY_PREFIX = "sha256::";
+
+	private static final byte FORMAT_VERSION = 1;
+
+	private final ConcurrentHashMap<String, BlobMetadata> entries = new ConcurrentHashMap<>();
+
+	// Names missing from Redis, with the System.nanoTime at which they are looked up again
+	private final ConcurrentHashMap<String, Long> misses = new ConcurrentHashMap<>();
+
+	// Null when the Redis tier is disabled
+	private final RedisTemplate<String, byte[]> redisTemplate;
+
+	private final Duration ttl;
+
+	private final int maxEntries;
+
+	private final long missTtlNanos;
+
+	private final LongAdder deduplicated = new LongAdder();
+
+	@Autowired
+	public ContentManifest(
+		RedisTemplate<String, byte[]> blobRedisTemplate,
+		@Value("${blob.cache.redis.enabled:true}") boolean redisEnabled,
+		@Value("${blob.cache.redis.ttl:PT24H}") Duration redisTtl,
+		@Value("${blob.manifest.max-entries:10000}") int maxEntries,
+		@Value("${blob.metadata.ttl:PT10M}") Duration missTtl)
+	{
+		this(redisEnabled ? blobRedisTemplate : null, redisTtl, maxEntries, missTtl);
+	}
+
+	public ContentManifest(RedisTemplate<String, byte[]> redisTemplate, Duration ttl)
+	{
+		this(redisTemplate, ttl, 10000);
+	}
+
+	public ContentManifest(RedisTemplate<String, byte[]> redisTemplate, Duration ttl, int maxEntries)
+	{
+		this(redisTemplate, ttl, maxEntries, Duration.ofMinutes(10));
+	}
+
+	public ContentManifest(RedisTemplate<String, byte[]> redisTemplate, Duration ttl, int maxEntries, Duration missTtl)
+	{
+		this.redisTemplate = redisTemplate;
+		this.ttl = ttl;
+		this.maxEntries = maxEntries;
+		this.missTtlNanos = missTtl.toNanos();
+	}
+
+	/**
+	 * Returns the blob cache key of a payload.
+	 *
+	 * @param contentHash the hex SHA-256 of the payload
+	 * @return the content-addressed cache key
+	 */
+	public static String contentKey(String contentHash)
+	{
+		return CONTENT_KEY_PREFIX + contentHash;
+	}
+
+	/**
+	 * Computes the content hash used to address a payload.
+	 *
+	 * @param content the payload
+	 * @return the hex SHA-256 of the payload
+	 */
+	public static String hash(byte[] content)
+	{
+		try
+		{
+			return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+		}
+		catch (NoSuchAlgorithmException e)
+		{
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+
+	/**
+	 * Looks up the entry of a blob in this replica only, without any remote call.
+	 *
+	 * @param blobName the name of the blob
+	 * @return the metadata including the content hash, or null if not known locally
+	 */
+	public BlobMetadata getLocal(String blobName)
+	{
+		return entries.get(blobName);
+	}
+
+	/**
+	 * Looks up the entry of a blob, falling back to the entries shared through Redis unless
+	 * Redis recently had none for the name.
+	 *
+	 * @param blobName the name of the blob
+	 * @return the metadata including the content hash, or null if the blob was never hashed
+	 */
+	public BlobMetadata get(String blobName)
+	{
+		BlobMetadata metadata = entries.get(blobName);
+		if (metadata != null || redisTemplate == null || isRecentMiss(blobName))
+		{
+			return metadata;
+		}
+		try
+		{
+			byte[] value = redisTemplate.opsForValue().get(KEY_PREFIX + blobName);
+			if (value == null)
+			{
+				putMiss(blobName);
+				return null;
+			}
+			metadata = decode(value);
+			putLocal(metadata);
+			return metadata;
+		}
+		catch (Exception e)
+		{
+			System.err.println("Redis manifest read failed for " + blobName + ": " + e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Records the content hash of a blob version.
+	 *
+	 * @param metadata the metadata of the blob, including its content hash
+	 */
+	public void put(BlobMetadata metadata)
+	{
+		misses.remove(metadata.name());
+		putLocal(metadata);
+		if (redisTemplate == null)
+		{
+			return;
+		}
+		try
+		{
+			redisTemplate.opsForValue().set(KEY_PREFIX + metadata.name(), encode(metadata), ttl);
+		}
+		catch (Exception e)
+		{
+			System.err.println("Redis manifest write failed for " + metadata.name() + ": " + e.getMessage());
+		}
+	}
+
+	public void remove(String blobName)
+	{
+		entries.remove(blobName);
+		misses.remove(blobName);
+		if (redisTemplate == null)
+		{
+			return;
+		}
+		try
+		{
+			redisTemplate.delete(KEY_PREFIX + blobName);
+		}
+		catch (Exception e)
+		{
+			System.err.println("Redis manifest eviction failed for " + blobName + ": " + e.getMessage());
+		}
+	}
+
+	// Drops arbitrary entries to keep the map bounded, like BlobMetadataCache
+	private void putLocal(BlobMetadata metadata)
+	{
+		if (entries.size() >= maxEntries && !entries.containsKey(metadata.name()))
+		{
+			Iterator<String> iterator = entries.keySet().iterator();
+			while (entries.size() >= maxEntries && iterator.hasNext())
+			{
+				iterator.next();
+				iterator.remove();
+			}
+		}
+		entries.put(metadata.name(), metadata);
+	}
+
+	private boolean isRecentMiss(String blobName)
+	{
+		Long expiresAt = misses.get(blobName);
+		if (expiresAt == null)
+		{
+			return false;
+		}
+		if (expiresAt - System.nanoTime() > 0)
+		{
+			return true;
+		}
+		misses.remove(blobName, expiresAt);
+		return false;
+	}
+
+	// Bounded like the entries; a miss dropped early only costs one more Redis read
+	private void putMiss(String blobName)
+	{
+		if (misses.size() >= maxEntries && !misses.containsKey(blobName))
+		{
+			Iterator<String> iterator = misses.keySet().iterator();
+			while (misses.size() >= maxEntries && iterator.hasNext())
+			{
+				iterator.next();
+				iterator.remove();
+			}
+		}
+		misses.put(blobName, System.nanoTime() + missTtlNanos);
+	}
+
+	public void recordDuplicate()
+	{
+		deduplicated.increment();
+	}
+
+	public Snapshot snapshot()
+	{
+		return new Snapshot(entries.size(), deduplicated.sum());
+	}
+
+	static byte[] encode(BlobMetadata metadata) throws IOException
+	{
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream(160);
+		DataOutputStream out = new DataOutputStream(buffer);
+		out.writeByte(FORMAT_VERSION);
+		out.writeUTF(metadata.name());
+		out.writeLong(metadata.size());
+		out.writeUTF(metadata.contentType() != null ? metadata.contentType() : "");
+		out.writeUTF(metadata.eTag() != null ? metadata.eTag() : "");
+		out.writeLong(metadata.lastModified() != null ? metadata.lastModified().toEpochMilli() : -1L);
+		out.writeUTF(metadata.contentHash());
+		out.flush();
+		return buffer.toByteArray();
+	}
+
+	static BlobMetadata decode(byte[] value) throws IOException
+	{
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(value));
+		byte version = in.readByte();
+		if (version != FORMAT_VERSION)
+		{
+			throw new IOException("Unsupported manifest format version " + version);
+		}
+		String name = in.readUTF();
+		long size = in.readLong();
+		String contentType = in.readUTF();
+		String eTag = in.readUTF();
+		long lastModified = in.readLong();
+		String contentHash = in.readUTF();
+		return new BlobMetadata(
+			name,
+			size,
+			contentType.isEmpty() ? null : contentType,
+			eTag.isEmpty() ? null : eTag,
+			lastModified >= 0 ? Instant.ofEpochMilli(lastModified) : null,
+			contentHash);
+	}
+}
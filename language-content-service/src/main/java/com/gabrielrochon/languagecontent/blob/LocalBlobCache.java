@@ -0,0 +1,137 @@
+package com.gabrielrochon.languagecontent.blob;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process tier of the blob cache.
+ * Entries are weighted by their content size and the least recently used ones are
+ * evicted once the total weight goes over the configured budget.
+ * Guarded by a lock rather than synchronized, which pins virtual threads to their carrier on Java 21.
+ */
+public class LocalBlobCache
+{
+
+	private final long maxBytes;
+
+	// Access-ordered so iteration starts with the least recently used entry
+	private final LinkedHashMap<String, CachedBlob> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+	private final CacheTierStats stats = new CacheTierStats();
+
+	private final ReentrantLock lock = new ReentrantLock();
+
+	private long currentBytes;
+
+	public LocalBlobCache(long maxBytes)
+	{
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * Looks up a blob and marks it as recently used.
+	 *
+	 * @param key the cache key
+	 * @return the cached blob, or null on a miss
+	 */
+	public CachedBlob get(String key)
+	{
+		lock.lock();
+		try
+		{
+			CachedBlob blob = entries.get(key);
+			if (blob == null)
+			{
+				stats.recordMiss();
+				return null;
+			}
+			stats.recordHit();
+			return blob;
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Stores a blob, evicting least recently used entries until it fits.
+	 * Blobs larger than the whole budget are not stored.
+	 *
+	 * @param key the cache key
+	 * @param blob the blob to store
+	 */
+	public void put(String key, CachedBlob blob)
+	{
+		long weight = blob.content().length;
+		if (weight > maxBytes)
+		{
+			return;
+		}
+		lock.lock();
+		try
+		{
+			CachedBlob previous = entries.put(key, blob);
+			if (previous != null)
+			{
+				currentBytes -= previous.content().length;
+			}
+			currentBytes += weight;
+
+			Iterator<Map.Entry<String, CachedBlob>> iterator = entries.entrySet().iterator();
+			while (currentBytes > maxBytes && iterator.hasNext())
+			{
+				Map.Entry<String, CachedBlob> eldest = iterator.next();
+				if (eldest.getKey().equals(key))
+				{
+					continue;
+				}
+				currentBytes -= eldest.getValue().content().length;
+				iterator.remove();
+				stats.recordEviction();
+			}
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	public void evict(String key)
+	{
+		lock.lock();
+		try
+		{
+			CachedBlob removed = entries.remove(key);
+			if (removed != null)
+			{
+				currentBytes -= removed.content().length;
+				stats.recordEviction();
+			}
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	public long getCurrentBytes()
+	{
+		lock.lock();
+		try
+		{
+			return currentBytes;
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	public CacheTierStats getStats()
+	{
+		return stats;
+	}
+}
@@ -0,0 +1,228 @@
+package com.gabrielrochon.languagecontent.blob;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+
+/**
+ * Blob store serving files below a root directory of the local filesystem, where blob names
+ * are relative paths. Whole blobs are read through a memory mapping of the file and streams
+ * read the file channel directly, handing the rest of a file to FileChannel.transferTo so the
+ * kernel copies it when the response is written in one go.
+ * Selected with blob.store.type=local; the directory is set by blob.store.local.root.
+ */
+@Component
+@ConditionalOnProperty(name = "blob.store.type", havingValue = "local")
+public class LocalFileBlobStore implements BlobStore
+{
+
+	private final Path root;
+
+	public LocalFileBlobStore(@Value("${blob.store.local.root}") String root)
+	{
+		this.root = Path.of(root).toAbsolutePath().normalize();
+	}
+
+	@Override
+	public BlobMetadata getMetadata(String blobName)
+	{
+		Path file = resolve(blobName);
+		try
+		{
+			BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+			if (!attributes.isRegularFile())
+			{
+				throw new BlobNotFoundException(blobName);
+			}
+			Instant lastModified = attributes.lastModifiedTime().toInstant();
+			return new BlobMetadata(
+				blobName,
+				attributes.size(),
+				Files.probeContentType(file),
+				eTag(attributes.size(), lastModified),
+				lastModified);
+		}
+		catch (NoSuchFileException e)
+		{
+			throw new BlobNotFoundException(blobName);
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException("Failed to read attributes of " + file, e);
+		}
+	}
+
+	@Override
+	public byte[] download(BlobMetadata metadata)
+	{
+		try (FileChannel channel = open(metadata))
+		{
+			byte[] content = new byte[(int) metadata.size()];
+			MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, content.length);
+			mapped.get(content);
+			return content;
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException("Failed to read " + metadata.name(), e);
+		}
+	}
+
+	@Override
+	public InputStream openStream(BlobMetadata metadata, long offset)
+	{
+		try
+		{
+			return new FileChannelInputStream(open(metadata), offset);
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException("Failed to open " + metadata.name(), e);
+		}
+	}
+
+	@Override
+	public boolean isAvailable()
+	{
+		return Files.isDirectory(root);
+	}
+
+	// Blob names come from request paths, so anything resolving outside the root is treated as missing
+	private Path resolve(String blobName)
+	{
+		try
+		{
+			Path file = root.resolve(blobName).normalize();
+			if (!file.startsWith(root) || file.equals(root))
+			{
+				throw new BlobNotFoundException(blobName);
+			}
+			return file;
+		}
+		catch (InvalidPathException e)
+		{
+			throw new BlobNotFoundException(blobName);
+		}
+	}
+
+	// Fails like a conditional Azure read when the file was replaced after its metadata was read
+	private FileChannel open(BlobMetadata metadata) throws IOException
+	{
+		FileChannel channel = FileChannel.open(resolve(metadata.name()), StandardOpenOption.READ);
+		try
+		{
+			if (!getMetadata(metadata.name()).eTag().equals(metadata.eTag()))
+			{
+				throw new IllegalStateException("Blob " + metadata.name() + " changed since its metadata was read");
+			}
+			return channel;
+		}
+		catch (RuntimeException e)
+		{
+			channel.close();
+			throw e;
+		}
+	}
+
+	private static String eTag(long size, Instant lastModified)
+	{
+		long nanos = lastModified.getEpochSecond() * 1_000_000_000L + lastModified.getNano();
+		return "\"" + Long.toHexString(size) + "-" + Long.toHexString(nanos) + "\"";
+	}
+
+	/**
+	 * Input stream reading a file channel from a given position with positional reads.
+	 */
+	static class FileChannelInputStream extends InputStream
+	{
+
+		private final FileChannel channel;
+
+		private long position;
+
+		FileChannelInputStream(FileChannel channel, long position)
+		{
+			this.channel = channel;
+			this.position = position;
+		}
+
+		@Override
+		public int read() throws IOException
+		{
+			byte[] single = new byte[1];
+			return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+		}
+
+		@Override
+		public int read(byte[] buffer, int offset, int length) throws IOException
+		{
+			if (length == 0)
+			{
+				return 0;
+			}
+			int read = channel.read(ByteBuffer.wrap(buffer, offset, length), position);
+			if (read > 0)
+			{
+				position += read;
+			}
+			return read;
+		}
+
+		@Override
+		public long skip(long n) throws IOException
+		{
+			long skipped = Math.max(0, Math.min(n, channel.size() - position));
+			position += skipped;
+			return skipped;
+		}
+
+		@Override
+		public int available() throws IOException
+		{
+			return (int) Math.min(Integer.MAX_VALUE, Math.max(0, channel.size() - position));
+		}
+
+		// Lets the channel move the remaining bytes to the target without a user-space buffer loop
+		@Override
+		public long transferTo(OutputStream out) throws IOException
+		{
+			WritableByteChannel target = Channels.newChannel(out);
+			long size = channel.size();
+			long transferred = 0;
+			while (position < size)
+			{
+				long count = channel.transferTo(position, size - position, target);
+				if (count <= 0)
+				{
+					break;
+				}
+				position += count;
+				transferred += count;
+			}
+			return transferred;
+		}
+
+		@Override
+		public void close() throws IOException
+		{
+			channel.close();
+		}
+	}
+}
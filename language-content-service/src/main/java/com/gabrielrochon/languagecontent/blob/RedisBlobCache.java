@@ -0,0 +1,168 @@
+package com.gabrielrochon.languagecontent.blob;
+
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * Redis tier of the blob cache.
+ * Values are the raw blob bytes prefixed by a small binary header holding the blob metadata,
+ * so nothing is Base64 or JSON encoded on the way in or out.
+ * Redis failures are logged and treated as misses so the image path keeps working without Redis.
+ */
+public class RedisBlobCache
+{
+
+	private static final String KEY_PREFIX = "blob::";
+
+	private static final byte FORMAT_VERSION = 1;
+
+	private final RedisTemplate<String, byte[]> redisTemplate;
+
+	private final Duration ttl;
+
+	private final CacheTierStats stats = new CacheTierStats();
+
+	public RedisBlobCache(RedisTemplate<String, byte[]> redisTemplate, Duration ttl)
+	{
+		this.redisTemplate = redisTemplate;
+		this.ttl = ttl;
+	}
+
+	/**
+	 * Looks up a blob in Redis.
+	 *
+	 * @param key the cache key
+	 * @return the cached blob, or null on a miss or when Redis is unreachable
+	 */
+	public CachedBlob get(String key)
+	{
+		byte[] value;
+		try
+		{
+			value = redisTemplate.opsForValue().get(KEY_PREFIX + key);
+		}
+		catch (Exception e)
+		{
+			System.err.println("Redis blob cache read failed for " + key + ": " + e.getMessage());
+			stats.recordMiss();
+			return null;
+		}
+		if (value == null)
+		{
+			stats.recordMiss();
+			return null;
+		}
+
+		CachedBlob blob;
+		try
+		{
+			blob = decode(value);
+		}
+		catch (IOException e)
+		{
+			// A corrupt value or one of an older format: it counts as a miss and is dropped,
+			// so the next put replaces it instead of every read failing on it until it expires
+			System.err.println("Redis blob cache value for " + key + " could not be decoded: " + e.getMessage());
+			stats.recordMiss();
+			drop(key);
+			return null;
+		}
+		stats.recordHit();
+		return blob;
+	}
+
+	public void put(String key, CachedBlob blob)
+	{
+		try
+		{
+			redisTemplate.opsForValue().set(KEY_PREFIX + key, encode(blob), ttl);
+		}
+		catch (Exception e)
+		{
+			System.err.println("Redis blob cache write failed for " + key + ": " + e.getMessage());
+		}
+	}
+
+	public void evict(String key)
+	{
+		try
+		{
+			if (Boolean.TRUE.equals(redisTemplate.delete(KEY_PREFIX + key)))
+			{
+				stats.recordEviction();
+			}
+		}
+		catch (Exception e)
+		{
+			System.err.println("Redis blob cache eviction failed for " + key + ": " + e.getMessage());
+		}
+	}
+
+	private void drop(String key)
+	{
+		try
+		{
+			redisTemplate.delete(KEY_PREFIX + key);
+		}
+		catch (Exception e)
+		{
+			System.err.println("Redis blob cache could not drop " + key + ": " + e.getMessage());
+		}
+	}
+
+	public CacheTierStats getStats()
+	{
+		return stats;
+	}
+
+	static byte[] encode(CachedBlob blob) throws IOException
+	{
+		BlobMetadata metadata = blob.metadata();
+		ByteArrayOutputStream header = new ByteArrayOutputStream(128);
+		DataOutputStream out = new DataOutputStream(header);
+		out.writeByte(FORMAT_VERSION);
+		out.writeUTF(metadata.name());
+		out.writeUTF(metadata.contentType() != null ? metadata.contentType() : "");
+		out.writeUTF(metadata.eTag() != null ? metadata.eTag() : "");
+		out.writeLong(metadata.lastModified() != null ? metadata.lastModified().toEpochMilli() : -1L);
+		out.flush();
+
+		byte[] content = blob.content();
+		byte[] value = Arrays.copyOf(header.toByteArray(), header.size() + content.length);
+		System.arraycopy(content, 0, value, header.size(), content.length);
+		return value;
+	}
+
+	static CachedBlob decode(byte[] value) throws IOException
+	{
+		ByteArrayInputStream buffer = new ByteArrayInputStream(value);
+		DataInputStream in = new DataInputStream(buffer);
+		byte version = in.readByte();
+		if (version != FORMAT_VERSION)
+		{
+			throw new IOException("Unsupported blob cache format version " + version);
+		}
+		String name = in.readUTF();
+		String contentType = in.readUTF();
+		String eTag = in.readUTF();
+		long lastModified = in.readLong();
+
+		int headerSize = value.length - buffer.available();
+		byte[] content = Arrays.copyOfRange(value, headerSize, value.length);
+		BlobMetadata metadata = new BlobMetadata(
+			name,
+			content.length,
+			contentType.isEmpty() ? null : contentType,
+			eTag.isEmpty() ? null : eTag,
+			lastModified >= 0 ? Instant.ofEpochMilli(lastModified) : null);
+		return new CachedBlob(metadata, content);
+	}
+}
@@ -0,0 +1,93 @@
+package com.gabrielrochon.languagecontent.blob;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls for the same key into a single execution.
+ * The first caller for a key runs the loader; callers arriving while it is in flight
+ * wait for it and receive the same value, or the same exception, instead of running it again.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class SingleFlight<K, V>
+{
+
+	/**
+	 * Point-in-time copy of the counters, serialized by the stats endpoint.
+	 */
+	public record Snapshot(long executions, long collapsed)
+	{
+	}
+
+	private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+	private final LongAdder executions = new LongAdder();
+
+	private final LongAdder collapsed = new LongAdder();
+
+	/**
+	 * Runs the loader for a key, or joins the execution already in flight for it.
+	 *
+	 * @param key the key identifying the work
+	 * @param loader the work to run when no call for the key is in flight
+	 * @return the value produced by the single execution
+	 */
+	public V execute(K key, Supplier<V> loader)
+	{
+		CompletableFuture<V> call = new CompletableFuture<>();
+		CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+		if (existing != null)
+		{
+			collapsed.increment();
+			return join(existing);
+		}
+
+		executions.increment();
+		try
+		{
+			V value = loader.get();
+			call.complete(value);
+			return value;
+		}
+		catch (RuntimeException | Error e)
+		{
+			call.completeExceptionally(e);
+			throw e;
+		}
+		finally
+		{
+			inFlight.remove(key, call);
+		}
+	}
+
+	public Snapshot snapshot()
+	{
+		return new Snapshot(executions.sum(), collapsed.sum());
+	}
+
+	// Rethrows the leader's exception as is so every waiter sees the same error
+	private V join(CompletableFuture<V> call)
+	{
+		try
+		{
+			return call.join();
+		}
+		catch (CompletionException e)
+		{
+			if (e.getCause() instanceof RuntimeException runtimeException)
+			{
+				throw runtimeException;
+			}
+			if (e.getCause() instanceof Error error)
+			{
+				throw error;
+			}
+			throw e;
+		}
+	}
+}
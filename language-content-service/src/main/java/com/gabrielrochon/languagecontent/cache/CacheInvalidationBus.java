@@ -0,0 +1,108 @@
+package com.gabrielrochon.languagecontent.cache;
+
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * Publishes and receives near-cache invalidations over a Redis pub/sub channel.
+ * A message carries the ID of the replica that sent it, the cache name and, unless the
+ * whole cache was cleared, the key, separated by newlines. Replicas ignore their own messages.
+ * Pub/sub delivery is best effort: a replica that misses a message keeps the stale entry
+ * until the near-cache TTL expires it.
+ */
+public class CacheInvalidationBus
+{
+
+	/**
+	 * Point-in-time copy of the counters, serialized by the stats endpoint.
+	 *
+	 * @param published invalidations sent to the other replicas
+	 * @param received invalidations received from the other replicas
+	 * @param failed invalidations that could not be published
+	 */
+	public record Snapshot(long published, long received, long failed)
+	{
+	}
+
+	private final StringRedisTemplate redisTemplate;
+
+	private final String channel;
+
+	private final String origin;
+
+	private final LongAdder published = new LongAdder();
+
+	private final LongAdder received = new LongAdder();
+
+	private final LongAdder failed = new LongAdder();
+
+	public CacheInvalidationBus(StringRedisTemplate redisTemplate, String channel)
+	{
+		this(redisTemplate, channel, UUID.randomUUID().toString());
+	}
+
+	CacheInvalidationBus(StringRedisTemplate redisTemplate, String channel, String origin)
+	{
+		this.redisTemplate = redisTemplate;
+		this.channel = channel;
+		this.origin = origin;
+	}
+
+	public String getChannel()
+	{
+		return channel;
+	}
+
+	/**
+	 * Tells the other replicas to drop an entry from their near-caches.
+	 * Failures are logged and swallowed; the write that caused the invalidation has
+	 * already been applied to Redis.
+	 *
+	 * @param cacheName the name of the cache
+	 * @param key the key to drop, or null to drop every entry of the cache
+	 */
+	public void publish(String cacheName, Object key)
+	{
+		String message = origin + "\n" + cacheName + (key != null ? "\n" + key : "");
+		try
+		{
+			redisTemplate.convertAndSend(channel, message);
+			published.increment();
+		}
+		catch (Exception e)
+		{
+			failed.increment();
+			System.err.println("Cache invalidation publish failed for " + cacheName + ": " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Creates the listener that applies invalidations sent by the other replicas.
+	 *
+	 * @param onInvalidation called with the cache name and the key, null when the whole cache was cleared
+	 * @return the listener to register on the channel
+	 */
+	public MessageListener listener(BiConsumer<String, String> onInvalidation)
+	{
+		return (message, pattern) ->
+		{
+			String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\n", 3);
+			if (parts.length < 2 || origin.equals(parts[0]))
+			{
+				return;
+			}
+			received.increment();
+			onInvalidation.accept(parts[1], parts.length == 3 ? parts[2] : null);
+		};
+	}
+
+	public Snapshot snapshot()
+	{
+		return new Snapshot(published.sum(), received.sum(), failed.sum());
+	}
+}
@@ -0,0 +1,31 @@
+package com.gabrielrochon.languagecontent.cache;
+
+import java.io.IOException;
+
+/**
+ * Encodes cached values into the payload stored in Redis.
+ * Every codec has a stable one-byte ID written in the header of each value, so values
+ * written by any known codec stay readable after the configured codec of a cache changes.
+ */
+public interface CacheValueCodec
+{
+
+	/**
+	 * Returns the ID written in the header of values encoded by this codec; never reuse an ID.
+	 */
+	byte id();
+
+	/**
+	 * Returns the name used to select this codec in the configuration.
+	 */
+	String name();
+
+	/**
+	 * Tells whether this codec can encode a value; unsupported values are written as JSON.
+	 */
+	boolean supports(Object value);
+
+	byte[] encode(Object value) throws IOException;
+
+	Object decode(byte[] payload) throws IOException;
+}
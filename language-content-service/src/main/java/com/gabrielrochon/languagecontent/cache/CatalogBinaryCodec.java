@@ -0,0 +1,284 @@
+package com.gabrielrochon.languagecontent.cache;
+
+import com.gabrielrochon.languagecontent.language.LanguageDto;
+import com.gabrielrochon.languagecontent.lesson.Lesson;
+import com.gabrielrochon.languagecontent.module.ModuleDto;
+import com.gabrielrochon.languagecontent.sentence.SentenceDto;
+import com.gabrielrochon.languagecontent.sentence.SentencePage;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Schema-aware binary encoding of the catalog values: a language, a lesson, a sentence page
+ * and lists of languages, modules or sentences. Field names and class names are not written;
+ * the read model refers to modules and languages by ID, so each row is written once, where JSON
+ * repeats the field names in every row.
+ *
+ * Layout: kind, then the rows of the value in record component order.
+ * Adding or reordering fields requires a new codec ID. ID 2 was the entity-graph layout
+ * of the cache.version 2 keyspace and is no longer read.
+ */
+public class CatalogBinaryCodec implements CacheValueCodec
+{
+
+	public static final String NAME = "binary";
+
+	private static final byte LANGUAGE = 1;
+
+	private static final byte LANGUAGE_LIST = 2;
+
+	private static final byte MODULE_LIST = 3;
+
+	private static final byte SENTENCE_LIST = 4;
+
+	private static final byte LESSON = 5;
+
+	private static final byte SENTENCE_PAGE = 6;
+
+	@Override
+	public byte id()
+	{
+		return 3;
+	}
+
+	@Override
+	public String name()
+	{
+		return NAME;
+	}
+
+	@Override
+	public boolean supports(Object value)
+	{
+		return value instanceof LanguageDto || value instanceof Lesson || value instanceof SentencePage
+			|| (value instanceof List<?> list && kindOf(list) != 0);
+	}
+
+	@Override
+	public byte[] encode(Object value) throws IOException
+	{
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+		DataOutputStream out = new DataOutputStream(buffer);
+		if (value instanceof LanguageDto language)
+		{
+			out.writeByte(LANGUAGE);
+			writeLanguage(out, language);
+		}
+		else if (value instanceof Lesson lesson)
+		{
+			out.writeByte(LESSON);
+			out.writeBoolean(lesson.language() != null);
+			if (lesson.language() != null)
+			{
+				writeLanguage(out, lesson.language());
+			}
+			out.writeBoolean(lesson.module() != null);
+			if (lesson.module() != null)
+			{
+				writeModule(out, lesson.module());
+			}
+			writeSentences(out, lesson.sentences());
+		}
+		else if (value instanceof SentencePage page)
+		{
+			out.writeByte(SENTENCE_PAGE);
+			writeSentences(out, page.sentences());
+			writeString(out, page.nextCursor());
+		}
+		else
+		{
+			List<?> list = (List<?>) value;
+			byte kind = kindOf(list);
+			out.writeByte(kind);
+			out.writeInt(list.size());
+			for (Object item : list)
+			{
+				switch (kind)
+				{
+					case LANGUAGE_LIST -> writeLanguage(out, (LanguageDto) item);
+					case MODULE_LIST -> writeModule(out, (ModuleDto) item);
+					default -> writeSentence(out, (SentenceDto) item);
+				}
+			}
+		}
+		out.flush();
+		return buffer.toByteArray();
+	}
+
+	@Override
+	public Object decode(byte[] payload) throws IOException
+	{
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+		byte kind = in.readByte();
+		return switch (kind)
+		{
+			case LANGUAGE -> readLanguage(in);
+			case LANGUAGE_LIST, MODULE_LIST, SENTENCE_LIST ->
+			{
+				int count = in.readInt();
+				List<Object> items = new ArrayList<>(count);
+				for (int i = 0; i < count; i++)
+				{
+					items.add(kind == LANGUAGE_LIST ? readLanguage(in) : kind == MODULE_LIST ? readModule(in) : readSentence(in));
+				}
+				yield items;
+			}
+			case LESSON ->
+			{
+				LanguageDto language = in.readBoolean() ? readLanguage(in) : null;
+				ModuleDto module = in.readBoolean() ? readModule(in) : null;
+				yield new Lesson(language, module, readSentences(in));
+			}
+			case SENTENCE_PAGE -> new SentencePage(readSentences(in), readString(in));
+			default -> throw new IOException("Unknown catalog value kind " + kind);
+		};
+	}
+
+	// The kind of a list whose elements are all of one catalog type, 0 if there is none.
+	// An empty list is written as a language list and read back as an empty ArrayList.
+	private static byte kindOf(List<?> list)
+	{
+		byte kind = LANGUAGE_LIST;
+		for (int i = 0; i < list.size(); i++)
+		{
+			Object item = list.get(i);
+			byte itemKind = item instanceof LanguageDto ? LANGUAGE_LIST
+				: item instanceof ModuleDto ? MODULE_LIST
+				: item instanceof SentenceDto ? SENTENCE_LIST
+				: 0;
+			if (itemKind == 0 || (i > 0 && itemKind != kind))
+			{
+				return 0;
+			}
+			kind = itemKind;
+		}
+		return kind;
+	}
+
+	private static void writeLanguage(DataOutputStream out, LanguageDto language) throws IOException
+	{
+		writeLong(out, language.id());
+		writeString(out, language.name());
+		writeString(out, language.backgroundImageUrl());
+		writeString(out, language.countryCode());
+		writeString(out, language.languagePresentation());
+	}
+
+	// Constructor arguments are evaluated left to right, in the order the fields were written
+	private static LanguageDto readLanguage(DataInputStream in) throws IOException
+	{
+		return new LanguageDto(readLong(in), readString(in), readString(in), readString(in), readString(in));
+	}
+
+	private static void writeModule(DataOutputStream out, ModuleDto module) throws IOException
+	{
+		writeLong(out, module.id());
+		writeLong(out, module.languageId());
+		writeString(out, module.name());
+		writeString(out, module.description());
+		writeString(out, module.modulePresentation());
+		writeString(out, module.materialIconName());
+	}
+
+	private static ModuleDto readModule(DataInputStream in) throws IOException
+	{
+		return new ModuleDto(readLong(in), readLong(in), readString(in), readString(in), readString(in), readString(in));
+	}
+
+	private static void writeSentences(DataOutputStream out, List<SentenceDto> sentences) throws IOException
+	{
+		out.writeInt(sentences.size());
+		for (SentenceDto sentence : sentences)
+		{
+			writeSentence(out, sentence);
+		}
+	}
+
+	private static List<SentenceDto> readSentences(DataInputStream in) throws IOException
+	{
+		int count = in.readInt();
+		List<SentenceDto> sentences = new ArrayList<>(count);
+		for (int i = 0; i < count; i++)
+		{
+			sentences.add(readSentence(in));
+		}
+		return sentences;
+	}
+
+	private static void writeSentence(DataOutputStream out, SentenceDto sentence) throws IOException
+	{
+		writeLong(out, sentence.id());
+		writeLong(out, sentence.moduleId());
+		writeInteger(out, sentence.position());
+		writeString(out, sentence.learningText());
+		writeString(out, sentence.translationText());
+		writeInteger(out, sentence.speaker());
+	}
+
+	private static SentenceDto readSentence(DataInputStream in) throws IOException
+	{
+		return new SentenceDto(readLong(in), readLong(in), readInteger(in), readString(in), readString(in), readInteger(in));
+	}
+
+	// Nullable values are preceded by a presence flag; strings are UTF-8 with an int length,
+	// as writeUTF cannot hold presentations longer than 64 KB
+
+	private static void writeString(DataOutputStream out, String value) throws IOException
+	{
+		if (value == null)
+		{
+			out.writeInt(-1);
+			return;
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(DataInputStream in) throws IOException
+	{
+		int length = in.readInt();
+		if (length < 0)
+		{
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static void writeLong(DataOutputStream out, Long value) throws IOException
+	{
+		out.writeBoolean(value != null);
+		if (value != null)
+		{
+			out.writeLong(value);
+		}
+	}
+
+	private static Long readLong(DataInputStream in) throws IOException
+	{
+		return in.readBoolean() ? in.readLong() : null;
+	}
+
+	private static void writeInteger(DataOutputStream out, Integer value) throws IOException
+	{
+		out.writeBoolean(value != null);
+		if (value != null)
+		{
+			out.writeInt(value);
+		}
+	}
+
+	private static Integer readInteger(DataInputStream in) throws IOException
+	{
+		return in.readBoolean() ? in.readInt() : null;
+	}
+}
@@ -0,0 +1,16 @@
+package com.gabrielrochon.languagecontent.cache;
+
+/**
+ * The JSON body of a response as sent, and its gzip variant.
+ *
+ * @param json the UTF-8 JSON body
+ * @param gzip the gzip-compressed body, or null when the body is too small to be worth compressing
+ */
+public record EncodedResponse(byte[] json, byte[] gzip)
+{
+
+	public long weight()
+	{
+		return json.length + (gzip != null ? gzip.length : 0);
+	}
+}
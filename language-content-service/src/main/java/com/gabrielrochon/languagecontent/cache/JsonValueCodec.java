@@ -0,0 +1,45 @@
+package com.gabrielrochon.languagecontent.cache;
+
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+/**
+ * JSON with embedded class names, as written by GenericJackson2JsonRedisSerializer.
+ * Supports any value and is also used to read entries written before values had a header.
+ */
+public class JsonValueCodec implements CacheValueCodec
+{
+
+	public static final String NAME = "json";
+
+	private final GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer();
+
+	@Override
+	public byte id()
+	{
+		return 1;
+	}
+
+	@Override
+	public String name()
+	{
+		return NAME;
+	}
+
+	@Override
+	public boolean supports(Object value)
+	{
+		return true;
+	}
+
+	@Override
+	public byte[] encode(Object value)
+	{
+		return serializer.serialize(value);
+	}
+
+	@Override
+	public Object decode(byte[] payload)
+	{
+		return serializer.deserialize(payload);
+	}
+}
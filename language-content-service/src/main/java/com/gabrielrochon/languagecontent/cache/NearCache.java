@@ -0,0 +1,462 @@
+package com.gabrielrochon.languagecontent.cache;
+
+import com.gabrielrochon.languagecontent.blob.CacheTierStats;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process cache in front of a remote (Redis) cache.
+ * Local hits cost no network round trip and no deserialization. Only values read back from
+ * the remote cache are kept locally, never values just returned by a loader, so the local tier
+ * holds the same detached copies every replica sees. Writes go to the remote cache first and
+ * then invalidate the local entry here and, through the invalidation bus, on every other replica.
+ *
+ * A read of the remote cache, or a refresh, watches its key while it runs: invalidations of that
+ * key bump the generation of the watch, a clear bumps a generation of its own, and the value is
+ * dropped again if either changed, so a read that races with an invalidation cannot store the
+ * old value. Invalidations of other keys, such as other refreshes finishing, do not count. Local entries also expire after a short TTL,
+ * which bounds staleness when an invalidation message is lost.
+ *
+ * With a soft TTL, values are stored in Redis stamped with their load time. A read through a
+ * loader (a sync Cacheable) that finds an entry older than the soft TTL returns it right away
+ * and reloads it on the refresh executor, at most once per key at a time; the reloaded value
+ * replaces the entry in Redis and the stale copies are invalidated on every replica. Entries
+ * still expire from Redis after the cache TTL (the hard TTL), so a key nobody reads is dropped.
+ * Values without a stamp, written before soft TTLs existed, count as stale. Values stored
+ * with putIfAbsent are not stamped: they are meant to be read without a loader, such as the
+ * version tags of CatalogCache, and are never reloaded.
+ *
+ * Local values are shared between callers and must be treated as read-only.
+ */
+public class NearCache implements Cache
+{
+
+	/**
+	 * Point-in-time copy of the refresh-ahead counters, serialized by the stats endpoint.
+	 *
+	 * @param staleServes reads answered with a value older than the soft TTL
+	 * @param refreshes background reloads that completed
+	 * @param failures background reloads that threw; the stale value stays until the hard TTL
+	 * @param totalRefreshMillis time spent in completed reloads
+	 * @param maxRefreshMillis longest completed reload
+	 */
+	public record RefreshSnapshot(long staleServes, long refreshes, long failures, long totalRefreshMillis,
+		long maxRefreshMillis)
+	{
+	}
+
+	private record Entry(ValueWrapper value, long writtenAt, long expiresAt)
+	{
+	}
+
+	// Invalidations of a key while reads of it are in flight; readers is guarded by the map's compute
+	private static final class KeyWatch
+	{
+
+		private final AtomicLong generation = new AtomicLong();
+
+		private int readers;
+	}
+
+	// The generations seen when a read of the key started
+	private record ReadMark(String key, KeyWatch watch, long generation, long clearGeneration)
+	{
+	}
+
+	private final Cache remote;
+
+	// Null when invalidations are not shared with other replicas
+	private final CacheInvalidationBus bus;
+
+	private final long ttlNanos;
+
+	private final int maxEntries;
+
+	private final ConcurrentHashMap<String, Entry> local = new ConcurrentHashMap<>();
+
+	// Only keys with a read in flight have a watch, so the map stays as small as the concurrency
+	private final ConcurrentHashMap<String, KeyWatch> watches = new ConcurrentHashMap<>();
+
+	private final AtomicLong clearGeneration = new AtomicLong();
+
+	private final CacheTierStats localStats = new CacheTierStats();
+
+	private final CacheTierStats remoteStats = new CacheTierStats();
+
+	// 0 when refresh-ahead is disabled
+	private final long softTtlMillis;
+
+	private final Executor refreshExecutor;
+
+	private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+	private final LongAdder staleServes = new LongAdder();
+
+	private final LongAdder refreshes = new LongAdder();
+
+	private final LongAdder refreshFailures = new LongAdder();
+
+	private final LongAdder refreshNanos = new LongAdder();
+
+	private final LongAccumulator maxRefreshNanos = new LongAccumulator(Math::max, 0);
+
+	public NearCache(Cache remote, CacheInvalidationBus bus, Duration ttl, int maxEntries)
+	{
+		this(remote, bus, ttl, maxEntries, null, null);
+	}
+
+	/**
+	 * @param softTtl the age after which reads trigger a background reload, null or zero to disable
+	 * @param refreshExecutor runs the background reloads, required when a soft TTL is set
+	 */
+	public NearCache(Cache remote, CacheInvalidationBus bus, Duration ttl, int maxEntries, Duration softTtl,
+		Executor refreshExecutor)
+	{
+		this.remote = remote;
+		this.bus = bus;
+		this.ttlNanos = ttl.toNanos();
+		this.maxEntries = maxEntries;
+		this.softTtlMillis = softTtl != null ? softTtl.toMillis() : 0;
+		this.refreshExecutor = refreshExecutor;
+	}
+
+	@Override
+	public String getName()
+	{
+		return remote.getName();
+	}
+
+	@Override
+	public Object getNativeCache()
+	{
+		return remote.getNativeCache();
+	}
+
+	@Override
+	public ValueWrapper get(Object key)
+	{
+		Entry entry = getLocal(key);
+		if (entry != null)
+		{
+			return entry.value();
+		}
+
+		ReadMark mark = watch(key);
+		try
+		{
+			ValueWrapper wrapper = remote.get(key);
+			if (wrapper == null)
+			{
+				remoteStats.recordMiss();
+				return null;
+			}
+			remoteStats.recordHit();
+			return putLocal(key, wrapper.get(), mark).value();
+		}
+		finally
+		{
+			unwatch(mark);
+		}
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T get(Object key, Class<T> type)
+	{
+		ValueWrapper wrapper = get(key);
+		Object value = wrapper != null ? wrapper.get() : null;
+		if (value != null && type != null && !type.isInstance(value))
+		{
+			throw new IllegalStateException(
+				"Cached value is not of required type [" + type.getName() + "]: " + value);
+		}
+		return (T) value;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T get(Object key, Callable<T> valueLoader)
+	{
+		Entry entry = getLocal(key);
+		if (entry == null)
+		{
+			ReadMark mark = watch(key);
+			try
+			{
+				boolean[] loaded = new boolean[1];
+				Object stored = remote.get(key, () ->
+				{
+					loaded[0] = true;
+					return stamp(valueLoader.call());
+				});
+				if (loaded[0])
+				{
+					// Not kept locally: the next read takes the copy stored in the remote cache
+					remoteStats.recordMiss();
+					return (T) unstamp(stored);
+				}
+				remoteStats.recordHit();
+				entry = putLocal(key, stored, mark);
+			}
+			finally
+			{
+				unwatch(mark);
+			}
+		}
+		if (isStale(entry))
+		{
+			staleServes.increment();
+			refreshAhead(key, valueLoader);
+		}
+		return (T) entry.value().get();
+	}
+
+	@Override
+	public void put(Object key, Object value)
+	{
+		remote.put(key, stamp(value));
+		invalidate(key);
+	}
+
+	// Atomic in the remote cache (SET NX in Redis), so every replica ends up with the same value
+	@Override
+	public ValueWrapper putIfAbsent(Object key, Object value)
+	{
+		ValueWrapper existing = remote.putIfAbsent(key, value);
+		return existing != null ? new SimpleValueWrapper(unstamp(existing.get())) : null;
+	}
+
+	@Override
+	public void evict(Object key)
+	{
+		remote.evict(key);
+		invalidate(key);
+	}
+
+	@Override
+	public void clear()
+	{
+		remote.clear();
+		invalidateLocal();
+		if (bus != null)
+		{
+			bus.publish(getName(), null);
+		}
+	}
+
+	/**
+	 * Drops an entry from this replica only, as requested by another replica.
+	 *
+	 * @param key the key of the entry
+	 */
+	public void invalidateLocal(Object key)
+	{
+		String localKey = key.toString();
+		KeyWatch watch = watches.get(localKey);
+		if (watch != null)
+		{
+			watch.generation.incrementAndGet();
+		}
+		local.remove(localKey);
+	}
+
+	/**
+	 * Drops every entry from this replica only, as requested by another replica.
+	 */
+	public void invalidateLocal()
+	{
+		clearGeneration.incrementAndGet();
+		local.clear();
+	}
+
+	public RefreshSnapshot getRefreshStats()
+	{
+		return new RefreshSnapshot(staleServes.sum(), refreshes.sum(), refreshFailures.sum(),
+			TimeUnit.NANOSECONDS.toMillis(refreshNanos.sum()), TimeUnit.NANOSECONDS.toMillis(maxRefreshNanos.get()));
+	}
+
+	/**
+	 * Returns the counters of both tiers. Local misses are the lookups that went to Redis;
+	 * Redis misses are the lookups that went to the database.
+	 *
+	 * @return the counters by tier
+	 */
+	public Map<String, CacheTierStats.Snapshot> getStats()
+	{
+		Map<String, CacheTierStats.Snapshot> stats = new LinkedHashMap<>();
+		stats.put("local", localStats.snapshot());
+		stats.put("redis", remoteStats.snapshot());
+		return stats;
+	}
+
+	private boolean isStale(Entry entry)
+	{
+		return softTtlMillis > 0 && System.currentTimeMillis() - entry.writtenAt() > softTtlMillis;
+	}
+
+	private void refreshAhead(Object key, Callable<?> valueLoader)
+	{
+		String refreshKey = key.toString();
+		if (!refreshing.add(refreshKey))
+		{
+			return;
+		}
+		try
+		{
+			refreshExecutor.execute(() -> refresh(key, refreshKey, valueLoader));
+		}
+		catch (RuntimeException e)
+		{
+			refreshing.remove(refreshKey);
+			refreshFailures.increment();
+			System.err.println("Could not schedule refresh of " + getName() + "::" + key + ": " + e.getMessage());
+		}
+	}
+
+	private void refresh(Object key, String refreshKey, Callable<?> valueLoader)
+	{
+		ReadMark mark = watch(key);
+		long start = System.nanoTime();
+		try
+		{
+			remote.put(key, stamp(valueLoader.call()));
+			// A write of this key committed during the reload may not be in the reloaded value.
+			// Checked before this refresh invalidates the key itself.
+			if (invalidatedSince(mark))
+			{
+				remote.evict(key);
+			}
+			invalidate(key);
+			long elapsed = System.nanoTime() - start;
+			refreshes.increment();
+			refreshNanos.add(elapsed);
+			maxRefreshNanos.accumulate(elapsed);
+		}
+		catch (Exception e)
+		{
+			refreshFailures.increment();
+			System.err.println("Refresh of " + getName() + "::" + key + " failed: " + e.getMessage());
+		}
+		finally
+		{
+			unwatch(mark);
+			refreshing.remove(refreshKey);
+		}
+	}
+
+	private Object stamp(Object value)
+	{
+		return softTtlMillis > 0 ? new StampedValue(value, System.currentTimeMillis()) : value;
+	}
+
+	private static Object unstamp(Object stored)
+	{
+		return stored instanceof StampedValue stamped ? stamped.value() : stored;
+	}
+
+	private void invalidate(Object key)
+	{
+		invalidateLocal(key);
+		if (bus != null)
+		{
+			bus.publish(getName(), key);
+		}
+	}
+
+	private ReadMark watch(Object key)
+	{
+		String watchKey = key.toString();
+		KeyWatch watch = watches.compute(watchKey, (k, existing) ->
+		{
+			KeyWatch registered = existing != null ? existing : new KeyWatch();
+			registered.readers++;
+			return registered;
+		});
+		return new ReadMark(watchKey, watch, watch.generation.get(), clearGeneration.get());
+	}
+
+	private void unwatch(ReadMark mark)
+	{
+		watches.computeIfPresent(mark.key(), (k, watch) -> --watch.readers == 0 ? null : watch);
+	}
+
+	private boolean invalidatedSince(ReadMark mark)
+	{
+		return mark.watch().generation.get() != mark.generation() || clearGeneration.get() != mark.clearGeneration();
+	}
+
+	private Entry getLocal(Object key)
+	{
+		String localKey = key.toString();
+		Entry entry = local.get(localKey);
+		if (entry != null && entry.expiresAt() - System.nanoTime() > 0)
+		{
+			localStats.recordHit();
+			return entry;
+		}
+		if (entry != null && local.remove(localKey, entry))
+		{
+			localStats.recordEviction();
+		}
+		localStats.recordMiss();
+		return null;
+	}
+
+	// Builds the local entry of a value read from the remote cache and keeps it if there is room
+	private Entry putLocal(Object key, Object stored, ReadMark mark)
+	{
+		long writtenAt = stored instanceof StampedValue stamped ? stamped.writtenAt() : 0;
+		Entry entry = new Entry(new SimpleValueWrapper(unstamp(stored)), writtenAt, System.nanoTime() + ttlNanos);
+		if (maxEntries <= 0)
+		{
+			return entry;
+		}
+		if (local.size() >= maxEntries)
+		{
+			makeRoom();
+		}
+		String localKey = key.toString();
+		local.put(localKey, entry);
+		// An invalidation of this key during the remote read may have come before the old value
+		if (invalidatedSince(mark))
+		{
+			local.remove(localKey, entry);
+		}
+		return entry;
+	}
+
+	// Drops expired entries first, then arbitrary ones until there is room for one more
+	private void makeRoom()
+	{
+		long now = System.nanoTime();
+		Iterator<Entry> expired = local.values().iterator();
+		while (expired.hasNext())
+		{
+			if (expired.next().expiresAt() - now <= 0)
+			{
+				expired.remove();
+				localStats.recordEviction();
+			}
+		}
+		Iterator<String> keys = local.keySet().iterator();
+		while (local.size() >= maxEntries && keys.hasNext())
+		{
+			keys.next();
+			keys.remove();
+			localStats.recordEviction();
+		}
+	}
+}
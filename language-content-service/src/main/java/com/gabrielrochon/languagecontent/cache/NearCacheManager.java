@@ -0,0 +1,118 @@
+package com.gabrielrochon.languagecontent.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Cache manager that puts a NearCache in front of every cache of a remote cache manager.
+ * Caches with a soft TTL refresh stale entries ahead of their expiry on the refresh executor.
+ */
+public class NearCacheManager implements CacheManager
+{
+
+	private final CacheManager remote;
+
+	// Null when invalidations are not shared with other replicas
+	private final CacheInvalidationBus bus;
+
+	private final Duration ttl;
+
+	private final int maxEntries;
+
+	private final Map<String, Duration> softTtls;
+
+	private final Executor refreshExecutor;
+
+	private final ConcurrentHashMap<String, NearCache> caches = new ConcurrentHashMap<>();
+
+	public NearCacheManager(CacheManager remote, CacheInvalidationBus bus, Duration ttl, int maxEntries)
+	{
+		this(remote, bus, ttl, maxEntries, Map.of(), null);
+	}
+
+	/**
+	 * @param softTtls the soft TTL by cache name; caches without one are not refreshed ahead
+	 * @param refreshExecutor runs the background reloads of stale entries
+	 */
+	public NearCacheManager(CacheManager remote, CacheInvalidationBus bus, Duration ttl, int maxEntries,
+		Map<String, Duration> softTtls, Executor refreshExecutor)
+	{
+		this.remote = remote;
+		this.bus = bus;
+		this.ttl = ttl;
+		this.maxEntries = maxEntries;
+		this.softTtls = softTtls;
+		this.refreshExecutor = refreshExecutor;
+	}
+
+	@Override
+	public Cache getCache(String name)
+	{
+		return caches.computeIfAbsent(name, cacheName ->
+		{
+			Cache cache = remote.getCache(cacheName);
+			return cache != null
+				? new NearCache(cache, bus, ttl, maxEntries, softTtls.get(cacheName), refreshExecutor)
+				: null;
+		});
+	}
+
+	@Override
+	public Collection<String> getCacheNames()
+	{
+		return remote.getCacheNames();
+	}
+
+	/**
+	 * Applies an invalidation received from another replica to the local tier.
+	 *
+	 * @param cacheName the name of the cache
+	 * @param key the key to drop, or null to drop every entry of the cache
+	 */
+	public void invalidateLocal(String cacheName, String key)
+	{
+		NearCache cache = caches.get(cacheName);
+		if (cache == null)
+		{
+			return;
+		}
+		if (key != null)
+		{
+			cache.invalidateLocal(key);
+		}
+		else
+		{
+			cache.invalidateLocal();
+		}
+	}
+
+	/**
+	 * Returns the counters of both tiers and of the refresh-ahead of every cache used so far.
+	 *
+	 * @return the counters by cache name, then by tier, with the refresh-ahead under "refresh"
+	 */
+	public Map<String, Map<String, Object>> getStats()
+	{
+		Map<String, Map<String, Object>> stats = new TreeMap<>();
+		caches.forEach((name, cache) ->
+		{
+			Map<String, Object> cacheStats = new LinkedHashMap<>(cache.getStats());
+			cacheStats.put("refresh", cache.getRefreshStats());
+			stats.put(name, cacheStats);
+		});
+		return stats;
+	}
+
+	public CacheInvalidationBus.Snapshot getInvalidationStats()
+	{
+		return bus != null ? bus.snapshot() : null;
+	}
+}
@@ -0,0 +1,240 @@
+package com.gabrielrochon.languagecontent.cache;
+
+import com.gabrielrochon.languagecontent.blob.CacheTierStats;
+import com.gabrielrochon.languagecontent.blob.SingleFlight;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * In-process cache of encoded JSON responses: the bytes written by the catalog endpoints,
+ * with a gzip variant, so a hit costs neither a cache value decode nor a Jackson
+ * serialization nor a compression. Keys end with the ETag of the response, which changes
+ * whenever a write evicts the entries behind it (see CatalogCache.getVersionTag), so
+ * entries are never evicted by writes: entries of old versions are no longer read and
+ * go as the least recently used ones once the byte budget is spent.
+ * Concurrent misses for one key encode the response once. The entries are guarded by a lock,
+ * like those of LocalBlobCache.
+ */
+@Component
+public class ResponseBytesCache
+{
+
+	private final JsonMapper jsonMapper;
+
+	private final boolean enabled;
+
+	private final long maxBytes;
+
+	private final int gzipMinSize;
+
+	// Access-ordered so iteration starts with the least recently used entry
+	private final LinkedHashMap<String, EncodedResponse> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+	private final SingleFlight<String, EncodedResponse> encodings = new SingleFlight<>();
+
+	private final CacheTierStats stats = new CacheTierStats();
+
+	private final ReentrantLock lock = new ReentrantLock();
+
+	private long currentBytes;
+
+	@Autowired
+	public ResponseBytesCache(
+		JsonMapper jsonMapper,
+		@Value("${response.cache.enabled:true}") boolean enabled,
+		@Value("${response.cache.max-bytes:16777216}") long maxBytes,
+		@Value("${response.cache.gzip-min-size:1024}") int gzipMinSize)
+	{
+		this.jsonMapper = jsonMapper;
+		this.enabled = enabled;
+		this.maxBytes = maxBytes;
+		this.gzipMinSize = gzipMinSize;
+	}
+
+	/**
+	 * Returns the encoded response for a key, encoding the body on a miss.
+	 *
+	 * @param key the endpoint, its arguments and the ETag of the response
+	 * @param body loads the response body, called on a miss only
+	 * @return the encoded response, or null if the body is null
+	 */
+	public EncodedResponse get(String key, Supplier<?> body)
+	{
+		if (!enabled)
+		{
+			return encode(body.get());
+		}
+		EncodedResponse cached = lookup(key);
+		if (cached != null)
+		{
+			return cached;
+		}
+		return encodings.execute(key, () ->
+		{
+			EncodedResponse encoded = encode(body.get());
+			if (encoded != null)
+			{
+				put(key, encoded);
+			}
+			return encoded;
+		});
+	}
+
+	/**
+	 * Encodes a body as JSON, and as gzip once it reaches the minimum size.
+	 *
+	 * @param body the response body
+	 * @return the encoded response, or null if the body is null
+	 */
+	public EncodedResponse encode(Object body)
+	{
+		if (body == null)
+		{
+			return null;
+		}
+		byte[] json = jsonMapper.writeValueAsBytes(body);
+		return new EncodedResponse(json, json.length >= gzipMinSize ? gzip(json) : null);
+	}
+
+	/**
+	 * Returns whether an Accept-Encoding header accepts gzip, by name or as *, with a non-zero quality.
+	 *
+	 * @param acceptEncoding the header value, may be null
+	 * @return true if gzip is accepted
+	 */
+	public static boolean acceptsGzip(String acceptEncoding)
+	{
+		if (acceptEncoding == null)
+		{
+			return false;
+		}
+		for (String coding : acceptEncoding.split(","))
+		{
+			String[] parts = coding.trim().split(";");
+			String name = parts[0].trim();
+			if (!name.equalsIgnoreCase("gzip") && !name.equals("*"))
+			{
+				continue;
+			}
+			boolean refused = false;
+			for (int i = 1; i < parts.length; i++)
+			{
+				String parameter = parts[i].trim().replace(" ", "");
+				if (parameter.startsWith("q=") && parameter.substring(2).matches("0(\\.0*)?"))
+				{
+					refused = true;
+				}
+			}
+			return !refused;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the hit counters, the number of entries and their total size.
+	 *
+	 * @return the cache counters
+	 */
+	public Map<String, Object> getStats()
+	{
+		Map<String, Object> stats = new LinkedHashMap<>();
+		stats.put("enabled", enabled);
+		lock.lock();
+		try
+		{
+			stats.put("entries", entries.size());
+			stats.put("bytes", currentBytes);
+		}
+		finally
+		{
+			lock.unlock();
+		}
+		stats.put("maxBytes", maxBytes);
+		stats.put("lookups", this.stats.snapshot());
+		stats.put("encodings", encodings.snapshot());
+		return stats;
+	}
+
+	private EncodedResponse lookup(String key)
+	{
+		lock.lock();
+		try
+		{
+			EncodedResponse encoded = entries.get(key);
+			if (encoded == null)
+			{
+				stats.recordMiss();
+				return null;
+			}
+			stats.recordHit();
+			return encoded;
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	// Responses larger than the whole budget are not stored
+	private void put(String key, EncodedResponse encoded)
+	{
+		long weight = encoded.weight();
+		if (weight > maxBytes)
+		{
+			return;
+		}
+		lock.lock();
+		try
+		{
+			EncodedResponse previous = entries.put(key, encoded);
+			if (previous != null)
+			{
+				currentBytes -= previous.weight();
+			}
+			currentBytes += weight;
+
+			Iterator<Map.Entry<String, EncodedResponse>> iterator = entries.entrySet().iterator();
+			while (currentBytes > maxBytes && iterator.hasNext())
+			{
+				Map.Entry<String, EncodedResponse> eldest = iterator.next();
+				if (eldest.getKey().equals(key))
+				{
+					continue;
+				}
+				currentBytes -= eldest.getValue().weight();
+				iterator.remove();
+				stats.recordEviction();
+			}
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	private static byte[] gzip(byte[] json)
+	{
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream(json.length / 4 + 64);
+		try (GZIPOutputStream out = new GZIPOutputStream(buffer))
+		{
+			out.write(json);
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+		return buffer.toByteArray();
+	}
+}
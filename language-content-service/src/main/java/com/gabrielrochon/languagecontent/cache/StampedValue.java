@@ -0,0 +1,12 @@
+package com.gabrielrochon.languagecontent.cache;
+
+/**
+ * A cached value with the time it was loaded, stored in Redis so every replica can tell
+ * how old an entry is. VersionedValueSerializer writes the time in the value header.
+ *
+ * @param value the cached value, may be null
+ * @param writtenAt when the value was loaded, in epoch milliseconds
+ */
+public record StampedValue(Object value, long writtenAt)
+{
+}
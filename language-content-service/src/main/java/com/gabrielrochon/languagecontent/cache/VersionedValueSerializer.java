@@ -0,0 +1,227 @@
+package com.gabrielrochon.languagecontent.cache;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Redis value serializer that writes a small header in front of each value:
+ * a magic byte, the format version, the ID of the codec that encoded the payload and flags.
+ * A StampedValue is written as its value, with its load time following the header.
+ * Payloads at or above the compression threshold are deflated when that makes them smaller,
+ * and their uncompressed length follows the header.
+ *
+ * Reading dispatches on the header, so a cache can switch codecs without flushing: values
+ * written by any known codec stay readable, and values without a header are the JSON written
+ * before the header existed. Switch the codec of a cache only once every replica can read it.
+ */
+public class VersionedValueSerializer implements RedisSerializer<Object>
+{
+
+	// Never the first byte of JSON text, which lets headerless JSON values be told apart
+	static final byte MAGIC = (byte) 0xC5;
+
+	static final byte FORMAT_VERSION = 1;
+
+	static final byte FLAG_DEFLATED = 1;
+
+	static final byte FLAG_STAMPED = 2;
+
+	private static final int HEADER_LENGTH = 4;
+
+	private static final List<CacheValueCodec> CODECS = List.of(new JsonValueCodec(), new CatalogBinaryCodec());
+
+	private final CacheValueCodec writer;
+
+	private final CacheValueCodec json;
+
+	private final int compressionThreshold;
+
+	/**
+	 * @param codecName the name of the codec used to write values, "json" or "binary"
+	 * @param compressionThreshold the payload size in bytes from which payloads are deflated, negative to never compress
+	 */
+	public VersionedValueSerializer(String codecName, int compressionThreshold)
+	{
+		this.writer = CODECS.stream()
+			.filter(codec -> codec.name().equals(codecName))
+			.findFirst()
+			.orElseThrow(() -> new IllegalArgumentException("Unknown cache value codec: " + codecName));
+		this.json = CODECS.get(0);
+		this.compressionThreshold = compressionThreshold;
+	}
+
+	@Override
+	public byte[] serialize(Object value) throws SerializationException
+	{
+		StampedValue stamped = value instanceof StampedValue stampedValue ? stampedValue : null;
+		Object content = stamped != null ? stamped.value() : value;
+		CacheValueCodec codec = writer.supports(content) ? writer : json;
+		try
+		{
+			byte[] payload = codec.encode(content);
+			byte flags = stamped != null ? FLAG_STAMPED : 0;
+			int uncompressedLength = payload.length;
+			if (compressionThreshold >= 0 && payload.length >= compressionThreshold)
+			{
+				byte[] deflated = deflate(payload);
+				if (deflated.length + Integer.BYTES < payload.length)
+				{
+					payload = deflated;
+					flags |= FLAG_DEFLATED;
+				}
+			}
+
+			boolean deflated = (flags & FLAG_DEFLATED) != 0;
+			ByteBuffer buffer = ByteBuffer.allocate(HEADER_LENGTH + (stamped != null ? Long.BYTES : 0)
+				+ (deflated ? Integer.BYTES : 0) + payload.length);
+			buffer.put(MAGIC).put(FORMAT_VERSION).put(codec.id()).put(flags);
+			if (stamped != null)
+			{
+				buffer.putLong(stamped.writtenAt());
+			}
+			if (deflated)
+			{
+				buffer.putInt(uncompressedLength);
+			}
+			return buffer.put(payload).array();
+		}
+		catch (IOException e)
+		{
+			throw new SerializationException("Could not encode cache value with the " + codec.name() + " codec", e);
+		}
+	}
+
+	@Override
+	public Object deserialize(byte[] bytes) throws SerializationException
+	{
+		if (bytes == null || bytes.length == 0)
+		{
+			return null;
+		}
+		if (bytes[0] != MAGIC)
+		{
+			return decodeLegacy(bytes);
+		}
+		if (bytes.length < HEADER_LENGTH || bytes[1] != FORMAT_VERSION)
+		{
+			throw new SerializationException("Unsupported cache value format version " + (bytes.length > 1 ? bytes[1] : -1));
+		}
+
+		CacheValueCodec codec = codecWithId(bytes[2]);
+		byte flags = bytes[3];
+		if ((flags & ~(FLAG_DEFLATED | FLAG_STAMPED)) != 0)
+		{
+			throw new SerializationException("Unsupported cache value flags " + flags);
+		}
+		try
+		{
+			ByteBuffer header = ByteBuffer.wrap(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH);
+			boolean stamped = (flags & FLAG_STAMPED) != 0;
+			long writtenAt = stamped ? header.getLong() : 0;
+			byte[] payload;
+			if ((flags & FLAG_DEFLATED) != 0)
+			{
+				int uncompressedLength = header.getInt();
+				payload = inflate(bytes, header.position(), uncompressedLength);
+			}
+			else
+			{
+				payload = Arrays.copyOfRange(bytes, header.position(), bytes.length);
+			}
+			Object value = codec.decode(payload);
+			return stamped ? new StampedValue(value, writtenAt) : value;
+		}
+		catch (IOException | DataFormatException | BufferUnderflowException e)
+		{
+			throw new SerializationException("Could not decode cache value with the " + codec.name() + " codec", e);
+		}
+	}
+
+	private Object decodeLegacy(byte[] bytes)
+	{
+		try
+		{
+			return json.decode(bytes);
+		}
+		catch (IOException e)
+		{
+			throw new SerializationException("Could not decode headerless cache value as JSON", e);
+		}
+	}
+
+	private static CacheValueCodec codecWithId(byte id)
+	{
+		for (CacheValueCodec codec : CODECS)
+		{
+			if (codec.id() == id)
+			{
+				return codec;
+			}
+		}
+		throw new SerializationException("Unknown cache value codec ID " + id);
+	}
+
+	private static byte[] deflate(byte[] payload)
+	{
+		Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+		try
+		{
+			deflater.setInput(payload);
+			deflater.finish();
+			ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length / 2);
+			byte[] chunk = new byte[8192];
+			while (!deflater.finished())
+			{
+				out.write(chunk, 0, deflater.deflate(chunk));
+			}
+			return out.toByteArray();
+		}
+		finally
+		{
+			deflater.end();
+		}
+	}
+
+	private static byte[] inflate(byte[] bytes, int offset, int uncompressedLength) throws DataFormatException
+	{
+		if (uncompressedLength < 0)
+		{
+			throw new DataFormatException("Negative uncompressed length " + uncompressedLength);
+		}
+		Inflater inflater = new Inflater();
+		try
+		{
+			inflater.setInput(bytes, offset, bytes.length - offset);
+			byte[] payload = new byte[uncompressedLength];
+			int length = 0;
+			while (length < uncompressedLength && !inflater.finished())
+			{
+				int inflated = inflater.inflate(payload, length, uncompressedLength - length);
+				if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+				{
+					throw new DataFormatException("Truncated deflated cache value");
+				}
+				length += inflated;
+			}
+			if (length != uncompressedLength)
+			{
+				throw new DataFormatException("Deflated cache value has " + length + " bytes, expected " + uncompressedLength);
+			}
+			return payload;
+		}
+		finally
+		{
+			inflater.end();
+		}
+	}
+}
@@ -0,0 +1,351 @@
+package com.gabrielrochon.languagecontent.catalog;
+
+import com.gabrielrochon.languagecontent.language.LanguageDto;
+import com.gabrielrochon.languagecontent.lesson.Lesson;
+import com.gabrielrochon.languagecontent.module.ModuleDto;
+import com.gabrielrochon.languagecontent.sentence.SentenceCursor;
+import com.gabrielrochon.languagecontent.sentence.SentenceDto;
+import com.gabrielrochon.languagecontent.sentence.SentencePage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable copy of the whole catalog at one content version.
+ * Every sentence is held in one array, grouped by language, then module, then ordered by
+ * position as the sentence queries order them, so the sentences of a module or of a language
+ * are a contiguous range of it: lists are returned as read-only views of the array, without
+ * copying, and a page is found by binary search on (position, ID). Sentences share the ID
+ * instance of their module.
+ *
+ * Instances are never modified after construction and can be read from any thread.
+ */
+public final class CatalogSnapshot
+{
+
+	private final long version;
+
+	private final List<LanguageDto> languages;
+
+	private final Map<String, LanguageDto> languagesByName;
+
+	private final Map<Long, List<ModuleDto>> modulesByLanguageId;
+
+	private final SentenceDto[] sentences;
+
+	private final List<SentenceDto> sentenceList;
+
+	// Start (inclusive) and end (exclusive) of the sentences of a module or language in the array
+	private final Map<Long, int[]> moduleRanges;
+
+	private final Map<Long, int[]> languageRanges;
+
+	private final int moduleCount;
+
+	private CatalogSnapshot(long version, List<LanguageDto> languages, Map<String, LanguageDto> languagesByName,
+		Map<Long, List<ModuleDto>> modulesByLanguageId, SentenceDto[] sentences, Map<Long, int[]> moduleRanges,
+		Map<Long, int[]> languageRanges, int moduleCount)
+	{
+		this.version = version;
+		this.languages = languages;
+		this.languagesByName = languagesByName;
+		this.modulesByLanguageId = modulesByLanguageId;
+		this.sentences = sentences;
+		this.sentenceList = Collections.unmodifiableList(Arrays.asList(sentences));
+		this.moduleRanges = moduleRanges;
+		this.languageRanges = languageRanges;
+		this.moduleCount = moduleCount;
+	}
+
+	/**
+	 * Lays out a snapshot from the rows of the catalog.
+	 *
+	 * @param version the content version the rows were read at
+	 * @param languages every language, ordered by ID
+	 * @param modules every module, ordered by language and ID
+	 * @param sentences every sentence, ordered by module, then by position and ID as SentenceCursor orders them
+	 * @return the snapshot
+	 */
+	public static CatalogSnapshot build(long version, List<LanguageDto> languages, List<ModuleDto> modules,
+		List<SentenceDto> sentences)
+	{
+		Map<String, LanguageDto> languagesByName = new HashMap<>();
+		Set<Long> languageIds = new HashSet<>();
+		for (LanguageDto language : languages)
+		{
+			languagesByName.put(language.name(), language);
+			languageIds.add(language.id());
+		}
+
+		Map<Long, List<ModuleDto>> modulesByLanguageId = new LinkedHashMap<>();
+		List<ModuleDto> modulesWithoutLanguage = new ArrayList<>();
+		for (ModuleDto module : modules)
+		{
+			if (languageIds.contains(module.languageId()))
+			{
+				modulesByLanguageId.computeIfAbsent(module.languageId(), id -> new ArrayList<>()).add(module);
+			}
+			else
+			{
+				modulesWithoutLanguage.add(module);
+			}
+		}
+
+		Map<Long, List<SentenceDto>> sentencesByModuleId = new HashMap<>();
+		for (SentenceDto sentence : sentences)
+		{
+			if (sentence.moduleId() != null)
+			{
+				sentencesByModuleId.computeIfAbsent(sentence.moduleId(), id -> new ArrayList<>()).add(sentence);
+			}
+		}
+
+		// Sentences of modules without a language go last; they are only read by module
+		SentenceDto[] layout = new SentenceDto[sentences.size()];
+		Map<Long, int[]> moduleRanges = new HashMap<>();
+		Map<Long, int[]> languageRanges = new HashMap<>();
+		int next = 0;
+		for (LanguageDto language : languages)
+		{
+			int start = next;
+			for (ModuleDto module : modulesByLanguageId.getOrDefault(language.id(), List.of()))
+			{
+				next = place(module, sentencesByModuleId, layout, next, moduleRanges);
+			}
+			languageRanges.put(language.id(), new int[] {start, next});
+		}
+		for (ModuleDto module : modulesWithoutLanguage)
+		{
+			next = place(module, sentencesByModuleId, layout, next, moduleRanges);
+		}
+
+		Map<Long, List<ModuleDto>> readOnlyModules = new HashMap<>();
+		modulesByLanguageId.forEach((languageId, list) -> readOnlyModules.put(languageId, List.copyOf(list)));
+		// Sentences of unknown modules are never read; they are left out
+		return new CatalogSnapshot(version, List.copyOf(languages), Map.copyOf(languagesByName), Map.copyOf(readOnlyModules),
+			Arrays.copyOf(layout, next), Map.copyOf(moduleRanges), Map.copyOf(languageRanges), modules.size());
+	}
+
+	// Copies the sentences of a module into the layout, sharing the module's ID instance
+	private static int place(ModuleDto module, Map<Long, List<SentenceDto>> sentencesByModuleId, SentenceDto[] layout,
+		int next, Map<Long, int[]> moduleRanges)
+	{
+		int start = next;
+		for (SentenceDto sentence : sentencesByModuleId.getOrDefault(module.id(), List.of()))
+		{
+			layout[next++] = new SentenceDto(sentence.id(), module.id(), sentence.position(), sentence.learningText(),
+				sentence.translationText(), sentence.speaker());
+		}
+		moduleRanges.put(module.id(), new int[] {start, next});
+		return next;
+	}
+
+	public long version()
+	{
+		return version;
+	}
+
+	public List<LanguageDto> languages()
+	{
+		return languages;
+	}
+
+	/**
+	 * @param name the name of the language
+	 * @return the language, or null if there is none with that name
+	 */
+	public LanguageDto language(String name)
+	{
+		return name != null ? languagesByName.get(name) : null;
+	}
+
+	public List<ModuleDto> modulesOfLanguage(Long languageId)
+	{
+		return modulesByLanguageId.getOrDefault(languageId, List.of());
+	}
+
+	public List<ModuleDto> modulesOfLanguage(String languageName)
+	{
+		LanguageDto language = language(languageName);
+		return language != null ? modulesOfLanguage(language.id()) : List.of();
+	}
+
+	/**
+	 * @param moduleId the ID of the module
+	 * @return the sentences of the module ordered by position, a view of the snapshot
+	 */
+	public List<SentenceDto> sentencesOfModule(Long moduleId)
+	{
+		return range(moduleRanges.get(moduleId));
+	}
+
+	/**
+	 * @param languageId the ID of the language
+	 * @return the sentences of the language by module and position, a view of the snapshot
+	 */
+	public List<SentenceDto> sentencesOfLanguage(Long languageId)
+	{
+		return range(languageRanges.get(languageId));
+	}
+
+	/**
+	 * Returns a page of the sentences of a module, as SentenceService pages them.
+	 *
+	 * @param moduleId the ID of the module
+	 * @param after the cursor the page starts after, null for the first page
+	 * @param size the page size
+	 * @return the page
+	 */
+	public SentencePage sentencePage(Long moduleId, SentenceCursor after, int size)
+	{
+		int[] range = moduleRanges.get(moduleId);
+		if (range == null)
+		{
+			return new SentencePage(List.of(), null);
+		}
+		int from = after == null ? range[0] : firstAfter(range[0], range[1], after);
+		int to = (int) Math.min((long) from + size, range[1]);
+		List<SentenceDto> page = sentenceList.subList(from, to);
+		String nextCursor = to < range[1] ? SentenceCursor.after(sentences[to - 1]).encode() : null;
+		return new SentencePage(page, nextCursor);
+	}
+
+	/**
+	 * Returns the lesson of a module. If the language has several modules of that name,
+	 * the first one created is used, as LessonService does.
+	 *
+	 * @param languageName the name of the language
+	 * @param moduleName the name of the module
+	 * @return the lesson, or null if the language has no module of that name
+	 */
+	public Lesson lesson(String languageName, String moduleName)
+	{
+		LanguageDto language = language(languageName);
+		if (language == null)
+		{
+			return null;
+		}
+		for (ModuleDto module : modulesOfLanguage(language.id()))
+		{
+			if (module.name() != null && module.name().equals(moduleName))
+			{
+				return new Lesson(language, module, sentencesOfModule(module.id()));
+			}
+		}
+		return null;
+	}
+
+	public int languageCount()
+	{
+		return languages.size();
+	}
+
+	public int moduleCount()
+	{
+		return moduleCount;
+	}
+
+	public int sentenceCount()
+	{
+		return sentences.length;
+	}
+
+	/**
+	 * Estimates the heap retained by the snapshot, assuming a 64-bit JVM with compressed
+	 * references: 12-byte object headers, 4-byte references, 8-byte alignment, and compact
+	 * strings of one byte per character when every character is Latin-1.
+	 * Boxed values the JVM caches (small integers) are not counted.
+	 *
+	 * @return the estimated size in bytes
+	 */
+	public long estimatedBytes()
+	{
+		long bytes = align(16 + 4L * sentences.length) + align(16 + 4L * languages.size());
+		for (SentenceDto sentence : sentences)
+		{
+			// The module ID is shared with the module and counted there
+			bytes += align(12 + 6 * 4) + boxBytes(sentence.id()) + boxBytes(sentence.position())
+				+ boxBytes(sentence.speaker()) + stringBytes(sentence.learningText()) + stringBytes(sentence.translationText());
+		}
+		for (LanguageDto language : languages)
+		{
+			bytes += align(12 + 5 * 4) + boxBytes(language.id()) + stringBytes(language.name())
+				+ stringBytes(language.backgroundImageUrl()) + stringBytes(language.countryCode())
+				+ stringBytes(language.languagePresentation());
+		}
+		for (List<ModuleDto> modules : modulesByLanguageId.values())
+		{
+			bytes += align(16 + 4L * modules.size());
+			for (ModuleDto module : modules)
+			{
+				bytes += align(12 + 6 * 4) + boxBytes(module.id()) + stringBytes(module.name())
+					+ stringBytes(module.description()) + stringBytes(module.modulePresentation())
+					+ stringBytes(module.materialIconName());
+			}
+		}
+		// Map entries and their tables, plus the int[2] of each range; keys are shared with the values
+		int entries = languagesByName.size() + modulesByLanguageId.size() + moduleRanges.size() + languageRanges.size();
+		bytes += entries * (long) (align(12 + 3 * 4 + 4) + 2 * 4) + (moduleRanges.size() + languageRanges.size()) * 24L;
+		return bytes;
+	}
+
+	private List<SentenceDto> range(int[] range)
+	{
+		return range != null ? sentenceList.subList(range[0], range[1]) : List.of();
+	}
+
+	// The index of the first sentence in [from, to) that sorts after the cursor
+	private int firstAfter(int from, int to, SentenceCursor cursor)
+	{
+		int low = from;
+		int high = to;
+		while (low < high)
+		{
+			int middle = (low + high) >>> 1;
+			SentenceDto sentence = sentences[middle];
+			int position = sentence.position() != null ? sentence.position() : 0;
+			int order = position != cursor.position() ? Integer.compare(position, cursor.position())
+				: Long.compare(sentence.id(), cursor.id());
+			if (order <= 0)
+			{
+				low = middle + 1;
+			}
+			else
+			{
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	private static long align(long bytes)
+	{
+		return (bytes + 7) & ~7L;
+	}
+
+	private static long boxBytes(Object value)
+	{
+		if (value == null || (value instanceof Integer integer && integer >= -128 && integer <= 127))
+		{
+			return 0;
+		}
+		return 16;
+	}
+
+	private static long stringBytes(String value)
+	{
+		if (value == null)
+		{
+			return 0;
+		}
+		boolean latin1 = value.chars().allMatch(c -> c < 256);
+		return align(12 + 4 + 4 + 1 + 3) + align(16 + (long) value.length() * (latin1 ? 1 : 2));
+	}
+}
@@ -0,0 +1,215 @@
+package com.gabrielrochon.languagecontent.catalog;
+
+import com.gabrielrochon.languagecontent.language.LanguageRepository;
+import com.gabrielrochon.languagecontent.module.ModuleRepository;
+import com.gabrielrochon.languagecontent.sentence.SentenceRepository;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Serves the catalog reads from an immutable in-memory snapshot, without Postgres or Redis.
+ * The catalog is small and changes rarely, so each replica holds all of it (see CatalogSnapshot).
+ *
+ * The snapshot is built when the application starts, before it accepts traffic, and rebuilt
+ * off the request path whenever the content version changes: at once on the replica that made
+ * the change, on the others when they poll the version. Requests read whichever snapshot is
+ * current, swapped in whole, and each one is read with its version in a single REPEATABLE READ
+ * transaction, so requests never see half of a change. While the snapshot is disabled or could
+ * not be built yet, the services read through the caches as before.
+ */
+@Component
+public class ContentCatalog implements ApplicationRunner, DisposableBean
+{
+
+	@Autowired
+	private LanguageRepository languageRepository;
+
+	@Autowired
+	private ModuleRepository moduleRepository;
+
+	@Autowired
+	private SentenceRepository sentenceRepository;
+
+	@Autowired
+	private ContentVersionService contentVersionService;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Value("${catalog.snapshot.enabled:false}")
+	private boolean enabled;
+
+	@Value("${catalog.snapshot.poll-interval:PT5S}")
+	private Duration pollInterval;
+
+	private final AtomicReference<CatalogSnapshot> current = new AtomicReference<>();
+
+	private final AtomicLong rebuilds = new AtomicLong();
+
+	private final AtomicLong failures = new AtomicLong();
+
+	private volatile ScheduledExecutorService rebuilder;
+
+	private volatile Instant builtAt;
+
+	private volatile long buildMillis;
+
+	@Override
+	public void run(ApplicationArguments args)
+	{
+		if (!enabled)
+		{
+			System.out.println("Content catalog snapshot disabled");
+			return;
+		}
+		refresh();
+		rebuilder = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("catalog-snapshot").daemon().factory());
+		rebuilder.scheduleWithFixedDelay(this::refresh, pollInterval.toMillis(), pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Rebuilds the snapshot after a change committed by this replica.
+	 *
+	 * @param event the change
+	 */
+	@EventListener
+	public void onContentChanged(ContentChangedEvent event)
+	{
+		ScheduledExecutorService executor = rebuilder;
+		if (executor != null)
+		{
+			executor.execute(this::refresh);
+		}
+	}
+
+	/**
+	 * Returns whether reads are served from the snapshot.
+	 *
+	 * @return true if the snapshot is enabled and built
+	 */
+	public boolean isServing()
+	{
+		return enabled && current.get() != null;
+	}
+
+	/**
+	 * Returns the current snapshot. Callers read it once per request, so one request sees one version.
+	 *
+	 * @return the snapshot, or null if none has been built
+	 */
+	public CatalogSnapshot snapshot()
+	{
+		return current.get();
+	}
+
+	/**
+	 * Builds a new snapshot if the content version has changed since the current one.
+	 */
+	public void refresh()
+	{
+		try
+		{
+			long start = System.nanoTime();
+			// The version and the rows are read from one database snapshot (see readOnly), so a
+			// snapshot labelled with a version holds exactly the content of that version
+			CatalogSnapshot snapshot = readOnly().execute(status ->
+			{
+				long version = contentVersionService.getCurrentVersion();
+				CatalogSnapshot previous = current.get();
+				if (previous != null && previous.version() == version)
+				{
+					return null;
+				}
+				return CatalogSnapshot.build(version, languageRepository.findAllDtos(), moduleRepository.findAllDtos(),
+					sentenceRepository.findAllDtos());
+			});
+			if (snapshot == null)
+			{
+				return;
+			}
+			// Versions only grow: a slower concurrent build never replaces a newer snapshot
+			CatalogSnapshot replaced = current.getAndUpdate(previous ->
+				previous == null || previous.version() < snapshot.version() ? snapshot : previous);
+			if (replaced != null && replaced.version() >= snapshot.version())
+			{
+				return;
+			}
+			builtAt = Instant.now();
+			buildMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+			rebuilds.incrementAndGet();
+			System.out.println("Content catalog snapshot " + snapshot.version() + " built in " + buildMillis + " ms: "
+				+ snapshot.languageCount() + " languages, " + snapshot.moduleCount() + " modules, "
+				+ snapshot.sentenceCount() + " sentences, about " + snapshot.estimatedBytes() / 1024 + " KB");
+		}
+		catch (RuntimeException e)
+		{
+			// The previous snapshot is kept, and the next poll tries again
+			failures.incrementAndGet();
+			System.err.println("Content catalog snapshot could not be built: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Returns the version, build time, size and rebuild counters of the snapshot.
+	 *
+	 * @return the snapshot statistics
+	 */
+	public Map<String, Object> getStats()
+	{
+		Map<String, Object> stats = new LinkedHashMap<>();
+		CatalogSnapshot snapshot = current.get();
+		stats.put("enabled", enabled);
+		stats.put("serving", isServing());
+		if (snapshot != null)
+		{
+			stats.put("version", snapshot.version());
+			stats.put("builtAt", String.valueOf(builtAt));
+			stats.put("buildMillis", buildMillis);
+			stats.put("languages", snapshot.languageCount());
+			stats.put("modules", snapshot.moduleCount());
+			stats.put("sentences", snapshot.sentenceCount());
+			stats.put("estimatedBytes", snapshot.estimatedBytes());
+		}
+		stats.put("rebuilds", rebuilds.get());
+		stats.put("failures", failures.get());
+		return stats;
+	}
+
+	@Override
+	public void destroy()
+	{
+		ScheduledExecutorService executor = rebuilder;
+		if (executor != null)
+		{
+			executor.shutdownNow();
+		}
+	}
+
+	// REPEATABLE READ: every statement of the transaction sees the data as of its first one,
+	// where READ COMMITTED would let a change committed between two statements in
+	private TransactionTemplate readOnly()
+	{
+		TransactionTemplate template = new TransactionTemplate(transactionManager);
+		template.setReadOnly(true);
+		template.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+		return template;
+	}
+}
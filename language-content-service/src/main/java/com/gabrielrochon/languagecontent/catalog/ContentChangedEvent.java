@@ -0,0 +1,8 @@
+package com.gabrielrochon.languagecontent.catalog;
+
+/**
+ * Published after a transaction that changed the catalog content has committed.
+ */
+public record ContentChangedEvent()
+{
+}
@@ -0,0 +1,37 @@
+package com.gabrielrochon.languagecontent.catalog;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * JPA entity representing the version of the catalog content in the PostgreSQL database.
+ * This class maps to the "content_version" table, which holds a single row with ID 1.
+ * The version is incremented by every transaction that changes languages, modules or sentences.
+ */
+@Entity
+@Table(name = "content_version")
+public class ContentVersion
+{
+
+	// Always 1.
+	@Id
+	private Integer id;
+
+	// Incremented by each content change.
+	private Long version;
+
+	// Constructors
+	public ContentVersion() {}
+
+	// Getters
+	public Integer getId()
+	{
+		return id;
+	}
+
+	public Long getVersion()
+	{
+		return version;
+	}
+}
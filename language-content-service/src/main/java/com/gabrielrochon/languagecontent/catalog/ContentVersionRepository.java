@@ -0,0 +1,21 @@
+package com.gabrielrochon.languagecontent.catalog;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for the content version row.
+ */
+@Repository
+public interface ContentVersionRepository extends JpaRepository<ContentVersion, Integer>
+{
+	@Query("select v.version from ContentVersion v where v.id = 1")
+	Long findCurrent();
+
+	// Locks the row until the transaction ends, so concurrent writes are counted one by one
+	@Modifying
+	@Query("update ContentVersion v set v.version = v.version + 1 where v.id = 1")
+	int increment();
+}
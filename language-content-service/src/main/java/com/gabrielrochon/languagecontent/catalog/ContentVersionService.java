@@ -0,0 +1,84 @@
+package com.gabrielrochon.languagecontent.catalog;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Tracks the version of the catalog content, shared by every replica through the database.
+ * A transaction that changes content increments the version once, however many rows it
+ * writes, and a ContentChangedEvent is published once it has committed. Replicas that did
+ * not make the change notice it by reading the version.
+ * Only the catalog snapshot reads the version, so while it is disabled writes leave the
+ * version row alone and do not serialize on its lock.
+ */
+@Service
+public class ContentVersionService
+{
+
+	@Autowired
+	private ContentVersionRepository contentVersionRepository;
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Value("${catalog.snapshot.enabled:false}")
+	private boolean enabled;
+
+	/**
+	 * Returns the current content version.
+	 *
+	 * @return the version, or 0 if the version row is missing
+	 */
+	public long getCurrentVersion()
+	{
+		Long version = contentVersionRepository.findCurrent();
+		return version != null ? version : 0;
+	}
+
+	/**
+	 * Records that the current transaction changes the content. Without a transaction the
+	 * version is incremented in a transaction of its own. Does nothing while the catalog
+	 * snapshot is disabled.
+	 */
+	public void markChanged()
+	{
+		if (!enabled)
+		{
+			return;
+		}
+		if (!TransactionSynchronizationManager.isSynchronizationActive())
+		{
+			new TransactionTemplate(transactionManager).executeWithoutResult(status -> contentVersionRepository.increment());
+			eventPublisher.publishEvent(new ContentChangedEvent());
+			return;
+		}
+		// Bound to the transaction so it is incremented once
+		if (TransactionSynchronizationManager.hasResource(this))
+		{
+			return;
+		}
+		TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization()
+		{
+			@Override
+			public void afterCompletion(int status)
+			{
+				TransactionSynchronizationManager.unbindResourceIfPossible(ContentVersionService.this);
+				if (status == STATUS_COMMITTED)
+				{
+					eventPublisher.publishEvent(new ContentChangedEvent());
+				}
+			}
+		});
+		contentVersionRepository.increment();
+	}
+}
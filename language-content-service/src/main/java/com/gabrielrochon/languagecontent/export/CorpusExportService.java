@@ -0,0 +1,190 @@
+package com.gabrielrochon.languagecontent.export;
+
+import com.gabrielrochon.languagecontent.language.Language;
+import com.gabrielrochon.languagecontent.language.LanguageRepository;
+import com.gabrielrochon.languagecontent.module.Module;
+import com.gabrielrochon.languagecontent.module.ModuleRepository;
+import com.gabrielrochon.languagecontent.sentence.Sentence;
+import com.gabrielrochon.languagecontent.sentence.SentenceRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.StreamWriteFeature;
+import tools.jackson.core.exc.JacksonIOException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Exports the whole corpus of a language as newline-delimited JSON, one object per line:
+ * the language, then each of its modules, then every sentence ordered by module and position.
+ * Every line has a "type" field of "language", "module" or "sentence"; sentences refer to their
+ * module by "moduleId".
+ *
+ * Each line is written by one Jackson generator over the response as the rows are read.
+ * Sentences are streamed from a database cursor and detached once written, and the output is
+ * flushed every few hundred lines, so memory use does not grow with the size of the corpus.
+ */
+@Service
+public class CorpusExportService
+{
+
+	@Autowired
+	private LanguageRepository languageRepository;
+
+	@Autowired
+	private ModuleRepository moduleRepository;
+
+	@Autowired
+	private SentenceRepository sentenceRepository;
+
+	@Autowired
+	private JsonMapper jsonMapper;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Value("${export.flush-every:500}")
+	private int flushEvery;
+
+	/**
+	 * Finds the language to export, before the response is committed.
+	 *
+	 * @param name the name of the language
+	 * @return the language, or null if there is none with that name
+	 */
+	public Language findLanguage(String name)
+	{
+		return languageRepository.findByName(name);
+	}
+
+	/**
+	 * Writes the corpus of a language. Runs in one read-only transaction, which keeps the
+	 * sentence cursor open until the last row is written.
+	 *
+	 * @param languageId the ID of the language
+	 * @param out the response body
+	 * @return the number of sentences written
+	 * @throws IOException if the client goes away
+	 */
+	@Transactional(readOnly = true)
+	public long export(Long languageId, OutputStream out) throws IOException
+	{
+		long start = System.nanoTime();
+		Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+		// Lines are ended by hand, so no separator is written between root values, and the
+		// response stays open for the caller when the generator is closed
+		try (JsonGenerator generator = jsonMapper.writer()
+			.withRootValueSeparator("")
+			.without(StreamWriteFeature.AUTO_CLOSE_TARGET)
+			.createGenerator(writer))
+		{
+			Language language = languageRepository.findById(languageId).orElse(null);
+			if (language == null)
+			{
+				generator.flush();
+				return 0;
+			}
+			writeLanguage(generator, language);
+			for (Module module : moduleRepository.findByLanguageId(languageId))
+			{
+				writeModule(generator, module);
+			}
+			generator.flush();
+
+			long sentences = 0;
+			try (Stream<Sentence> stream = sentenceRepository.streamByLanguageId(languageId))
+			{
+				Iterator<Sentence> iterator = stream.iterator();
+				while (iterator.hasNext())
+				{
+					Sentence sentence = iterator.next();
+					writeSentence(generator, sentence);
+					entityManager.detach(sentence);
+					if (++sentences % flushEvery == 0)
+					{
+						generator.flush();
+					}
+				}
+			}
+			generator.flush();
+
+			double seconds = (System.nanoTime() - start) / 1e9;
+			System.out.println("Exported " + sentences + " sentences of " + language.getName() + " in "
+				+ String.format("%.2f", seconds) + "s (" + Math.round(sentences / Math.max(seconds, 1e-9)) + " rows/s)");
+			return sentences;
+		}
+		catch (JacksonIOException e)
+		{
+			// The client went away; Jackson reports it unchecked
+			throw (IOException) e.getCause();
+		}
+	}
+
+	private static void writeLanguage(JsonGenerator generator, Language language)
+	{
+		generator.writeStartObject();
+		generator.writeStringProperty("type", "language");
+		writeNumberProperty(generator, "id", language.getId());
+		generator.writeStringProperty("name", language.getName());
+		generator.writeStringProperty("countryCode", language.getCountryCode());
+		generator.writeStringProperty("backgroundImageUrl", language.getBackgroundImageUrl());
+		generator.writeStringProperty("languagePresentation", language.getLanguagePresentation());
+		endLine(generator);
+	}
+
+	private static void writeModule(JsonGenerator generator, Module module)
+	{
+		generator.writeStartObject();
+		generator.writeStringProperty("type", "module");
+		writeNumberProperty(generator, "id", module.getId());
+		generator.writeStringProperty("name", module.getName());
+		generator.writeStringProperty("description", module.getDescription());
+		generator.writeStringProperty("modulePresentation", module.getModulePresentation());
+		generator.writeStringProperty("materialIconName", module.getMaterialIconName());
+		endLine(generator);
+	}
+
+	// The module is a lazy reference; reading its ID does not load it
+	private static void writeSentence(JsonGenerator generator, Sentence sentence)
+	{
+		generator.writeStartObject();
+		generator.writeStringProperty("type", "sentence");
+		writeNumberProperty(generator, "id", sentence.getId());
+		writeNumberProperty(generator, "moduleId", sentence.getModule().getId());
+		writeNumberProperty(generator, "position", sentence.getPosition());
+		generator.writeStringProperty("learningText", sentence.getLearningText());
+		generator.writeStringProperty("translationText", sentence.getTranslationText());
+		writeNumberProperty(generator, "speaker", sentence.getSpeaker());
+		endLine(generator);
+	}
+
+	private static void writeNumberProperty(JsonGenerator generator, String name, Number value)
+	{
+		if (value == null)
+		{
+			generator.writeNullProperty(name);
+		}
+		else
+		{
+			generator.writeNumberProperty(name, value.longValue());
+		}
+	}
+
+	private static void endLine(JsonGenerator generator)
+	{
+		generator.writeEndObject();
+		generator.writeRaw('\n');
+	}
+}
@@ -0,0 +1,116 @@
+package com.gabrielrochon.languagecontent.image;
+
+/**
+ * Resized and re-encoded rendition of an image requested through /images/** query parameters.
+ * Widths and qualities are snapped to fixed allow-lists so the number of variants cached
+ * per image stays bounded whatever clients ask for.
+ *
+ * @param width the target width in pixels, or 0 to keep the original width
+ * @param format the output format ("jpeg" or "png"), or null to keep the original format
+ * @param quality the JPEG quality in percent, 0 for lossless formats
+ */
+public record ImageVariant(int width, String format, int quality)
+{
+
+	static final int[] ALLOWED_WIDTHS = {160, 320, 640, 960, 1280, 1920};
+
+	static final int[] ALLOWED_QUALITIES = {50, 65, 75, 85, 95};
+
+	static final int DEFAULT_QUALITY = 75;
+
+	/**
+	 * Builds a variant from request parameters.
+	 * Requested widths are rounded up to the next allowed width (capped at the largest one)
+	 * and qualities to the nearest allowed quality.
+	 *
+	 * @param width the requested width, may be null
+	 * @param format the requested format, may be null
+	 * @param quality the requested quality, may be null
+	 * @return the normalized variant
+	 * @throws IllegalArgumentException if a parameter is out of range or the format is not supported
+	 */
+	public static ImageVariant of(Integer width, String format, Integer quality)
+	{
+		int snappedWidth = 0;
+		if (width != null)
+		{
+			if (width <= 0)
+			{
+				throw new IllegalArgumentException("Image width must be positive: " + width);
+			}
+			snappedWidth = ALLOWED_WIDTHS[ALLOWED_WIDTHS.length - 1];
+			for (int allowed : ALLOWED_WIDTHS)
+			{
+				if (allowed >= width)
+				{
+					snappedWidth = allowed;
+					break;
+				}
+			}
+		}
+
+		String normalizedFormat = normalizeFormat(format);
+
+		int snappedQuality = DEFAULT_QUALITY;
+		if (quality != null)
+		{
+			if (quality < 1 || quality > 100)
+			{
+				throw new IllegalArgumentException("Image quality must be between 1 and 100: " + quality);
+			}
+			for (int allowed : ALLOWED_QUALITIES)
+			{
+				if (Math.abs(allowed - quality) < Math.abs(snappedQuality - quality))
+				{
+					snappedQuality = allowed;
+				}
+			}
+		}
+		return new ImageVariant(snappedWidth, normalizedFormat, snappedQuality);
+	}
+
+	/**
+	 * Resolves the output format against the format of the original image.
+	 *
+	 * @param originalContentType the content type of the original image
+	 * @return this variant with a concrete format, and quality cleared for lossless output
+	 */
+	public ImageVariant resolve(String originalContentType)
+	{
+		String resolvedFormat = format;
+		if (resolvedFormat == null)
+		{
+			resolvedFormat = "image/png".equals(originalContentType) ? "png" : "jpeg";
+		}
+		return new ImageVariant(width, resolvedFormat, "png".equals(resolvedFormat) ? 0 : quality);
+	}
+
+	/**
+	 * Returns the suffix identifying this variant in cache keys and ETags.
+	 *
+	 * @return a short variant descriptor such as "w640-q75.jpeg"
+	 */
+	public String descriptor()
+	{
+		return "w" + width + "-q" + quality + "." + (format != null ? format : "auto");
+	}
+
+	public String contentType()
+	{
+		return "image/" + format;
+	}
+
+	private static String normalizeFormat(String format)
+	{
+		if (format == null || format.isBlank())
+		{
+			return null;
+		}
+		return switch (format.toLowerCase())
+		{
+			case "jpg", "jpeg" -> "jpeg";
+			case "png" -> "png";
+			default -> throw new IllegalArgumentException("Unsupported image format: " + format);
+		};
+	}
+}
@@ -0,0 +1,176 @@
+package com.gabrielrochon.languagecontent.image;
+
+import com.gabrielrochon.languagecontent.blob.BlobCache;
+import com.gabrielrochon.languagecontent.blob.BlobMetadata;
+import com.gabrielrochon.languagecontent.blob.BlobResource;
+import com.gabrielrochon.languagecontent.blob.BlobService;
+import com.gabrielrochon.languagecontent.blob.CachedBlob;
+import com.gabrielrochon.languagecontent.blob.SingleFlight;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * Service generating resized and re-encoded variants of images stored as blobs.
+ * Variants are produced with the JDK image APIs on the first request and stored in the
+ * blob cache under a variant key, so later requests never decode the original again.
+ * Missing originals are answered from the blob metadata cache without touching the blob store.
+ */
+@Service
+public class ImageVariantService
+{
+
+	private static final String KEY_PREFIX = "variant::";
+
+	@Autowired
+	private BlobService blobService;
+
+	@Autowired
+	private BlobCache blobCache;
+
+	private final SingleFlight<String, CachedBlob> generationFlight = new SingleFlight<>();
+
+	/**
+	 * Resolves an image variant into a resource, generating and caching it on a miss.
+	 *
+	 * @param blobName the name of the original image blob
+	 * @param variant the requested variant
+	 * @return a resource over the encoded variant
+	 * @throws RuntimeException if the original cannot be downloaded or decoded
+	 */
+	public BlobResource getVariantResource(String blobName, ImageVariant variant)
+	{
+		// Keyed by the original's store ETag so replacing the original never serves an old variant.
+		// The ETag does not change once the content hash is known, so neither does the key.
+		BlobMetadata original = blobService.getBlobMetadata(blobName);
+		String key = KEY_PREFIX + blobName + "::" + original.strongETag() + "::" + variant.descriptor();
+		CachedBlob cached = blobCache.get(key);
+		if (cached == null)
+		{
+			// Concurrent first requests for a variant share one decode and encode
+			cached = generationFlight.execute(key, () ->
+			{
+				CachedBlob generated = blobCache.get(key);
+				if (generated == null)
+				{
+					generated = generate(blobName, variant);
+					blobCache.put(key, generated);
+				}
+				return generated;
+			});
+		}
+		return BlobResource.of(cached);
+	}
+
+	/**
+	 * Returns the ETag a variant is served with, derived from the metadata of its original so
+	 * a conditional request can be answered without generating the variant. The variant ETag
+	 * is tied to the original's so a new original yields new validators.
+	 *
+	 * @param original the metadata of the original image blob
+	 * @param variant the requested variant
+	 * @return the strong ETag of the variant
+	 */
+	public static String variantETag(BlobMetadata original, ImageVariant variant)
+	{
+		ImageVariant resolved = variant.resolve(original.mediaType().toString());
+		String originalTag = original.strongETag();
+		return "\"" + originalTag.substring(1, originalTag.length() - 1) + "-" + resolved.descriptor() + "\"";
+	}
+
+	private CachedBlob generate(String blobName, ImageVariant variant)
+	{
+		CachedBlob original = blobService.fetchBlob(blobName);
+		BlobMetadata originalMetadata = original.metadata();
+		ImageVariant resolved = variant.resolve(originalMetadata.mediaType().toString());
+		try
+		{
+			BufferedImage source = ImageIO.read(new ByteArrayInputStream(original.content()));
+			if (source == null)
+			{
+				throw new IOException("Unsupported image content");
+			}
+			byte[] encoded = encode(resize(source, resolved), resolved);
+			System.out.println("Generated variant " + resolved.descriptor() + " of " + blobName + ": "
+				+ original.content().length + " -> " + encoded.length + " bytes");
+
+			BlobMetadata metadata = new BlobMetadata(blobName, encoded.length, resolved.contentType(),
+				variantETag(originalMetadata, variant), originalMetadata.lastModified());
+			return new CachedBlob(metadata, encoded);
+		}
+		catch (IOException e)
+		{
+			throw new RuntimeException("Failed to generate variant " + variant.descriptor() + " of " + blobName, e);
+		}
+	}
+
+	/**
+	 * Scales an image down to the variant width, halving repeatedly before the final step
+	 * so large reductions stay smooth with bilinear interpolation. Images are never upscaled.
+	 */
+	static BufferedImage resize(BufferedImage source, ImageVariant variant)
+	{
+		boolean opaque = !"png".equals(variant.format());
+		int imageType = opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB;
+		int targetWidth = variant.width() > 0 ? Math.min(variant.width(), source.getWidth()) : source.getWidth();
+		int targetHeight = Math.max(1, (int) Math.round((double) source.getHeight() * targetWidth / source.getWidth()));
+
+		BufferedImage current = source;
+		int width = source.getWidth();
+		int height = source.getHeight();
+		do
+		{
+			width = Math.max(targetWidth, width / 2);
+			height = width == targetWidth ? targetHeight : Math.max(targetHeight, height / 2);
+			BufferedImage step = new BufferedImage(width, height, imageType);
+			Graphics2D graphics = step.createGraphics();
+			graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+			if (opaque)
+			{
+				// JPEG has no alpha channel, so transparent pixels are flattened onto white
+				graphics.setColor(Color.WHITE);
+				graphics.fillRect(0, 0, width, height);
+			}
+			graphics.drawImage(current, 0, 0, width, height, null);
+			graphics.dispose();
+			current = step;
+		}
+		while (width != targetWidth);
+		return current;
+	}
+
+	static byte[] encode(BufferedImage image, ImageVariant variant) throws IOException
+	{
+		ImageWriter writer = ImageIO.getImageWritersByFormatName(variant.format()).next();
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		try (ImageOutputStream imageOutput = ImageIO.createImageOutputStream(output))
+		{
+			writer.setOutput(imageOutput);
+			ImageWriteParam param = writer.getDefaultWriteParam();
+			if (variant.quality() > 0 && param.canWriteCompressed())
+			{
+				param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+				param.setCompressionQuality(variant.quality() / 100f);
+			}
+			writer.write(null, new IIOImage(image, null, null), param);
+		}
+		finally
+		{
+			writer.dispose();
+		}
+		return output.toByteArray();
+	}
+}
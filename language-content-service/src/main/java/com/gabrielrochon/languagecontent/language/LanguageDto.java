@@ -0,0 +1,21 @@
+package com.gabrielrochon.languagecontent.language;
+
+/**
+ * Read model of a language, as returned by the API and stored in the catalog caches.
+ * Filled by constructor projections in LanguageRepository, so reads never load an entity.
+ *
+ * @param id the ID of the language
+ * @param name the name of the language
+ * @param backgroundImageUrl the URL of the background image
+ * @param countryCode the ISO 3166-1 alpha-2 country code
+ * @param languagePresentation the presentation text of the language
+ */
+public record LanguageDto(Long id, String name, String backgroundImageUrl, String countryCode, String languagePresentation)
+{
+
+	public static LanguageDto from(Language language)
+	{
+		return new LanguageDto(language.getId(), language.getName(), language.getBackgroundImageUrl(),
+			language.getCountryCode(), language.getLanguagePresentation());
+	}
+}
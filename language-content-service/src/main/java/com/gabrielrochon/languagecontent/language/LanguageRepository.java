@@ -1,15 +1,29 @@
 package com.gabrielrochon.languagecontent.language;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 /**
  * Repository interface for managing Language entities in the PostgreSQL database.
  * Provides CRUD operations and query methods for languages.
  * Extends JpaRepository to inherit standard database operations.
+ * Reads for the API select LanguageDto rows directly, in one statement each.
  */
 @Repository
 public interface LanguageRepository extends JpaRepository<Language, Long>
 {
+	String SELECT_DTO = "select new com.gabrielrochon.languagecontent.language.LanguageDto("
+		+ "l.id, l.name, l.backgroundImageUrl, l.countryCode, l.languagePresentation) from Language l";
+
 	Language findByName(String name);
+
+	@Query(SELECT_DTO + " order by l.id")
+	List<LanguageDto> findAllDtos();
+
+	@Query(SELECT_DTO + " where l.name = :name")
+	LanguageDto findDtoByName(@Param("name") String name);
 }
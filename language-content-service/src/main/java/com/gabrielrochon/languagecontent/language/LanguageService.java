@@ -1,9 +1,14 @@
 package com.gabrielrochon.languagecontent.language;
 
+import com.gabrielrochon.languagecontent.CatalogCache;
+import com.gabrielrochon.languagecontent.catalog.ContentCatalog;
+import com.gabrielrochon.languagecontent.module.Module;
+import com.gabrielrochon.languagecontent.module.ModuleRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -11,6 +16,8 @@ import java.util.List;
  * Service class for managing languages.
  * Provides business logic for retrieving and manipulating Language data
  * from the PostgreSQL database through the LanguageRepository.
+ * Writes evict only the cache entries of the affected language (see CatalogCache).
+ * Reads are served from the content catalog snapshot, bypassing the caches, while it is built.
  */
 @Service
 public class LanguageService
@@ -19,15 +26,28 @@ public class LanguageService
 	@Autowired
 	private LanguageRepository languageRepository;
 
+	@Autowired
+	private ModuleRepository moduleRepository;
+
+	@Autowired
+	private CatalogCache catalogCache;
+
+	@Autowired
+	private ContentCatalog contentCatalog;
+
 	/**
 	 * Retrieves all languages from the database.
 	 *
-	 * @return List of all Language entities
+	 * @return List of all languages
 	 */
-	@Cacheable("languages")
-	public List<Language> getAllLanguages()
+	@Cacheable(value = "languages", key = "'all'", condition = "!@contentCatalog.isServing()", sync = true)
+	public List<LanguageDto> getAllLanguages()
 	{
-		return languageRepository.findAll();
+		if (contentCatalog.isServing())
+		{
+			return contentCatalog.snapshot().languages();
+		}
+		return languageRepository.findAllDtos();
 	}
 
 	/**
@@ -36,22 +56,29 @@ public class LanguageService
 	 * @param language the language to add
 	 * @return the saved language entity
 	 */
-	@CacheEvict(value = "languages", allEntries = true)
+	@Transactional
 	public Language addLanguage(Language language)
 	{
-		return languageRepository.save(language);
+		Language saved = languageRepository.save(language);
+		// A lookup of this name may have cached its absence
+		catalogCache.evictLanguage(saved.getId(), saved.getName());
+		return saved;
 	}
 
 	/**
 	 * Retrieves a language by its name.
 	 *
 	 * @param name the name of the language
-	 * @return the Language entity
+	 * @return the language, or null if there is none with that name
 	 */
-	@Cacheable(value = "languages", key = "#name")
-	public Language getLanguageByName(String name)
+	@Cacheable(value = "languages", key = "'name:' + #name", condition = "!@contentCatalog.isServing()", sync = true)
+	public LanguageDto getLanguageByName(String name)
 	{
-		return languageRepository.findByName(name);
+		if (contentCatalog.isServing())
+		{
+			return contentCatalog.snapshot().language(name);
+		}
+		return languageRepository.findDtoByName(name);
 	}
 
 	/**
@@ -61,10 +88,18 @@ public class LanguageService
 	 * @param language the updated language data
 	 * @return the updated language entity
 	 */
-	@CacheEvict(value = "languages", allEntries = true)
+	@Transactional
 	public Language updateLanguage(Long id, Language language)
 	{
 		Language existingLanguage = languageRepository.findById(id).orElseThrow(() -> new RuntimeException("Language not found"));
+		// Entries under the old name are evicted as well as those under the new one
+		catalogCache.evictLanguage(id, existingLanguage.getName());
+		catalogCache.evictLanguage(id, language.getName());
+		for (Module module : moduleRepository.findByLanguageId(id))
+		{
+			catalogCache.evictLesson(existingLanguage.getName(), module.getName());
+			catalogCache.evictLesson(language.getName(), module.getName());
+		}
 		existingLanguage.setName(language.getName());
 		existingLanguage.setBackgroundImageUrl(language.getBackgroundImageUrl());
 		existingLanguage.setCountryCode(language.getCountryCode());
@@ -77,9 +112,18 @@ public class LanguageService
 	 *
 	 * @param id the ID of the language to delete
 	 */
-	@CacheEvict(value = "languages", allEntries = true)
+	@Transactional
 	public void deleteLanguage(Long id)
 	{
+		languageRepository.findById(id).ifPresent(language ->
+		{
+			catalogCache.evictLanguage(id, language.getName());
+			for (Module module : moduleRepository.findByLanguageId(id))
+			{
+				catalogCache.evictSentences(module.getId(), id);
+				catalogCache.evictLesson(language.getName(), module.getName());
+			}
+		});
 		languageRepository.deleteById(id);
 	}
 
@@ -0,0 +1,18 @@
+package com.gabrielrochon.languagecontent.lesson;
+
+import com.gabrielrochon.languagecontent.language.LanguageDto;
+import com.gabrielrochon.languagecontent.module.ModuleDto;
+import com.gabrielrochon.languagecontent.sentence.SentenceDto;
+
+import java.util.List;
+
+/**
+ * Everything a lesson page renders: the language, the module and its sentences by position.
+ *
+ * @param language the language of the module
+ * @param module the module
+ * @param sentences the sentences of the module, ordered by position
+ */
+public record Lesson(LanguageDto language, ModuleDto module, List<SentenceDto> sentences)
+{
+}
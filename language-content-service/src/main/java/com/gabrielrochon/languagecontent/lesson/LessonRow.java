@@ -0,0 +1,13 @@
+package com.gabrielrochon.languagecontent.lesson;
+
+/**
+ * One row of the lesson query: the language and module columns, repeated on every row,
+ * and the columns of one sentence, null when the module has no sentences.
+ * See ModuleRepository.findLessonRows.
+ */
+public record LessonRow(
+	Long languageId, String languageName, String backgroundImageUrl, String countryCode, String languagePresentation,
+	Long moduleId, String moduleName, String description, String modulePresentation, String materialIconName,
+	Long sentenceId, Integer position, String learningText, String translationText, Integer speaker)
+{
+}
@@ -0,0 +1,73 @@
+package com.gabrielrochon.languagecontent.lesson;
+
+import com.gabrielrochon.languagecontent.catalog.ContentCatalog;
+import com.gabrielrochon.languagecontent.language.LanguageDto;
+import com.gabrielrochon.languagecontent.module.ModuleDto;
+import com.gabrielrochon.languagecontent.module.ModuleRepository;
+import com.gabrielrochon.languagecontent.sentence.SentenceDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Service class for reading lessons.
+ * A lesson is resolved from the language and module names in one cached entry, so a lesson
+ * page needs a single request instead of looking up the module and then its sentences.
+ * The entry is evicted by the writes to its language, module or sentences (see CatalogCache).
+ * Lessons are served from the content catalog snapshot, bypassing the cache, while it is built.
+ */
+@Service
+public class LessonService
+{
+
+	@Autowired
+	private ModuleRepository moduleRepository;
+
+	@Autowired
+	private ContentCatalog contentCatalog;
+
+	/**
+	 * Retrieves the lesson of a module from the database, in one statement.
+	 * If the language has several modules of that name, the first one created is used.
+	 *
+	 * @param languageName the name of the language
+	 * @param moduleName the name of the module
+	 * @return the lesson, or null if the language has no module of that name
+	 */
+	@Cacheable(value = "lessons", key = "'language-name:' + #languageName + ':module-name:' + #moduleName",
+		condition = "!@contentCatalog.isServing()", sync = true)
+	public Lesson getLesson(String languageName, String moduleName)
+	{
+		if (contentCatalog.isServing())
+		{
+			return contentCatalog.snapshot().lesson(languageName, moduleName);
+		}
+		List<LessonRow> rows = moduleRepository.findLessonRows(languageName, moduleName);
+		if (rows.isEmpty())
+		{
+			return null;
+		}
+		LessonRow first = rows.get(0);
+		LanguageDto language = new LanguageDto(first.languageId(), first.languageName(), first.backgroundImageUrl(),
+			first.countryCode(), first.languagePresentation());
+		ModuleDto module = new ModuleDto(first.moduleId(), first.languageId(), first.moduleName(), first.description(),
+			first.modulePresentation(), first.materialIconName());
+		List<SentenceDto> sentences = new ArrayList<>(rows.size());
+		for (LessonRow row : rows)
+		{
+			if (!row.moduleId().equals(module.id()))
+			{
+				break;
+			}
+			if (row.sentenceId() != null)
+			{
+				sentences.add(new SentenceDto(row.sentenceId(), module.id(), row.position(), row.learningText(),
+					row.translationText(), row.speaker()));
+			}
+		}
+		return new Lesson(language, module, sentences);
+	}
+}
@@ -0,0 +1,24 @@
+package com.gabrielrochon.languagecontent.module;
+
+/**
+ * Read model of a module, as returned by the API and stored in the catalog caches.
+ * The language is referred to by ID only, so a module never drags its language along.
+ *
+ * @param id the ID of the module
+ * @param languageId the ID of the language of the module
+ * @param name the name of the module
+ * @param description the description of the module
+ * @param modulePresentation the presentation text of the module
+ * @param materialIconName the Material icon of the module
+ */
+public record ModuleDto(Long id, Long languageId, String name, String description, String modulePresentation,
+	String materialIconName)
+{
+
+	// Reading the ID of a lazy language does not load it
+	public static ModuleDto from(Module module)
+	{
+		return new ModuleDto(module.getId(), module.getLanguage() != null ? module.getLanguage().getId() : null,
+			module.getName(), module.getDescription(), module.getModulePresentation(), module.getMaterialIconName());
+	}
+}
@@ -1,6 +1,9 @@
 package com.gabrielrochon.languagecontent.module;
 
+import com.gabrielrochon.languagecontent.lesson.LessonRow;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,10 +12,36 @@ import java.util.List;
  * Repository interface for managing Module entities in the PostgreSQL database.
  * Provides CRUD operations and query methods for modules.
  * Extends JpaRepository to inherit standard database operations.
+ * Reads for the API select ModuleDto rows directly, in one statement each; m.language.id
+ * is the foreign key column and needs no join.
  */
 @Repository
 public interface ModuleRepository extends JpaRepository<Module, Long>
 {
+	String SELECT_DTO = "select new com.gabrielrochon.languagecontent.module.ModuleDto("
+		+ "m.id, m.language.id, m.name, m.description, m.modulePresentation, m.materialIconName) from Module m";
+
 	// Custom query methods
 	List<Module> findByLanguageId(Long languageId);
+
+	// Every module, for the content catalog snapshot
+	@Query(SELECT_DTO + " order by m.language.id, m.id")
+	List<ModuleDto> findAllDtos();
+
+	@Query(SELECT_DTO + " where m.language.id = :languageId order by m.id")
+	List<ModuleDto> findDtosByLanguageId(@Param("languageId") Long languageId);
+
+	@Query(SELECT_DTO + " where m.language.name = :languageName order by m.id")
+	List<ModuleDto> findDtosByLanguageName(@Param("languageName") String languageName);
+
+	// A lesson in one statement: one row per sentence, or a single row without sentence
+	// columns for a module without sentences. Modules sharing the name come in ID order.
+	@Query("select new com.gabrielrochon.languagecontent.lesson.LessonRow("
+		+ "l.id, l.name, l.backgroundImageUrl, l.countryCode, l.languagePresentation,"
+		+ " m.id, m.name, m.description, m.modulePresentation, m.materialIconName,"
+		+ " s.id, s.position, s.learningText, s.translationText, s.speaker)"
+		+ " from Module m join m.language l left join Sentence s on s.module = m"
+		+ " where l.name = :languageName and m.name = :moduleName"
+		+ " order by m.id, coalesce(s.position, 0), s.id")
+	List<LessonRow> findLessonRows(@Param("languageName") String languageName, @Param("moduleName") String moduleName);
 }
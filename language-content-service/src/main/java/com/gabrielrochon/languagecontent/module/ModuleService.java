@@ -1,11 +1,13 @@
 package com.gabrielrochon.languagecontent.module;
 
+import com.gabrielrochon.languagecontent.CatalogCache;
+import com.gabrielrochon.languagecontent.catalog.ContentCatalog;
 import com.gabrielrochon.languagecontent.language.Language;
-import com.gabrielrochon.languagecontent.language.LanguageService;
+import com.gabrielrochon.languagecontent.language.LanguageRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -13,6 +15,8 @@ import java.util.List;
  * Service class for managing modules.
  * Provides business logic for retrieving and manipulating Module data
  * from the PostgreSQL database through the ModuleRepository.
+ * Writes evict only the cache entries of the affected language and module (see CatalogCache).
+ * Reads are served from the content catalog snapshot, bypassing the caches, while it is built.
  */
 @Service
 public class ModuleService
@@ -22,35 +26,44 @@ public class ModuleService
 	private ModuleRepository moduleRepository;
 
 	@Autowired
-	private LanguageService languageService;
+	private LanguageRepository languageRepository;
+
+	@Autowired
+	private CatalogCache catalogCache;
+
+	@Autowired
+	private ContentCatalog contentCatalog;
 
 	/**
 	 * Retrieves all modules for a specific language from the database.
 	 *
 	 * @param languageId The ID of the language
-	 * @return List of Module entities for the given language
+	 * @return List of modules for the given language
 	 */
-	@Cacheable(value = "modules", key = "#languageId")
-	public List<Module> getModulesByLanguageId(Long languageId)
+	@Cacheable(value = "modules", key = "'language-id:' + #languageId", condition = "!@contentCatalog.isServing()", sync = true)
+	public List<ModuleDto> getModulesByLanguageId(Long languageId)
 	{
-		return moduleRepository.findByLanguageId(languageId);
+		if (contentCatalog.isServing())
+		{
+			return contentCatalog.snapshot().modulesOfLanguage(languageId);
+		}
+		return moduleRepository.findDtosByLanguageId(languageId);
 	}
 
 	/**
 	 * Retrieves all modules for a specific language by name.
 	 *
 	 * @param languageName The name of the language
-	 * @return List of Module entities for the given language
+	 * @return List of modules for the given language, empty if the language is not found
 	 */
-	@Cacheable(value = "modules", key = "#languageName")
-	public List<Module> getModulesByLanguageName(String languageName)
+	@Cacheable(value = "modules", key = "'language-name:' + #languageName", condition = "!@contentCatalog.isServing()", sync = true)
+	public List<ModuleDto> getModulesByLanguageName(String languageName)
 	{
-		Language language = languageService.getLanguageByName(languageName);
-		if (language == null)
+		if (contentCatalog.isServing())
 		{
-			return List.of(); // Return empty list if language not found
+			return contentCatalog.snapshot().modulesOfLanguage(languageName);
 		}
-		return moduleRepository.findByLanguageId(language.getId());
+		return moduleRepository.findDtosByLanguageName(languageName);
 	}
 
 	/**
@@ -59,10 +72,13 @@ public class ModuleService
 	 * @param module the module to add
 	 * @return the saved module entity
 	 */
-	@CacheEvict(value = "modules", allEntries = true)
+	@Transactional
 	public Module addModule(Module module)
 	{
-		return moduleRepository.save(module);
+		Module saved = moduleRepository.save(module);
+		// A lesson lookup of this name may have cached its absence
+		evictModulesOf(saved.getLanguage(), saved.getName());
+		return saved;
 	}
 
 	/**
@@ -70,9 +86,26 @@ public class ModuleService
 	 *
 	 * @param id the ID of the module to delete
 	 */
-	@CacheEvict(value = "modules", allEntries = true)
+	@Transactional
 	public void deleteModule(Long id)
 	{
+		moduleRepository.findById(id).ifPresent(module ->
+		{
+			evictModulesOf(module.getLanguage(), module.getName());
+			catalogCache.evictSentences(id, module.getLanguage() != null ? module.getLanguage().getId() : null);
+		});
 		moduleRepository.deleteById(id);
 	}
+
+	// The module may only carry the language ID, so the name is read from the repository
+	private void evictModulesOf(Language language, String moduleName)
+	{
+		if (language == null || language.getId() == null)
+		{
+			return;
+		}
+		String languageName = languageRepository.findById(language.getId()).map(Language::getName).orElse(null);
+		catalogCache.evictModules(language.getId(), languageName);
+		catalogCache.evictLesson(languageName, moduleName);
+	}
 }
@@ -8,6 +8,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
 /**
@@ -19,9 +20,12 @@ import jakarta.persistence.Table;
 public class Sentence
 {
 
-	// Unique identifier for the sentence. Auto-generated by the db.
+	// Unique identifier for the sentence. Taken from the sentence_seq sequence, 50 IDs per call,
+	// so inserts can be batched (IDENTITY needs a round trip per row to learn the ID).
+	// The sequence increments by the allocation size and must start above the existing IDs.
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sentence_seq")
+	@SequenceGenerator(name = "sentence_seq", sequenceName = "sentence_seq", allocationSize = 50)
 	private Long id;
 
 	// The module this sentence belongs to.
@@ -0,0 +1,47 @@
+package com.gabrielrochon.languagecontent.sentence;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of the last sentence of a page, from which the next page starts.
+ * Sentences of a module are ordered by position, with the ID breaking ties; a missing
+ * position sorts as 0. The token is opaque to clients.
+ *
+ * @param position the position of the last sentence returned
+ * @param id the ID of the last sentence returned
+ */
+public record SentenceCursor(int position, long id)
+{
+
+	public static SentenceCursor after(SentenceDto sentence)
+	{
+		return new SentenceCursor(sentence.position() != null ? sentence.position() : 0, sentence.id());
+	}
+
+	/**
+	 * Reads a cursor token.
+	 *
+	 * @param token the token returned as nextCursor of the previous page
+	 * @return the cursor
+	 * @throws IllegalArgumentException if the token is not a valid cursor
+	 */
+	public static SentenceCursor decode(String token)
+	{
+		try
+		{
+			String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+			int separator = value.indexOf(':');
+			return new SentenceCursor(Integer.parseInt(value.substring(0, separator)), Long.parseLong(value.substring(separator + 1)));
+		}
+		catch (RuntimeException e)
+		{
+			throw new IllegalArgumentException("Invalid cursor: " + token, e);
+		}
+	}
+
+	public String encode()
+	{
+		return Base64.getUrlEncoder().withoutPadding().encodeToString((position + ":" + id).getBytes(StandardCharsets.UTF_8));
+	}
+}
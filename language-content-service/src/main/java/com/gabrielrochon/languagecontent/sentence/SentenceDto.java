@@ -0,0 +1,24 @@
+package com.gabrielrochon.languagecontent.sentence;
+
+/**
+ * Read model of a sentence, as returned by the API and stored in the catalog caches.
+ * The module is referred to by ID only, so a sentence list never loads its module.
+ *
+ * @param id the ID of the sentence
+ * @param moduleId the ID of the module of the sentence
+ * @param position the position of the sentence in its module
+ * @param learningText the text in the language being learned
+ * @param translationText the translation of the text
+ * @param speaker the speaker identifier
+ */
+public record SentenceDto(Long id, Long moduleId, Integer position, String learningText, String translationText,
+	Integer speaker)
+{
+
+	// Reading the ID of a lazy module does not load it
+	public static SentenceDto from(Sentence sentence)
+	{
+		return new SentenceDto(sentence.getId(), sentence.getModule() != null ? sentence.getModule().getId() : null,
+			sentence.getPosition(), sentence.getLearningText(), sentence.getTranslationText(), sentence.getSpeaker());
+	}
+}
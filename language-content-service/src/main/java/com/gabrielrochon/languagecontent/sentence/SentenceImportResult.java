@@ -0,0 +1,22 @@
+package com.gabrielrochon.languagecontent.sentence;
+
+/**
+ * The outcome of one row of a bulk sentence import.
+ *
+ * @param index the index of the row in the request
+ * @param id the ID of the created sentence, or null if the row was rejected
+ * @param error why the row was rejected, or null if it was created
+ */
+public record SentenceImportResult(int index, Long id, String error)
+{
+
+	public static SentenceImportResult created(int index, Long id)
+	{
+		return new SentenceImportResult(index, id, null);
+	}
+
+	public static SentenceImportResult rejected(int index, String error)
+	{
+		return new SentenceImportResult(index, null, error);
+	}
+}
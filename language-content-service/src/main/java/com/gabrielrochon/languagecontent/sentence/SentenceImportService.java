@@ -0,0 +1,129 @@
+package com.gabrielrochon.languagecontent.sentence;
+
+import com.gabrielrochon.languagecontent.CatalogCache;
+import com.gabrielrochon.languagecontent.language.Language;
+import com.gabrielrochon.languagecontent.module.Module;
+import com.gabrielrochon.languagecontent.module.ModuleRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Imports many sentences into one module in a single transaction.
+ * Rows are validated first and rejected rows are reported without failing the others.
+ * Sentence IDs come from a pooled sequence, so persisting a row costs no round trip and the
+ * inserts go out in JDBC batches (hibernate.jdbc.batch_size) when the persistence context is
+ * flushed, every chunk of rows; clearing it after each flush keeps memory flat.
+ * The caches of the module, its language and its lesson are evicted once, after the commit.
+ */
+@Service
+public class SentenceImportService
+{
+
+	@Autowired
+	private ModuleRepository moduleRepository;
+
+	@Autowired
+	private CatalogCache catalogCache;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Value("${sentences.import.chunk-size:500}")
+	private int chunkSize;
+
+	@Value("${sentences.import.max-rows:10000}")
+	private int maxRows;
+
+	/**
+	 * Adds sentences to a module. The module of each row is ignored.
+	 *
+	 * @param moduleId the ID of the module
+	 * @param sentences the sentences to add
+	 * @return one result per row, in request order, or null if there is no module with that ID
+	 * @throws IllegalArgumentException if there are more rows than sentences.import.max-rows
+	 */
+	@Transactional
+	public List<SentenceImportResult> importSentences(Long moduleId, List<Sentence> sentences)
+	{
+		if (sentences.size() > maxRows)
+		{
+			throw new IllegalArgumentException("At most " + maxRows + " sentences can be imported at once");
+		}
+		Module module = moduleRepository.findById(moduleId).orElse(null);
+		if (module == null)
+		{
+			return null;
+		}
+		Language language = module.getLanguage();
+		Long languageId = language != null ? language.getId() : null;
+		String languageName = language != null ? language.getName() : null;
+		String moduleName = module.getName();
+
+		long start = System.nanoTime();
+		List<SentenceImportResult> results = new ArrayList<>(sentences.size());
+		int pending = 0;
+		int created = 0;
+		for (int i = 0; i < sentences.size(); i++)
+		{
+			Sentence row = sentences.get(i);
+			String error = validate(row);
+			if (error != null)
+			{
+				results.add(SentenceImportResult.rejected(i, error));
+				continue;
+			}
+			// A reference is enough for the foreign key; it is attached again after each clear
+			Sentence sentence = new Sentence(entityManager.getReference(Module.class, moduleId), row.getPosition(),
+				row.getLearningText(), row.getTranslationText(), row.getSpeaker());
+			entityManager.persist(sentence);
+			results.add(SentenceImportResult.created(i, sentence.getId()));
+			created++;
+			if (++pending == chunkSize)
+			{
+				entityManager.flush();
+				entityManager.clear();
+				pending = 0;
+			}
+		}
+		entityManager.flush();
+		entityManager.clear();
+
+		catalogCache.evictSentences(moduleId, languageId);
+		if (languageName != null)
+		{
+			catalogCache.evictLesson(languageName, moduleName);
+		}
+		long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+		System.out.println("Imported " + created + " of " + sentences.size() + " sentences into module " + moduleId
+			+ " in " + elapsedMillis + " ms (" + created * 1000L / elapsedMillis + " rows/s)");
+		return results;
+	}
+
+	private static String validate(Sentence sentence)
+	{
+		if (sentence == null)
+		{
+			return "sentence is required";
+		}
+		if (sentence.getLearningText() == null || sentence.getLearningText().isBlank())
+		{
+			return "learningText is required";
+		}
+		if (sentence.getTranslationText() == null || sentence.getTranslationText().isBlank())
+		{
+			return "translationText is required";
+		}
+		if (sentence.getPosition() != null && sentence.getPosition() < 0)
+		{
+			return "position must not be negative";
+		}
+		return null;
+	}
+}
@@ -0,0 +1,13 @@
+package com.gabrielrochon.languagecontent.sentence;
+
+import java.util.List;
+
+/**
+ * One page of the sentences of a module, ordered by position.
+ *
+ * @param sentences the sentences of the page
+ * @param nextCursor the token to request the next page with, or null on the last page
+ */
+public record SentencePage(List<SentenceDto> sentences, String nextCursor)
+{
+}
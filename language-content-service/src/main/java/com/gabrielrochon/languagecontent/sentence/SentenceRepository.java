@@ -1,20 +1,65 @@
 package com.gabrielrochon.languagecontent.sentence;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for managing Sentence entities in the PostgreSQL database.
  * Provides CRUD operations and query methods for sentences.
  * Extends JpaRepository to inherit standard database operations.
+ * Reads for the API select SentenceDto rows directly, in one statement each; s.module.id
+ * is the foreign key column and needs no join.
  */
 @Repository
 public interface SentenceRepository extends JpaRepository<Sentence, Long>
 {
+	String SELECT_DTO = "select new com.gabrielrochon.languagecontent.sentence.SentenceDto("
+		+ "s.id, s.module.id, s.position, s.learningText, s.translationText, s.speaker) from Sentence s";
+
 	// Custom query methods
 	List<Sentence> findByModuleId(Long moduleId);
 
 	List<Sentence> findByModuleLanguageId(Long languageId);
+
+	// Every sentence, for the content catalog snapshot
+	@Query(SELECT_DTO + " order by s.module.id, coalesce(s.position, 0), s.id")
+	List<SentenceDto> findAllDtos();
+
+	@Query(SELECT_DTO + " where s.module.id = :moduleId order by coalesce(s.position, 0), s.id")
+	List<SentenceDto> findDtosByModuleId(@Param("moduleId") Long moduleId);
+
+	// s.module.language.id joins the module table, in the same statement
+	@Query(SELECT_DTO + " where s.module.language.id = :languageId order by s.module.id, coalesce(s.position, 0), s.id")
+	List<SentenceDto> findDtosByLanguageId(@Param("languageId") Long languageId);
+
+	// Keyset pagination over (position, id) within a module; see SentenceCursor
+	@Query(SELECT_DTO + " where s.module.id = :moduleId order by coalesce(s.position, 0), s.id")
+	List<SentenceDto> findFirstPage(@Param("moduleId") Long moduleId, Limit limit);
+
+	@Query(SELECT_DTO + " where s.module.id = :moduleId"
+		+ " and (coalesce(s.position, 0) > :position or (coalesce(s.position, 0) = :position and s.id > :id))"
+		+ " order by coalesce(s.position, 0), s.id")
+	List<SentenceDto> findPageAfter(@Param("moduleId") Long moduleId, @Param("position") int position,
+		@Param("id") long id, Limit limit);
+
+	// Streams the sentences of a language module by module, without loading the modules.
+	// Must be consumed inside a transaction: PostgreSQL only uses a server-side cursor, and
+	// honours the fetch size, when autocommit is off.
+	@QueryHints({
+		@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+		@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+	})
+	@Query("select s from Sentence s join s.module m"
+		+ " where m.language.id = :languageId order by m.id, coalesce(s.position, 0), s.id")
+	Stream<Sentence> streamByLanguageId(@Param("languageId") Long languageId);
 }
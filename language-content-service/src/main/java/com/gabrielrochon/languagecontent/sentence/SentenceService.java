@@ -1,17 +1,26 @@
 package com.gabrielrochon.languagecontent.sentence;
 
+import com.gabrielrochon.languagecontent.CatalogCache;
+import com.gabrielrochon.languagecontent.catalog.ContentCatalog;
+import com.gabrielrochon.languagecontent.language.Language;
+import com.gabrielrochon.languagecontent.module.Module;
+import com.gabrielrochon.languagecontent.module.ModuleRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Service class for managing sentences.
  * Provides business logic for retrieving and manipulating Sentence data
  * from the PostgreSQL database through the SentenceRepository.
+ * Writes evict only the sentences of the affected module, its language and its lesson (see CatalogCache).
+ * Reads are served from the content catalog snapshot, bypassing the caches, while it is built.
  */
 @Service
 public class SentenceService
@@ -20,28 +29,85 @@ public class SentenceService
 	@Autowired
 	private SentenceRepository sentenceRepository;
 
+	@Autowired
+	private ModuleRepository moduleRepository;
+
+	@Autowired
+	private CatalogCache catalogCache;
+
+	@Autowired
+	private ContentCatalog contentCatalog;
+
+	@Value("${sentences.page.default-size:50}")
+	private int defaultPageSize;
+
+	@Value("${sentences.page.max-size:200}")
+	private int maxPageSize;
+
 	/**
 	 * Retrieves all sentences for a specific module from the database.
 	 *
 	 * @param moduleId The ID of the module
-	 * @return List of Sentence entities for the given module
+	 * @return List of sentences for the given module, ordered by position
+	 */
+	@Cacheable(value = "sentences", key = "'module:' + #moduleId", condition = "!@contentCatalog.isServing()", sync = true)
+	public List<SentenceDto> getSentencesByModuleId(Long moduleId)
+	{
+		if (contentCatalog.isServing())
+		{
+			return contentCatalog.snapshot().sentencesOfModule(moduleId);
+		}
+		return sentenceRepository.findDtosByModuleId(moduleId);
+	}
+
+	/**
+	 * Retrieves one page of the sentences of a module, ordered by position.
+	 * Each page is cached on its own, so a large module never becomes one large cache value.
+	 *
+	 * @param moduleId The ID of the module
+	 * @param cursor the nextCursor of the previous page, or null for the first page
+	 * @param size the number of sentences per page, or null for the default size
+	 * @return the page, with the cursor of the next page if there is one
+	 * @throws IllegalArgumentException if the cursor is not valid
 	 */
-	@Cacheable(value = "sentences", key = "#moduleId")
-	public List<Sentence> getSentencesByModuleId(Long moduleId)
+	public SentencePage getSentencePage(Long moduleId, String cursor, Integer size)
 	{
-		return sentenceRepository.findByModuleId(moduleId);
+		int pageSize = Math.max(1, Math.min(size != null ? size : defaultPageSize, maxPageSize));
+		SentenceCursor after = cursor != null ? SentenceCursor.decode(cursor) : null;
+		if (contentCatalog.isServing())
+		{
+			return contentCatalog.snapshot().sentencePage(moduleId, after, pageSize);
+		}
+		return catalogCache.getSentencePage(moduleId, cursor, pageSize, () ->
+		{
+			// One extra row tells whether there is a next page
+			Limit limit = Limit.of(pageSize + 1);
+			List<SentenceDto> sentences = after == null
+				? sentenceRepository.findFirstPage(moduleId, limit)
+				: sentenceRepository.findPageAfter(moduleId, after.position(), after.id(), limit);
+			if (sentences.size() <= pageSize)
+			{
+				return new SentencePage(sentences, null);
+			}
+			List<SentenceDto> page = new ArrayList<>(sentences.subList(0, pageSize));
+			return new SentencePage(page, SentenceCursor.after(page.get(pageSize - 1)).encode());
+		});
 	}
 
 	/**
 	 * Retrieves all sentences for a specific language from the database.
 	 *
 	 * @param languageId The ID of the language
-	 * @return List of Sentence entities for the given language
+	 * @return List of sentences for the given language, by module and position
 	 */
-	@Cacheable(value = "sentences", key = "#languageId")
-	public List<Sentence> getSentencesByLanguageId(Long languageId)
+	@Cacheable(value = "sentences", key = "'language:' + #languageId", condition = "!@contentCatalog.isServing()", sync = true)
+	public List<SentenceDto> getSentencesByLanguageId(Long languageId)
 	{
-		return sentenceRepository.findByModuleLanguageId(languageId);
+		if (contentCatalog.isServing())
+		{
+			return contentCatalog.snapshot().sentencesOfLanguage(languageId);
+		}
+		return sentenceRepository.findDtosByLanguageId(languageId);
 	}
 
 	/**
@@ -50,10 +116,12 @@ public class SentenceService
 	 * @param sentence the sentence to add
 	 * @return the saved sentence entity
 	 */
-	@CacheEvict(value = "sentences", allEntries = true)
+	@Transactional
 	public Sentence addSentence(Sentence sentence)
 	{
-		return sentenceRepository.save(sentence);
+		Sentence saved = sentenceRepository.save(sentence);
+		evictSentencesOf(saved.getModule());
+		return saved;
 	}
 
 	/**
@@ -61,10 +129,27 @@ public class SentenceService
 	 *
 	 * @param id the ID of the sentence to delete
 	 */
-	@CacheEvict(value = "sentences", allEntries = true)
+	@Transactional
 	public void deleteSentence(Long id)
 	{
+		sentenceRepository.findById(id).ifPresent(sentence -> evictSentencesOf(sentence.getModule()));
 		sentenceRepository.deleteById(id);
 	}
 
+	// The module may only carry its ID, so its language is read from the repository
+	private void evictSentencesOf(Module module)
+	{
+		if (module == null || module.getId() == null)
+		{
+			return;
+		}
+		Module stored = moduleRepository.findById(module.getId()).orElse(null);
+		Language language = stored != null ? stored.getLanguage() : null;
+		catalogCache.evictSentences(module.getId(), language != null ? language.getId() : null);
+		if (language != null)
+		{
+			catalogCache.evictLesson(language.getName(), stored.getName());
+		}
+	}
+
 }
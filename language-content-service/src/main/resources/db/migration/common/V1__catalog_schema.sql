@@ -0,0 +1,39 @@
+-- The catalog schema as Hibernate created it with ddl-auto=update.
+-- Databases created that way are baselined at this version instead of running it
+-- (spring.flyway.baseline-on-migrate), and pick up the migrations that follow.
+
+create table language (
+    id bigint generated by default as identity,
+    name varchar(255),
+    background_image_url varchar(255),
+    country_code varchar(255),
+    language_presentation varchar(255),
+    primary key (id)
+);
+
+create table module (
+    id bigint generated by default as identity,
+    language_id bigint,
+    name varchar(255),
+    description varchar(255),
+    module_presentation varchar(255),
+    material_icon_name varchar(255),
+    primary key (id)
+);
+
+-- IDs come from sentence_seq, 50 at a time (see Sentence)
+create table sentence (
+    id bigint not null,
+    module_id bigint,
+    position integer,
+    learning_text varchar(255),
+    translation_text varchar(255),
+    speaker integer,
+    primary key (id)
+);
+
+create sequence sentence_seq start with 1 increment by 50;
+
+alter table module add constraint fk_module_language foreign key (language_id) references language (id);
+
+alter table sentence add constraint fk_sentence_module foreign key (module_id) references module (id);
@@ -0,0 +1,11 @@
+-- Indexes of the catalog lookups. PostgreSQL does not index foreign keys by itself.
+
+-- Language by name (LanguageRepository.findByName, findDtoByName); names are unique
+create unique index if not exists uk_language_name on language (name);
+
+-- Modules of a language (findByLanguageId, findDtosByLanguageId), and a module by
+-- language and name (findDtosByLanguageName, findLessonRows)
+create index if not exists idx_module_language_name on module (language_id, name);
+
+-- Sentences of a module by position (findDtosByModuleId, the sentence pages, lessons)
+create index if not exists idx_sentence_module_position on sentence (module_id, position);
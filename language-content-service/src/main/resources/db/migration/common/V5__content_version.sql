@@ -0,0 +1,9 @@
+-- The version of the catalog content, incremented by every transaction that changes it
+-- (see ContentVersionService). Replicas compare it to decide whether their copy is current.
+create table content_version (
+    id integer not null,
+    version bigint not null,
+    primary key (id)
+);
+
+insert into content_version (id, version) values (1, 1);
@@ -0,0 +1,9 @@
+-- Databases baselined at V1 had IDENTITY sentence IDs, and sentence_seq only if Hibernate
+-- created it after the switch to sequence IDs. Moves the sequence past every ID in use,
+-- including blocks already handed out by its pooled optimizer.
+
+create sequence if not exists sentence_seq start with 1 increment by 50;
+
+alter sequence sentence_seq increment by 50;
+
+select setval('sentence_seq', greatest((select coalesce(max(id), 0) from sentence), (select last_value from sentence_seq), 1));
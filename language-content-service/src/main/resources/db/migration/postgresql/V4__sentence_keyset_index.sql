@@ -0,0 +1,4 @@
+-- Sentences are ordered by coalesce(position, 0), then ID (see SentenceCursor). Indexing that
+-- expression lets a page be read in index order, stopping after the page size, instead of
+-- sorting every sentence of the module.
+create index if not exists idx_sentence_module_keyset on sentence (module_id, (coalesce(position, 0)), id);
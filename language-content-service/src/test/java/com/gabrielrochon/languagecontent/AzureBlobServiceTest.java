@@ -1,183 +0,0 @@
-package com.gabrielrochon.languagecontent;
-
-import com.azure.storage.blob.BlobClient;
-import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.Mock;
-import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
-
-import java.io.ByteArrayOutputStream;
-
-import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.*;
-
-/**
- * Unit test for AzureBlobService caching behavior.
- * This test verifies that blob downloads come from Azure on first call and from cache on second call.
- * Note: This test creates a simplified version of the service for testing purposes.
- */
-@ExtendWith(MockitoExtension.class)
-public class AzureBlobServiceTest {
-
-    @Mock
-    private com.azure.storage.blob.BlobContainerClient containerClient;
-
-    @Mock
-    private com.azure.storage.blob.BlobClient blobClient;
-
-    @Test
-    public void testBlobDownloadCaching() throws Exception {
-        // Setup
-        String blobName = "test-image.jpg";
-        byte[] expectedData = "fake image data".getBytes();
-
-        when(containerClient.getBlobClient(blobName)).thenReturn(blobClient);
-        doAnswer(invocation -> {
-            ByteArrayOutputStream outputStream = invocation.getArgument(0);
-            outputStream.write(expectedData);
-            return null;
-        }).when(blobClient).downloadStream(any(ByteArrayOutputStream.class));
-
-        TestableAzureBlobService service = new TestableAzureBlobService();
-        service.setContainerClient(containerClient);
-        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager("blobs");
-        service.setCacheManager(cacheManager);
-        cacheManager.getCache("blobs").clear();
-
-        // First call - hits Azure
-        byte[] result1 = service.downloadBlob(blobName);
-        verify(blobClient, times(1)).downloadStream(any(ByteArrayOutputStream.class));
-        assertThat(result1).isEqualTo(expectedData);
-
-        // Verify cached
-        org.springframework.cache.Cache.ValueWrapper cached = cacheManager.getCache("blobs").get(blobName);
-        assertThat(cached).isNotNull();
-        assertThat(cached.get()).isEqualTo(expectedData);
-
-        // Second call - from cache
-        byte[] result2 = service.downloadBlob(blobName);
-        verify(blobClient, times(1)).downloadStream(any(ByteArrayOutputStream.class)); // Still 1 call
-        assertThat(result2).isEqualTo(expectedData);
-    }
-
-    @Test
-    public void testBlobExistsCaching() throws Exception {
-        // Setup
-        String blobName = "test-document.pdf";
-        boolean expectedExists = true;
-
-        when(containerClient.getBlobClient(blobName)).thenReturn(blobClient);
-        when(blobClient.exists()).thenReturn(expectedExists);
-
-        TestableAzureBlobService service = new TestableAzureBlobService();
-        service.setContainerClient(containerClient);
-        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager("blob-existence");
-        service.setCacheManager(cacheManager);
-        cacheManager.getCache("blob-existence").clear();
-
-        // First call - hits Azure
-        boolean result1 = service.blobExists(blobName);
-        verify(blobClient, times(1)).exists();
-        assertThat(result1).isEqualTo(expectedExists);
-
-        // Verify cached
-        org.springframework.cache.Cache.ValueWrapper cached = cacheManager.getCache("blob-existence").get(blobName);
-        assertThat(cached).isNotNull();
-        assertThat(cached.get()).isEqualTo(expectedExists);
-
-        // Second call - from cache
-        boolean result2 = service.blobExists(blobName);
-        verify(blobClient, times(1)).exists(); // Still 1 call
-        assertThat(result2).isEqualTo(expectedExists);
-    }
-
-    /**
-     * Testable version of AzureBlobService that allows dependency injection for testing.
-     */
-    private static class TestableAzureBlobService extends AzureBlobService {
-        private com.azure.storage.blob.BlobContainerClient testContainerClient;
-        private org.springframework.cache.CacheManager testCacheManager;
-
-        // Call parent constructor with dummy values
-        public TestableAzureBlobService() {
-            super("dummy-account", "dummy-key", "dummy-container");
-        }
-
-        public void setContainerClient(com.azure.storage.blob.BlobContainerClient containerClient) {
-            this.testContainerClient = containerClient;
-        }
-
-        public void setCacheManager(org.springframework.cache.CacheManager cacheManager) {
-            this.testCacheManager = cacheManager;
-        }
-
-        // Override the constructor behavior for testing
-        @Override
-        public byte[] downloadBlob(String blobName) {
-            try {
-                // Simulate caching behavior
-                if (testCacheManager != null) {
-                    org.springframework.cache.Cache cache = testCacheManager.getCache("blobs");
-                    if (cache != null) {
-                        org.springframework.cache.Cache.ValueWrapper cached = cache.get(blobName);
-                        if (cached != null) {
-                            return (byte[]) cached.get();
-                        }
-                    }
-                }
-
-                // Call Azure (simulated)
-                BlobClient blobClient = testContainerClient.getBlobClient(blobName);
-                ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-                blobClient.downloadStream(outputStream);
-                byte[] data = outputStream.toByteArray();
-
-                // Cache the result
-                if (testCacheManager != null) {
-                    org.springframework.cache.Cache cache = testCacheManager.getCache("blobs");
-                    if (cache != null) {
-                        cache.put(blobName, data);
-                    }
-                }
-
-                return data;
-            } catch (Exception e) {
-                throw new RuntimeException("Failed to download blob: " + blobName, e);
-            }
-        }
-
-        @Override
-        public boolean blobExists(String blobName) {
-            try {
-                // Simulate caching behavior
-                if (testCacheManager != null) {
-                    org.springframework.cache.Cache cache = testCacheManager.getCache("blob-existence");
-                    if (cache != null) {
-                        org.springframework.cache.Cache.ValueWrapper cached = cache.get(blobName);
-                        if (cached != null) {
-                            return (boolean) cached.get();
-                        }
-                    }
-                }
-
-                // Call Azure (simulated)
-                BlobClient blobClient = testContainerClient.getBlobClient(blobName);
-                boolean exists = blobClient.exists();
-
-                // Cache the result
-                if (testCacheManager != null) {
-                    org.springframework.cache.Cache cache = testCacheManager.getCache("blob-existence");
-                    if (cache != null) {
-                        cache.put(blobName, exists);
-                    }
-                }
-
-                return exists;
-            } catch (Exception e) {
-                return false;
-            }
-        }
-    }
-}
@@ -0,0 +1,147 @@
+package com.gabrielrochon.languagecontent;
+
+import com.gabrielrochon.languagecontent.blob.BlobCache;
+import com.gabrielrochon.languagecontent.blob.BlobIoExecutor;
+import com.gabrielrochon.languagecontent.blob.BlobMetadataCache;
+import com.gabrielrochon.languagecontent.blob.BlobService;
+import com.gabrielrochon.languagecontent.blob.BlobStore;
+import com.gabrielrochon.languagecontent.blob.ContentManifest;
+import com.gabrielrochon.languagecontent.blob.LocalBlobCache;
+import com.gabrielrochon.languagecontent.image.ImageVariantService;
+import com.gabrielrochon.languagecontent.language.LanguageDto;
+import com.gabrielrochon.languagecontent.language.LanguageService;
+import com.gabrielrochon.languagecontent.module.ModuleService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ApplicationAvailabilityBean;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests that the cache warm-up stops at its time budget when the blob store hangs, that the
+ * application only reports readiness once it has, and that a disabled warm-up loads nothing.
+ */
+public class CacheWarmupTest {
+
+    private static final Duration BUDGET = Duration.ofMillis(500);
+
+    private LanguageService languageService;
+
+    private ModuleService moduleService;
+
+    private ImageVariantService imageVariantService;
+
+    private BlobStore blobStore;
+
+    private BlobService blobService;
+
+    // Reached by the first store call; the store only answers once released
+    private CountDownLatch storeCalled;
+
+    private CountDownLatch release;
+
+    @BeforeEach
+    public void setup() {
+        storeCalled = new CountDownLatch(1);
+        release = new CountDownLatch(1);
+        languageService = mock(LanguageService.class);
+        when(languageService.getAllLanguages()).thenReturn(List.of(new LanguageDto(1L, "Tagalog", null, "PH", null)));
+        moduleService = mock(ModuleService.class);
+        imageVariantService = mock(ImageVariantService.class);
+        blobStore = mock(BlobStore.class);
+        when(blobStore.getMetadata(anyString())).thenAnswer(invocation -> {
+            storeCalled.countDown();
+            release.await(30, TimeUnit.SECONDS);
+            throw new IllegalStateException("Store released after the test");
+        });
+        // Blob I/O calls time out long after the budget, so only the budget can stop the warm-up
+        blobService = new BlobService(blobStore, new BlobCache(new LocalBlobCache(1024), null),
+            new BlobMetadataCache(Duration.ofMinutes(10), Duration.ofSeconds(30), 100),
+            new ContentManifest(null, Duration.ofHours(1)), new BlobIoExecutor(4, Duration.ofSeconds(1), Duration.ofSeconds(30)));
+    }
+
+    @AfterEach
+    public void releaseStore() {
+        release.countDown();
+    }
+
+    @Test
+    public void testWarmupStopsAtBudget() throws Exception {
+        CacheWarmup warmup = newWarmup(true);
+
+        long start = System.nanoTime();
+        warmup.run(null);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(storeCalled.await(0, TimeUnit.SECONDS)).isTrue();
+        assertThat(elapsedMillis).isBetween(BUDGET.toMillis() - 50, BUDGET.toMillis() + 2000);
+        // Loads that do not touch the store still complete within the budget
+        verify(languageService).getLanguageByName("Tagalog");
+        verify(moduleService).getModulesByLanguageName("Tagalog");
+    }
+
+    // A minimal application whose only runner is the warm-up, as in the service
+    @Test
+    public void testReadinessWaitsForWarmup() {
+        AtomicReference<ConfigurableApplicationContext> running = new AtomicReference<>();
+        AtomicReference<ReadinessState> readinessDuringWarmup = new AtomicReference<>();
+        when(moduleService.getModulesByLanguageName("Tagalog")).thenAnswer(invocation -> {
+            readinessDuringWarmup.set(running.get().getBean(ApplicationAvailability.class).getReadinessState());
+            return List.of();
+        });
+        CacheWarmup warmup = newWarmup(true);
+
+        long start = System.nanoTime();
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ApplicationAvailabilityBean.class)
+            .web(WebApplicationType.NONE)
+            .initializers(applicationContext -> {
+                running.set(applicationContext);
+                applicationContext.getBeanFactory().registerSingleton("cacheWarmup", warmup);
+            })
+            .run()) {
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            assertThat(readinessDuringWarmup.get()).isEqualTo(ReadinessState.REFUSING_TRAFFIC);
+            assertThat(context.getBean(ApplicationAvailability.class).getReadinessState())
+                .isEqualTo(ReadinessState.ACCEPTING_TRAFFIC);
+            assertThat(elapsedMillis).isGreaterThanOrEqualTo(BUDGET.toMillis() - 50);
+        }
+    }
+
+    @Test
+    public void testDisabledWarmupLoadsNothing() throws Exception {
+        newWarmup(false).run(null);
+
+        verifyNoInteractions(languageService, moduleService, imageVariantService, blobStore);
+    }
+
+    private CacheWarmup newWarmup(boolean enabled) {
+        CacheWarmup warmup = new CacheWarmup();
+        ReflectionTestUtils.setField(warmup, "languageService", languageService);
+        ReflectionTestUtils.setField(warmup, "moduleService", moduleService);
+        ReflectionTestUtils.setField(warmup, "blobService", blobService);
+        ReflectionTestUtils.setField(warmup, "imageVariantService", imageVariantService);
+        ReflectionTestUtils.setField(warmup, "enabled", enabled);
+        ReflectionTestUtils.setField(warmup, "budget", BUDGET);
+        ReflectionTestUtils.setField(warmup, "imageWidths", List.of(640));
+        return warmup;
+    }
+}
@@ -0,0 +1,221 @@
+package com.gabrielrochon.languagecontent;
+
+import com.gabrielrochon.languagecontent.catalog.ContentVersionService;
+import com.gabrielrochon.languagecontent.language.Language;
+import com.gabrielrochon.languagecontent.language.LanguageService;
+import com.gabrielrochon.languagecontent.lesson.Lesson;
+import com.gabrielrochon.languagecontent.lesson.LessonService;
+import com.gabrielrochon.languagecontent.module.Module;
+import com.gabrielrochon.languagecontent.module.ModuleService;
+import com.gabrielrochon.languagecontent.sentence.Sentence;
+import com.gabrielrochon.languagecontent.sentence.SentenceDto;
+import com.gabrielrochon.languagecontent.sentence.SentenceImportResult;
+import com.gabrielrochon.languagecontent.sentence.SentenceImportService;
+import com.gabrielrochon.languagecontent.sentence.SentencePage;
+import com.gabrielrochon.languagecontent.sentence.SentenceService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration test for the catalog cache keyspace: lookups by different kinds of ids
+ * never collide, and writes evict only the entries they affect.
+ */
+@SpringBootTest
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:catalogcachetest",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.cache.type=simple",
+    "cache.warmup.enabled=false",
+    "azure.storage.account-name=test",
+    "azure.storage.account-key=test",
+    "azure.storage.container-name=test",
+    "spring.data.redis.host=localhost",
+    "spring.data.redis.port=6379"
+})
+public class CatalogCacheTest {
+
+    @Autowired
+    private LanguageService languageService;
+
+    @Autowired
+    private ModuleService moduleService;
+
+    @Autowired
+    private SentenceService sentenceService;
+
+    @Autowired
+    private LessonService lessonService;
+
+    @Autowired
+    private SentenceImportService sentenceImportService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ContentVersionService contentVersionService;
+
+    @BeforeEach
+    public void clearCaches() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    public void testModuleAndLanguageIdsDoNotCollide() {
+        Language language = languageService.addLanguage(new Language("Ilocano"));
+        Module module = moduleService.addModule(new Module(language, "Greetings"));
+        sentenceService.addSentence(new Sentence(module, 1, "Naimbag nga aldaw", "Good day", 1));
+
+        sentenceService.getSentencesByModuleId(module.getId());
+        sentenceService.getSentencesByLanguageId(module.getId());
+
+        Cache sentences = cacheManager.getCache(CatalogCache.SENTENCES);
+        assertThat(sentences.get("module:" + module.getId())).isNotNull();
+        assertThat(sentences.get("language:" + module.getId())).isNotNull();
+    }
+
+    @Test
+    public void testAddingSentenceEvictsOnlyItsModuleAndLanguage() {
+        Language tagalog = languageService.addLanguage(new Language("Tagalog"));
+        Language cebuano = languageService.addLanguage(new Language("Cebuano"));
+        Module greetings = moduleService.addModule(new Module(tagalog, "Greetings"));
+        Module food = moduleService.addModule(new Module(tagalog, "Food"));
+        Module numbers = moduleService.addModule(new Module(cebuano, "Numbers"));
+
+        // Warm the hot entries
+        sentenceService.getSentencesByModuleId(greetings.getId());
+        sentenceService.getSentencesByModuleId(food.getId());
+        sentenceService.getSentencesByModuleId(numbers.getId());
+        sentenceService.getSentencesByLanguageId(tagalog.getId());
+        sentenceService.getSentencesByLanguageId(cebuano.getId());
+        moduleService.getModulesByLanguageName("Tagalog");
+        languageService.getAllLanguages();
+
+        sentenceService.addSentence(new Sentence(greetings, 1, "Kumusta", "Hello", 1));
+
+        Cache sentences = cacheManager.getCache(CatalogCache.SENTENCES);
+        assertThat(sentences.get("module:" + greetings.getId())).isNull();
+        assertThat(sentences.get("language:" + tagalog.getId())).isNull();
+        assertThat(sentences.get("module:" + food.getId())).isNotNull();
+        assertThat(sentences.get("module:" + numbers.getId())).isNotNull();
+        assertThat(sentences.get("language:" + cebuano.getId())).isNotNull();
+        assertThat(cacheManager.getCache(CatalogCache.MODULES).get("language-name:Tagalog")).isNotNull();
+        assertThat(cacheManager.getCache(CatalogCache.LANGUAGES).get("all")).isNotNull();
+
+        // The next read sees the new sentence
+        assertThat(sentenceService.getSentencesByModuleId(greetings.getId()))
+            .anyMatch(s -> "Kumusta".equals(s.learningText()));
+    }
+
+    @Test
+    public void testAddingModuleEvictsOnlyItsLanguage() {
+        Language waray = languageService.addLanguage(new Language("Waray"));
+        Language hiligaynon = languageService.addLanguage(new Language("Hiligaynon"));
+        moduleService.getModulesByLanguageName("Waray");
+        moduleService.getModulesByLanguageName("Hiligaynon");
+        moduleService.getModulesByLanguageId(hiligaynon.getId());
+
+        // Only the ID is known, as when the module comes from a request body
+        Language reference = new Language();
+        reference.setId(waray.getId());
+        moduleService.addModule(new Module(reference, "Family"));
+
+        Cache modules = cacheManager.getCache(CatalogCache.MODULES);
+        assertThat(modules.get("language-name:Waray")).isNull();
+        assertThat(modules.get("language-name:Hiligaynon")).isNotNull();
+        assertThat(modules.get("language-id:" + hiligaynon.getId())).isNotNull();
+        assertThat(moduleService.getModulesByLanguageName("Waray"))
+            .anyMatch(m -> "Family".equals(m.name()));
+    }
+
+    @Test
+    public void testLessonIsOrderedByPositionAndEvictedBySentenceWrites() {
+        Language kapampangan = languageService.addLanguage(new Language("Kapampangan"));
+        Module greetings = moduleService.addModule(new Module(kapampangan, "Greetings"));
+        sentenceService.addSentence(new Sentence(greetings, 2, "Mayap a gatpanapun", "Good afternoon", 2));
+        sentenceService.addSentence(new Sentence(greetings, 1, "Mayap a abak", "Good morning", 1));
+
+        Lesson lesson = lessonService.getLesson("Kapampangan", "Greetings");
+        assertThat(lesson.language().name()).isEqualTo("Kapampangan");
+        assertThat(lesson.module().id()).isEqualTo(greetings.getId());
+        assertThat(lesson.sentences()).extracting(SentenceDto::position).containsExactly(1, 2);
+        assertThat(lessonService.getLesson("Kapampangan", "Numbers")).isNull();
+
+        sentenceService.addSentence(new Sentence(greetings, 3, "Mayap a bengi", "Good evening", 1));
+
+        assertThat(cacheManager.getCache(CatalogCache.LESSONS).get("language-name:Kapampangan:module-name:Greetings")).isNull();
+        assertThat(lessonService.getLesson("Kapampangan", "Greetings").sentences()).hasSize(3);
+    }
+
+    @Test
+    public void testSentencePagesFollowPositionAndAreEvictedTogether() {
+        Language bikol = languageService.addLanguage(new Language("Bikol"));
+        Module numbers = moduleService.addModule(new Module(bikol, "Numbers"));
+        for (int position : new int[] {3, 1, 5, 2, 4}) {
+            sentenceService.addSentence(new Sentence(numbers, position, "Numero " + position, "Number " + position, 1));
+        }
+
+        SentencePage first = sentenceService.getSentencePage(numbers.getId(), null, 2);
+        SentencePage second = sentenceService.getSentencePage(numbers.getId(), first.nextCursor(), 2);
+        SentencePage last = sentenceService.getSentencePage(numbers.getId(), second.nextCursor(), 2);
+
+        assertThat(first.sentences()).extracting(SentenceDto::position).containsExactly(1, 2);
+        assertThat(second.sentences()).extracting(SentenceDto::position).containsExactly(3, 4);
+        assertThat(last.sentences()).extracting(SentenceDto::position).containsExactly(5);
+        assertThat(last.nextCursor()).isNull();
+
+        // A write moves every page of the module to a new version
+        sentenceService.addSentence(new Sentence(numbers, 0, "Numero 0", "Number 0", 1));
+
+        assertThat(sentenceService.getSentencePage(numbers.getId(), null, 2).sentences())
+            .extracting(SentenceDto::position).containsExactly(0, 1);
+    }
+
+    @Test
+    public void testBulkImportReportsEachRowAndEvictsTheModule() {
+        Language pangasinan = languageService.addLanguage(new Language("Pangasinan"));
+        Module numbers = moduleService.addModule(new Module(pangasinan, "Numbers"));
+        sentenceService.getSentencesByModuleId(numbers.getId());
+        lessonService.getLesson("Pangasinan", "Numbers");
+
+        // More rows than a chunk, with one invalid row in the middle
+        List<Sentence> rows = new ArrayList<>();
+        for (int position = 1; position <= 1200; position++) {
+            rows.add(new Sentence(null, position, "Bilang " + position, "Number " + position, 1));
+        }
+        rows.set(600, new Sentence(null, 601, "Bilang 601", " ", 1));
+
+        List<SentenceImportResult> results = sentenceImportService.importSentences(numbers.getId(), rows);
+
+        assertThat(results).hasSize(1200);
+        assertThat(results.get(600).id()).isNull();
+        assertThat(results.get(600).error()).isEqualTo("translationText is required");
+        assertThat(results).filteredOn(result -> result.error() == null).hasSize(1199)
+            .allMatch(result -> result.id() != null);
+        assertThat(cacheManager.getCache(CatalogCache.SENTENCES).get("module:" + numbers.getId())).isNull();
+        assertThat(cacheManager.getCache(CatalogCache.LESSONS).get("language-name:Pangasinan:module-name:Numbers")).isNull();
+        assertThat(sentenceService.getSentencesByModuleId(numbers.getId())).hasSize(1199);
+        assertThat(sentenceImportService.importSentences(-1L, rows)).isNull();
+    }
+
+    @Test
+    public void testWritesLeaveContentVersionAloneWithoutSnapshot() {
+        long version = contentVersionService.getCurrentVersion();
+
+        Language yakan = languageService.addLanguage(new Language("Yakan"));
+        moduleService.addModule(new Module(yakan, "Greetings"));
+
+        assertThat(contentVersionService.getCurrentVersion()).isEqualTo(version);
+    }
+}
@@ -0,0 +1,136 @@
+package com.gabrielrochon.languagecontent;
+
+import com.gabrielrochon.languagecontent.language.Language;
+import com.gabrielrochon.languagecontent.language.LanguageService;
+import com.gabrielrochon.languagecontent.module.Module;
+import com.gabrielrochon.languagecontent.module.ModuleService;
+import com.gabrielrochon.languagecontent.sentence.Sentence;
+import com.gabrielrochon.languagecontent.sentence.SentenceService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration test for the ETags of the JSON catalog endpoints: a matching If-None-Match
+ * is answered with an empty 304, and a write changes the tags of the responses it affects only.
+ * Bodies come from the encoded response cache, gzipped for clients that accept it.
+ */
+@SpringBootTest
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:catalogetagtest",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.cache.type=simple",
+    "cache.warmup.enabled=false",
+    "azure.storage.account-name=test",
+    "azure.storage.account-key=test",
+    "azure.storage.container-name=test",
+    "spring.data.redis.host=localhost",
+    "spring.data.redis.port=6379"
+})
+public class CatalogETagTest {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private LanguageService languageService;
+
+    @Autowired
+    private ModuleService moduleService;
+
+    @Autowired
+    private SentenceService sentenceService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void setup() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    @Test
+    public void testMatchingTagIsAnsweredWithNotModified() throws Exception {
+        languageService.addLanguage(new Language("Bikol"));
+        String eTag = eTag("/languages");
+
+        mockMvc.perform(get("/languages").header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, eTag))
+            .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+            .andExpect(content().string(""));
+
+        languageService.addLanguage(new Language("Kapampangan"));
+        mockMvc.perform(get("/languages").header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk());
+        assertThat(eTag("/languages")).isNotEqualTo(eTag);
+    }
+
+    @Test
+    public void testWritesChangeOnlyTheirOwnTags() throws Exception {
+        Language ibaloi = languageService.addLanguage(new Language("Ibaloi"));
+        languageService.addLanguage(new Language("Kankanaey"));
+        Module greetings = moduleService.addModule(new Module(ibaloi, "Greetings"));
+        Module numbers = moduleService.addModule(new Module(ibaloi, "Numbers"));
+        String ibaloiModules = eTag("/languages/Ibaloi/modules");
+        String kankanaeyModules = eTag("/languages/Kankanaey/modules");
+        String greetingsPage = eTag("/modules/" + greetings.getId() + "/sentences");
+        String numbersPage = eTag("/modules/" + numbers.getId() + "/sentences");
+
+        sentenceService.addSentence(new Sentence(greetings, 1, "Kumusta", "Hello", 1));
+        assertThat(eTag("/modules/" + greetings.getId() + "/sentences")).isNotEqualTo(greetingsPage);
+        assertThat(eTag("/modules/" + numbers.getId() + "/sentences")).isEqualTo(numbersPage);
+        assertThat(eTag("/languages/Ibaloi/modules")).isEqualTo(ibaloiModules);
+
+        moduleService.addModule(new Module(ibaloi, "Family"));
+        assertThat(eTag("/languages/Ibaloi/modules")).isNotEqualTo(ibaloiModules);
+        assertThat(eTag("/languages/Kankanaey/modules")).isEqualTo(kankanaeyModules);
+    }
+
+    @Test
+    public void testLargeBodiesAreGzippedWhenAccepted() throws Exception {
+        Language tboli = languageService.addLanguage(new Language("Tboli"));
+        for (int i = 1; i <= 30; i++) {
+            moduleService.addModule(new Module(tboli, "Module " + i));
+        }
+
+        byte[] gzipped = mockMvc.perform(get("/languages/Tboli/modules").header(HttpHeaders.ACCEPT_ENCODING, "gzip, br"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+            .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+            .andReturn().getResponse().getContentAsByteArray();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).contains("\"name\":\"Module 30\"");
+        }
+
+        mockMvc.perform(get("/languages/Tboli/modules"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+            .andExpect(jsonPath("$.length()").value(30));
+    }
+
+    private String eTag(String uri) throws Exception {
+        String eTag = mockMvc.perform(get(uri))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).as(uri).startsWith("W/");
+        return eTag;
+    }
+}
@@ -0,0 +1,181 @@
+package com.gabrielrochon.languagecontent;
+
+import com.gabrielrochon.languagecontent.blob.BlobCache;
+import com.gabrielrochon.languagecontent.blob.BlobIoExecutor;
+import com.gabrielrochon.languagecontent.blob.BlobMetadata;
+import com.gabrielrochon.languagecontent.blob.BlobMetadataCache;
+import com.gabrielrochon.languagecontent.blob.BlobResource;
+import com.gabrielrochon.languagecontent.blob.BlobService;
+import com.gabrielrochon.languagecontent.blob.BlobStore;
+import com.gabrielrochon.languagecontent.blob.CachedBlob;
+import com.gabrielrochon.languagecontent.blob.ContentManifest;
+import com.gabrielrochon.languagecontent.blob.LocalBlobCache;
+import com.gabrielrochon.languagecontent.image.ImageVariant;
+import com.gabrielrochon.languagecontent.image.ImageVariantService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests the HTTP caching and range behavior of the image endpoint, and its error statuses.
+ */
+public class ImageEndpointTest {
+
+    private static final String ETAG = "\"0x8DC0FFEE\"";
+
+    private static final Instant LAST_MODIFIED = Instant.parse("2025-01-15T10:00:00Z");
+
+    private static final byte[] CONTENT = "0123456789".getBytes(StandardCharsets.UTF_8);
+
+    private MockMvc mockMvc;
+
+    private ImageVariantService imageVariantService;
+
+    @BeforeEach
+    public void setup() {
+        BlobService blobService = mock(BlobService.class);
+        BlobMetadata metadata = new BlobMetadata("Tagalog/background.jpg", CONTENT.length, "image/jpeg", ETAG, LAST_MODIFIED);
+        when(blobService.getBlobResource("Tagalog/background.jpg")).thenAnswer(invocation ->
+            new BlobResource(metadata, offset -> new ByteArrayInputStream(CONTENT, (int) offset, CONTENT.length - (int) offset)));
+        // Stored with a content type that does not parse, a store-side error
+        BlobMetadata broken = new BlobMetadata("Tagalog/broken.jpg", CONTENT.length, "jpeg", ETAG, LAST_MODIFIED);
+        when(blobService.getBlobResource("Tagalog/broken.jpg")).thenAnswer(invocation ->
+            new BlobResource(broken, offset -> new ByteArrayInputStream(CONTENT)));
+
+        when(blobService.getBlobMetadata("Tagalog/background.jpg")).thenReturn(metadata);
+        imageVariantService = mock(ImageVariantService.class);
+
+        LanguageContentController controller = new LanguageContentController();
+        ReflectionTestUtils.setField(controller, "blobService", blobService);
+        ReflectionTestUtils.setField(controller, "imageVariantService", imageVariantService);
+        ReflectionTestUtils.setField(controller, "imageCacheControl", "public, max-age=86400");
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @Test
+    public void testFullResponseCarriesValidators() throws Exception {
+        mockMvc.perform(get("/images/Tagalog/background.jpg"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", ETAG))
+            .andExpect(header().string("Cache-Control", "public, max-age=86400"))
+            .andExpect(header().dateValue("Last-Modified", LAST_MODIFIED.toEpochMilli()))
+            .andExpect(header().string("Content-Type", "image/jpeg"))
+            .andExpect(content().bytes(CONTENT));
+    }
+
+    @Test
+    public void testMatchingETagReturnsNotModified() throws Exception {
+        mockMvc.perform(get("/images/Tagalog/background.jpg").header("If-None-Match", ETAG))
+            .andExpect(status().isNotModified())
+            .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    public void testUnchangedSinceReturnsNotModified() throws Exception {
+        mockMvc.perform(get("/images/Tagalog/background.jpg").header("If-Modified-Since", "Wed, 15 Jan 2025 10:00:00 GMT"))
+            .andExpect(status().isNotModified());
+    }
+
+    @Test
+    public void testVariantRevalidationDoesNotGenerateVariant() throws Exception {
+        BlobMetadata original = new BlobMetadata("Tagalog/background.jpg", CONTENT.length, "image/jpeg", ETAG, LAST_MODIFIED);
+        String variantETag = ImageVariantService.variantETag(original, ImageVariant.of(640, null, null));
+
+        mockMvc.perform(get("/images/Tagalog/background.jpg").param("w", "640").header("If-None-Match", variantETag))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string("ETag", variantETag));
+        verifyNoInteractions(imageVariantService);
+    }
+
+    @Test
+    public void testVariantIsGeneratedOnlyOnRealMiss() throws Exception {
+        BlobMetadata original = new BlobMetadata("Tagalog/background.jpg", CONTENT.length, "image/jpeg", ETAG, LAST_MODIFIED);
+        ImageVariant variant = ImageVariant.of(640, null, null);
+        String variantETag = ImageVariantService.variantETag(original, variant);
+        BlobMetadata generated = new BlobMetadata("Tagalog/background.jpg", CONTENT.length, "image/jpeg", variantETag, LAST_MODIFIED);
+        when(imageVariantService.getVariantResource(eq("Tagalog/background.jpg"), any(ImageVariant.class)))
+            .thenReturn(BlobResource.of(new CachedBlob(generated, CONTENT)));
+
+        mockMvc.perform(get("/images/Tagalog/background.jpg").param("w", "640").header("If-None-Match", "\"0x8DOLD-w640\""))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", variantETag))
+            .andExpect(content().bytes(CONTENT));
+    }
+
+    @Test
+    public void testRangeReturnsPartialContent() throws Exception {
+        mockMvc.perform(get("/images/Tagalog/background.jpg").header("Range", "bytes=6-"))
+            .andExpect(status().isPartialContent())
+            .andExpect(header().string("Content-Range", "bytes 6-9/10"))
+            .andExpect(content().bytes("6789".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void testInvalidVariantIsBadRequest() throws Exception {
+        mockMvc.perform(get("/images/Tagalog/background.jpg").param("w", "-5"))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/images/Tagalog/background.jpg").param("format", "gif"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testStoreSideErrorIsNotBlamedOnClient() throws Exception {
+        mockMvc.perform(get("/images/Tagalog/broken.jpg"))
+            .andExpect(result -> assertThat(result.getResponse().getStatus()).isNotEqualTo(400));
+    }
+
+    @Test
+    public void testSaturatedStoreOnCacheMissIsServiceUnavailable() throws Exception {
+        // A real BlobService whose only blob I/O permit is held, with the metadata already cached,
+        // so the download only starts while the body is written
+        BlobMetadata metadata = new BlobMetadata("Ilocano/background.jpg", CONTENT.length, "image/jpeg", ETAG, LAST_MODIFIED);
+        BlobStore blobStore = mock(BlobStore.class);
+        when(blobStore.download(metadata)).thenReturn(CONTENT);
+        BlobMetadataCache metadataCache = new BlobMetadataCache(Duration.ofMinutes(10), Duration.ofSeconds(30), 100);
+        metadataCache.putPresent(metadata);
+        BlobIoExecutor blobIo = new BlobIoExecutor(1, Duration.ofMillis(50), Duration.ofSeconds(5));
+        BlobService blobService = new BlobService(blobStore, new BlobCache(new LocalBlobCache(1024), null), metadataCache,
+            new ContentManifest(null, Duration.ofHours(1)), blobIo);
+
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = Thread.ofVirtual().start(() -> blobIo.call("hold", () -> release.await(5, TimeUnit.SECONDS)));
+        try {
+            while (blobIo.snapshot().active() == 0) {
+                Thread.onSpinWait();
+            }
+            LanguageContentController controller = new LanguageContentController();
+            ReflectionTestUtils.setField(controller, "blobService", blobService);
+            ReflectionTestUtils.setField(controller, "imageCacheControl", "public, max-age=86400");
+
+            MockMvcBuilders.standaloneSetup(controller).build()
+                .perform(get("/images/Ilocano/background.jpg"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(header().doesNotExist("ETag"))
+                .andExpect(content().bytes(new byte[0]));
+        } finally {
+            release.countDown();
+            holder.join();
+        }
+    }
+}
@@ -1,16 +1,22 @@
 package com.gabrielrochon.languagecontent;
 
+import com.gabrielrochon.languagecontent.export.CorpusExportService;
 import com.gabrielrochon.languagecontent.language.Language;
+import com.gabrielrochon.languagecontent.language.LanguageDto;
 import com.gabrielrochon.languagecontent.language.LanguageService;
 import com.gabrielrochon.languagecontent.module.Module;
+import com.gabrielrochon.languagecontent.module.ModuleDto;
 import com.gabrielrochon.languagecontent.module.ModuleService;
 import com.gabrielrochon.languagecontent.sentence.Sentence;
+import com.gabrielrochon.languagecontent.sentence.SentenceDto;
 import com.gabrielrochon.languagecontent.sentence.SentenceService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.TestPropertySource;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -21,6 +27,7 @@ import static org.assertj.core.api.Assertions.assertThat;
     "spring.datasource.driver-class-name=org.h2.Driver",
     "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
     "spring.cache.type=none",
+    "cache.warmup.enabled=false",
     "azure.storage.account-name=test",
     "azure.storage.account-key=test",
     "azure.storage.container-name=test",
@@ -38,6 +45,9 @@ public class LanguageContentControllerTest {
     @Autowired
     private SentenceService sentenceService;
 
+    @Autowired
+    private CorpusExportService corpusExportService;
+
     @Test
     public void testAddLanguage() {
         // Arrange
@@ -55,19 +65,19 @@ public class LanguageContentControllerTest {
     @Test
     public void testGetAllLanguages() {
         // Arrange
-        Language newLanguage1 = new Language("Tagalog");
+        Language newLanguage1 = new Language("Ivatan");
         Language newLanguage2 = new Language("English");
         languageService.addLanguage(newLanguage1);
         languageService.addLanguage(newLanguage2);
 
         // Act
-        List<Language> languages = languageService.getAllLanguages();
+        List<LanguageDto> languages = languageService.getAllLanguages();
 
         // Assert
         assertThat(languages).isNotEmpty();
-        assertThat(languages.stream().anyMatch(l -> "Tagalog".equals(l.getName()))).isTrue();
-        assertThat(languages.stream().anyMatch(l -> "English".equals(l.getName()))).isTrue();
-        assertThat(languages.stream().anyMatch(l -> "Spanish".equals(l.getName()))).isFalse();
+        assertThat(languages.stream().anyMatch(l -> "Ivatan".equals(l.name()))).isTrue();
+        assertThat(languages.stream().anyMatch(l -> "English".equals(l.name()))).isTrue();
+        assertThat(languages.stream().anyMatch(l -> "Spanish".equals(l.name()))).isFalse();
     }
 
     @Test
@@ -80,14 +90,14 @@ public class LanguageContentControllerTest {
         languageService.deleteLanguage(savedLanguage.getId());
 
         // Assert
-        List<Language> languages = languageService.getAllLanguages();
-        assertThat(languages.stream().noneMatch(l -> "Spanish".equals(l.getName()))).isTrue();
+        List<LanguageDto> languages = languageService.getAllLanguages();
+        assertThat(languages.stream().noneMatch(l -> "Spanish".equals(l.name()))).isTrue();
     }
 
     @Test
     public void testGetModulesByLanguageId() {
         // Arrange
-        Language newLanguage = new Language("Tagalog");
+        Language newLanguage = new Language("Yakan");
         Language savedLanguage = languageService.addLanguage(newLanguage);
 
         Module module1 = new Module(savedLanguage, "Basic Greetings");
@@ -96,19 +106,19 @@ public class LanguageContentControllerTest {
         moduleService.addModule(module2);
 
         // Act
-        List<Module> modules = moduleService.getModulesByLanguageId(savedLanguage.getId());
+        List<ModuleDto> modules = moduleService.getModulesByLanguageId(savedLanguage.getId());
 
         // Assert
         assertThat(modules).isNotEmpty();
         assertThat(modules.size()).isEqualTo(2);
-        assertThat(modules.stream().anyMatch(m -> "Basic Greetings".equals(m.getName()))).isTrue();
-        assertThat(modules.stream().anyMatch(m -> "Food Vocabulary".equals(m.getName()))).isTrue();
+        assertThat(modules.stream().anyMatch(m -> "Basic Greetings".equals(m.name()))).isTrue();
+        assertThat(modules.stream().anyMatch(m -> "Food Vocabulary".equals(m.name()))).isTrue();
     }
 
     @Test
     public void testAddModule() {
         // Arrange
-        Language newLanguage = new Language("Tagalog");
+        Language newLanguage = new Language("Tausug");
         Language savedLanguage = languageService.addLanguage(newLanguage);
 
         Module newModule = new Module(savedLanguage, "Basic Vocabulary");
@@ -120,13 +130,13 @@ public class LanguageContentControllerTest {
         assertThat(savedModule).isNotNull();
         assertThat(savedModule.getName()).isEqualTo("Basic Vocabulary");
         assertThat(savedModule.getId()).isNotNull();
-        assertThat(savedModule.getLanguage().getName()).isEqualTo("Tagalog");
+        assertThat(savedModule.getLanguage().getName()).isEqualTo("Tausug");
     }
 
     @Test
     public void testDeleteModule() {
         // Arrange
-        Language newLanguage = new Language("Tagalog");
+        Language newLanguage = new Language("Sambal");
         Language savedLanguage = languageService.addLanguage(newLanguage);
 
         Module newModule = new Module(savedLanguage, "Basic Phrases");
@@ -136,14 +146,14 @@ public class LanguageContentControllerTest {
         moduleService.deleteModule(savedModule.getId());
 
         // Assert
-        List<Module> modules = moduleService.getModulesByLanguageId(savedLanguage.getId());
-        assertThat(modules.stream().noneMatch(m -> "Basic Phrases".equals(m.getName()))).isTrue();
+        List<ModuleDto> modules = moduleService.getModulesByLanguageId(savedLanguage.getId());
+        assertThat(modules.stream().noneMatch(m -> "Basic Phrases".equals(m.name()))).isTrue();
     }
 
     @Test
     public void testAddSentence() {
         // Arrange
-        Language newLanguage = new Language("Tagalog");
+        Language newLanguage = new Language("Itawis");
         Language savedLanguage = languageService.addLanguage(newLanguage);
 
         Module newModule = new Module(savedLanguage, "Greetings");
@@ -166,7 +176,7 @@ public class LanguageContentControllerTest {
     @Test
     public void testDeleteSentence() {
         // Arrange
-        Language newLanguage = new Language("Tagalog");
+        Language newLanguage = new Language("Kinaray-a");
         Language savedLanguage = languageService.addLanguage(newLanguage);
 
         Module newModule = new Module(savedLanguage, "Polite Expressions");
@@ -179,7 +189,30 @@ public class LanguageContentControllerTest {
         sentenceService.deleteSentence(savedSentence.getId());
 
         // Assert
-        List<Sentence> sentences = sentenceService.getSentencesByModuleId(savedModule.getId());
-        assertThat(sentences.stream().noneMatch(s -> "Salamat".equals(s.getLearningText()))).isTrue();
+        List<SentenceDto> sentences = sentenceService.getSentencesByModuleId(savedModule.getId());
+        assertThat(sentences.stream().noneMatch(s -> "Salamat".equals(s.learningText()))).isTrue();
+    }
+
+    @Test
+    public void testExportLanguage() throws Exception {
+        // Arrange
+        Language savedLanguage = languageService.addLanguage(new Language("Chavacano"));
+        Module greetings = moduleService.addModule(new Module(savedLanguage, "Greetings"));
+        moduleService.addModule(new Module(savedLanguage, "Empty"));
+        sentenceService.addSentence(new Sentence(greetings, 2, "Buenas tardes", "Good \"afternoon\"", 2));
+        sentenceService.addSentence(new Sentence(greetings, 1, "Buenas dias", "Good morning", 1));
+
+        // Act
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long exported = corpusExportService.export(savedLanguage.getId(), out);
+
+        // Assert
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(exported).isEqualTo(2);
+        assertThat(lines).hasSize(5);
+        assertThat(lines.get(0)).startsWith("{\"type\":\"language\"").contains("\"name\":\"Chavacano\"");
+        assertThat(lines.subList(1, 3)).allMatch(line -> line.startsWith("{\"type\":\"module\""));
+        assertThat(lines.get(3)).contains("\"position\":1").contains("\"moduleId\":" + greetings.getId());
+        assertThat(lines.get(4)).contains("\"translationText\":\"Good \\\"afternoon\\\"\"");
     }
 }
@@ -0,0 +1,132 @@
+package com.gabrielrochon.languagecontent;
+
+import com.gabrielrochon.languagecontent.language.Language;
+import com.gabrielrochon.languagecontent.language.LanguageService;
+import com.gabrielrochon.languagecontent.module.Module;
+import com.gabrielrochon.languagecontent.module.ModuleService;
+import com.gabrielrochon.languagecontent.sentence.Sentence;
+import com.gabrielrochon.languagecontent.sentence.SentenceService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Counts the SQL statements of the read endpoints, with caching off so every request
+ * reaches the database: each endpoint runs exactly one, whatever the number of rows.
+ */
+@SpringBootTest
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:readquerycounttest",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "spring.cache.type=none",
+    "cache.warmup.enabled=false",
+    "azure.storage.account-name=test",
+    "azure.storage.account-key=test",
+    "azure.storage.container-name=test",
+    "spring.data.redis.host=localhost",
+    "spring.data.redis.port=6379"
+})
+public class ReadQueryCountTest {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private LanguageService languageService;
+
+    @Autowired
+    private ModuleService moduleService;
+
+    @Autowired
+    private SentenceService sentenceService;
+
+    private MockMvc mockMvc;
+
+    private Statistics statistics;
+
+    // Created once: the context, and its in-memory database, is shared by the tests of this class
+    private static Module greetings;
+
+    @BeforeEach
+    public void setup() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (greetings != null) {
+            return;
+        }
+        Language maranao = languageService.addLanguage(new Language("Maranao"));
+        greetings = moduleService.addModule(new Module(maranao, "Greetings"));
+        moduleService.addModule(new Module(maranao, "Numbers"));
+        for (int position = 1; position <= 5; position++) {
+            sentenceService.addSentence(new Sentence(greetings, position, "Sentence " + position, "Translation " + position, 1));
+        }
+    }
+
+    @Test
+    public void testLanguagesTakeOneStatement() throws Exception {
+        assertStatements(1, "/languages");
+        assertStatements(1, "/languages/Maranao");
+    }
+
+    @Test
+    public void testModulesTakeOneStatement() throws Exception {
+        statistics.clear();
+        mockMvc.perform(get("/languages/Maranao/modules"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$[0].languageId").isNumber());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testSentencePageTakesOneStatement() throws Exception {
+        statistics.clear();
+        mockMvc.perform(get("/modules/" + greetings.getId() + "/sentences?size=3"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.sentences.length()").value(3))
+            .andExpect(jsonPath("$.sentences[0].moduleId").value(greetings.getId()));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testLessonTakesOneStatement() throws Exception {
+        statistics.clear();
+        mockMvc.perform(get("/languages/Maranao/modules/Greetings/lesson"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.language.name").value("Maranao"))
+            .andExpect(jsonPath("$.module.name").value("Greetings"))
+            .andExpect(jsonPath("$.sentences.length()").value(5));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        // A module without sentences still has a lesson
+        statistics.clear();
+        mockMvc.perform(get("/languages/Maranao/modules/Numbers/lesson"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.sentences.length()").value(0));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    private void assertStatements(long expected, String uri) throws Exception {
+        statistics.clear();
+        mockMvc.perform(get(uri)).andExpect(status().isOk());
+        assertThat(statistics.getPrepareStatementCount()).as(uri).isEqualTo(expected);
+    }
+}
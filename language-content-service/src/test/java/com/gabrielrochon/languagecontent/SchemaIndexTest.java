@@ -0,0 +1,198 @@
+package com.gabrielrochon.languagecontent;
+
+import com.gabrielrochon.languagecontent.language.LanguageRepository;
+import com.gabrielrochon.languagecontent.module.ModuleRepository;
+import com.gabrielrochon.languagecontent.sentence.SentenceRepository;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the schema built by the Flyway migrations against the SQL that Hibernate issues for
+ * the hot repository lookups: each statement is captured by a StatementInspector as the
+ * repository method runs, then planned by H2 as index lookups, never as a scan of a whole table.
+ * H2 prints the access path of each table in its plan, as tableScan or as the index used.
+ * The keyset index of V4 only exists on PostgreSQL, so for it the keyset statements are checked
+ * to filter and order by exactly the columns of the index instead.
+ */
+@SpringBootTest
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:schemaindextest",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.gabrielrochon.languagecontent.SchemaIndexTest$RecordingStatementInspector",
+    "spring.cache.type=none",
+    "cache.warmup.enabled=false",
+    "azure.storage.account-name=test",
+    "azure.storage.account-key=test",
+    "azure.storage.container-name=test",
+    "spring.data.redis.host=localhost",
+    "spring.data.redis.port=6379"
+})
+public class SchemaIndexTest {
+
+    private static final String KEYSET_INDEX = "db/migration/postgresql/V4__sentence_keyset_index.sql";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private LanguageRepository languageRepository;
+
+    @Autowired
+    private ModuleRepository moduleRepository;
+
+    @Autowired
+    private SentenceRepository sentenceRepository;
+
+    @Test
+    public void testLanguageByNameUsesUniqueIndex() {
+        String sql = captureSql(() -> languageRepository.findDtoByName("Tagalog"));
+
+        assertThat(plan(sql, "Tagalog"))
+            .contains("UK_LANGUAGE_NAME")
+            .doesNotContain("tableScan");
+    }
+
+    @Test
+    public void testModulesOfLanguageUseIndex() {
+        String sql = captureSql(() -> moduleRepository.findDtosByLanguageName("Tagalog"));
+
+        assertThat(plan(sql, "Tagalog")).doesNotContain("tableScan");
+    }
+
+    @Test
+    public void testSentencePagesUseIndex() {
+        String firstPage = captureSql(() -> sentenceRepository.findFirstPage(1L, Limit.of(51)));
+        String pageAfter = captureSql(() -> sentenceRepository.findPageAfter(1L, 50, 1234L, Limit.of(51)));
+
+        assertThat(plan(firstPage, 1L, 51)).doesNotContain("tableScan");
+        // The position is bound once per occurrence in the keyset condition
+        assertThat(plan(pageAfter, 1L, 50, 50, 1234L, 51)).doesNotContain("tableScan");
+    }
+
+    @Test
+    public void testSentencePagesMatchKeysetIndex() throws IOException {
+        List<String> indexColumns = keysetIndexColumns();
+
+        for (String sql : List.of(
+            captureSql(() -> sentenceRepository.findFirstPage(1L, Limit.of(51))),
+            captureSql(() -> sentenceRepository.findPageAfter(1L, 50, 1234L, Limit.of(51))))) {
+            String normalized = withoutAliases(sql);
+            // Equality on the leading column, then the order of the remaining ones
+            assertThat(normalized).contains("where" + indexColumns.get(0) + "=?");
+            assertThat(orderBy(normalized)).isEqualTo(indexColumns.subList(1, indexColumns.size()));
+        }
+    }
+
+    @Test
+    public void testLessonUsesIndexes() {
+        String sql = captureSql(() -> moduleRepository.findLessonRows("Tagalog", "Greetings"));
+
+        assertThat(plan(sql, "Tagalog", "Greetings")).doesNotContain("tableScan");
+    }
+
+    @Test
+    public void testCompositeIndexesExist() {
+        // H2 also indexes foreign keys by itself, so the plans alone do not prove these exist
+        assertThat(indexColumns("IDX_MODULE_LANGUAGE_NAME")).containsExactly("LANGUAGE_ID", "NAME");
+        assertThat(indexColumns("IDX_SENTENCE_MODULE_POSITION")).containsExactly("MODULE_ID", "POSITION");
+    }
+
+    private List<String> indexColumns(String indexName) {
+        return jdbcTemplate.queryForList("select column_name from information_schema.index_columns"
+            + " where index_name = ? order by ordinal_position", String.class, indexName);
+    }
+
+    // Runs one repository method and returns the single statement Hibernate issued for it
+    private static String captureSql(Runnable query) {
+        RecordingStatementInspector.STATEMENTS.clear();
+        query.run();
+        assertThat(RecordingStatementInspector.STATEMENTS).hasSize(1);
+        return RecordingStatementInspector.STATEMENTS.get(0);
+    }
+
+    // Plans the statement with its parameters bound in order, typed as the repository binds them
+    private String plan(String sql, Object... parameters) {
+        assertThat(sql.chars().filter(c -> c == '?').count())
+            .as("parameters of %s", sql)
+            .isEqualTo(parameters.length);
+        return jdbcTemplate.queryForObject("explain " + sql, String.class, parameters);
+    }
+
+    // The columns of the V4 index, e.g. [module_id, coalesce(position,0), id]
+    private static List<String> keysetIndexColumns() throws IOException {
+        String migration = new ClassPathResource(KEYSET_INDEX).getContentAsString(StandardCharsets.UTF_8);
+        String definition = migration.substring(migration.indexOf("on sentence"));
+        definition = definition.substring(definition.indexOf('(') + 1, definition.lastIndexOf(')'));
+        List<String> columns = new ArrayList<>();
+        for (String column : splitTopLevel(definition.replaceAll("\\s", ""))) {
+            // An expression is parenthesized in an index definition, but not in an order by
+            columns.add(column.startsWith("(") ? column.substring(1, column.length() - 1) : column);
+        }
+        return columns;
+    }
+
+    private static String withoutAliases(String sql) {
+        return sql.replaceAll("\\b\\w+_\\d+\\.", "").replaceAll("\\s", "");
+    }
+
+    private static List<String> orderBy(String normalized) {
+        String orderBy = normalized.substring(normalized.indexOf("orderby") + "orderby".length());
+        for (String end : List.of("fetch", "offset", "limit")) {
+            int index = orderBy.indexOf(end);
+            if (index >= 0) {
+                orderBy = orderBy.substring(0, index);
+            }
+        }
+        return splitTopLevel(orderBy);
+    }
+
+    // Splits on the commas that are not inside parentheses
+    private static List<String> splitTopLevel(String list) {
+        List<String> parts = new ArrayList<>();
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i < list.length(); i++) {
+            char c = list.charAt(i);
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == ',' && depth == 0) {
+                parts.add(list.substring(start, i));
+                start = i + 1;
+            }
+        }
+        parts.add(list.substring(start));
+        return parts;
+    }
+
+    /**
+     * Records the SQL of every statement Hibernate prepares, unchanged.
+     */
+    public static class RecordingStatementInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
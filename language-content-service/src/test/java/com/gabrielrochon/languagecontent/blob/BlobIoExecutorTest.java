@@ -0,0 +1,98 @@
+package com.gabrielrochon.languagecontent.blob;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit test for the bounded blob I/O executor: slow calls time out, a saturated store
+ * rejects callers quickly, and failures of the call itself are passed through.
+ */
+public class BlobIoExecutorTest {
+
+    @Test
+    public void testSlowCallTimesOutAndKeepsItsPermitUntilItReturns() throws Exception {
+        BlobIoExecutor blobIo = new BlobIoExecutor(1, Duration.ofMillis(50), Duration.ofMillis(100));
+        CountDownLatch release = new CountDownLatch(1);
+
+        // The stuck call ignores interruption, like a blocked socket read
+        assertThatThrownBy(() -> blobIo.call("stuck download", () -> {
+            while (release.getCount() > 0) {
+                Thread.onSpinWait();
+            }
+            return "late";
+        })).isInstanceOf(BlobUnavailableException.class);
+        assertThat(blobIo.snapshot().timedOut()).isEqualTo(1);
+        assertThat(blobIo.snapshot().active()).isEqualTo(1);
+
+        // The only permit is still held, so the next caller is rejected after the acquire timeout
+        assertThatThrownBy(() -> blobIo.call("metadata", () -> "value"))
+            .isInstanceOf(BlobUnavailableException.class);
+        assertThat(blobIo.snapshot().rejected()).isEqualTo(1);
+
+        release.countDown();
+        awaitIdle(blobIo);
+        assertThat(blobIo.call("metadata", () -> "value")).isEqualTo("value");
+    }
+
+    @Test
+    public void testConcurrencyIsBounded() throws Exception {
+        int limit = 3;
+        BlobIoExecutor blobIo = new BlobIoExecutor(limit, Duration.ofSeconds(5), Duration.ofSeconds(5));
+        CountDownLatch running = new CountDownLatch(limit);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService callers = Executors.newFixedThreadPool(limit + 2);
+        try {
+            for (int i = 0; i < limit + 2; i++) {
+                callers.submit(() -> blobIo.call("download", () -> {
+                    running.countDown();
+                    release.await();
+                    return null;
+                }));
+            }
+            assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+            awaitWaiting(blobIo, 2);
+            assertThat(blobIo.snapshot().active()).isEqualTo(limit);
+
+            release.countDown();
+            callers.shutdown();
+            assertThat(callers.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            callers.shutdownNow();
+        }
+        assertThat(blobIo.snapshot().completed()).isEqualTo(limit + 2);
+        assertThat(blobIo.snapshot().rejected()).isZero();
+    }
+
+    @Test
+    public void testCallFailuresArePassedThrough() {
+        BlobIoExecutor blobIo = new BlobIoExecutor(1, Duration.ofSeconds(1), Duration.ofSeconds(1));
+
+        assertThatThrownBy(() -> blobIo.call("metadata", () -> {
+            throw new BlobNotFoundException("Klingon/background.jpg");
+        })).isInstanceOf(BlobNotFoundException.class);
+        assertThat(blobIo.snapshot().active()).isZero();
+    }
+
+    private static void awaitIdle(BlobIoExecutor blobIo) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (blobIo.snapshot().active() > 0 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private static void awaitWaiting(BlobIoExecutor blobIo, int expected) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (blobIo.snapshot().waiting() < expected && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.gabrielrochon.languagecontent.blob;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit test for the TTLs of positive and negative blob metadata entries.
+ */
+public class BlobMetadataCacheTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private final BlobMetadataCache cache = new BlobMetadataCache(Duration.ofMinutes(10), Duration.ofSeconds(30), 100, clock::get);
+
+    @Test
+    public void testNegativeEntriesExpireBeforePositiveOnes() {
+        cache.putPresent(new BlobMetadata("Tagalog/background.jpg", 10, "image/jpeg", "\"etag\"", null));
+        cache.putMissing("Klingon/background.jpg");
+
+        assertThat(cache.get("Tagalog/background.jpg").exists()).isTrue();
+        assertThat(cache.get("Klingon/background.jpg").exists()).isFalse();
+
+        clock.addAndGet(Duration.ofSeconds(31).toNanos());
+        assertThat(cache.get("Klingon/background.jpg")).isNull();
+        assertThat(cache.get("Tagalog/background.jpg")).isNotNull();
+
+        clock.addAndGet(Duration.ofMinutes(10).toNanos());
+        assertThat(cache.get("Tagalog/background.jpg")).isNull();
+    }
+
+    @Test
+    public void testEntryCountIsBounded() {
+        BlobMetadataCache small = new BlobMetadataCache(Duration.ofMinutes(10), Duration.ofSeconds(30), 2, clock::get);
+        small.putMissing("a");
+        small.putMissing("b");
+        small.putMissing("c");
+
+        int remaining = 0;
+        for (String name : new String[] {"a", "b", "c"}) {
+            if (small.get(name) != null) {
+                remaining++;
+            }
+        }
+        assertThat(remaining).isEqualTo(2);
+        assertThat(small.get("c")).isNotNull();
+    }
+}
@@ -0,0 +1,306 @@
+package com.gabrielrochon.languagecontent.blob;
+
+import com.azure.storage.blob.models.BlobProperties;
+import com.azure.storage.blob.models.BlobStorageException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit test for BlobService caching behavior over the Azure blob store.
+ * This test verifies that blob downloads come from Azure on first call and from cache on second call.
+ */
+@ExtendWith(MockitoExtension.class)
+public class BlobServiceTest {
+
+    @Mock
+    private com.azure.storage.blob.BlobContainerClient containerClient;
+
+    @Mock
+    private com.azure.storage.blob.BlobClient blobClient;
+
+    @Test
+    public void testBlobDownloadCaching() throws Exception {
+        // Setup
+        String blobName = "test-image.jpg";
+        byte[] expectedData = "fake image data".getBytes();
+        stubBlob(blobName, expectedData);
+
+        BlobService service = newService(new BlobCache(new LocalBlobCache(1024), null));
+
+        // First call - hits Azure
+        byte[] result1 = service.downloadBlob(blobName);
+        verify(blobClient, times(1)).downloadStreamWithResponse(any(OutputStream.class), any(), any(), any(), anyBoolean(), any(), any());
+        assertThat(result1).isEqualTo(expectedData);
+
+        // Second call - from cache, Azure is never reached
+        clearInvocations(containerClient, blobClient);
+        byte[] result2 = service.downloadBlob(blobName);
+        verifyNoInteractions(containerClient, blobClient);
+        assertThat(result2).isEqualTo(expectedData);
+    }
+
+    @Test
+    public void testImageResourceCaching() throws Exception {
+        // Setup
+        String blobName = "Tagalog/background.jpg";
+        byte[] expectedData = "fake background".getBytes();
+        stubBlob(blobName, expectedData);
+
+        BlobService service = newService(new BlobCache(new LocalBlobCache(1024), null));
+
+        // First request - metadata and content come from Azure
+        BlobResource first = service.getBlobResource(blobName);
+        assertThat(first.getContentAsByteArray()).isEqualTo(expectedData);
+        assertThat(first.contentLength()).isEqualTo(expectedData.length);
+
+        // Repeat request - served with its metadata from the in-process tier
+        clearInvocations(containerClient, blobClient);
+        BlobResource second = service.getBlobResource(blobName);
+        verifyNoInteractions(containerClient, blobClient);
+        assertThat(second.getContentAsByteArray()).isEqualTo(expectedData);
+        assertThat(second.getMetadata().contentType()).isEqualTo("image/jpeg");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRedisTierServesOtherInstances() throws Exception {
+        // Setup - a Redis tier shared by two service instances with their own in-process tiers
+        String blobName = "Tagalog/background.jpg";
+        byte[] expectedData = "fake background".getBytes();
+        stubBlob(blobName, expectedData);
+
+        Map<String, byte[]> redis = new HashMap<>();
+        RedisTemplate<String, byte[]> redisTemplate = mock(RedisTemplate.class);
+        ValueOperations<String, byte[]> valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        doAnswer(invocation -> redis.put(invocation.getArgument(0), invocation.getArgument(1)))
+            .when(valueOperations).set(anyString(), any(byte[].class), any(Duration.class));
+        when(valueOperations.get(anyString())).thenAnswer(invocation -> redis.get(invocation.getArgument(0)));
+
+        RedisBlobCache redisTier = new RedisBlobCache(redisTemplate, Duration.ofHours(1));
+        BlobService first = newService(new BlobCache(new LocalBlobCache(1024), redisTier),
+            new ContentManifest(redisTemplate, Duration.ofHours(1)));
+        BlobService second = newService(new BlobCache(new LocalBlobCache(1024), redisTier),
+            new ContentManifest(redisTemplate, Duration.ofHours(1)));
+
+        first.getBlobResource(blobName).getContentAsByteArray();
+
+        // Second instance misses locally but finds the raw bytes in Redis
+        clearInvocations(containerClient, blobClient);
+        BlobResource resource = second.getBlobResource(blobName);
+        verifyNoInteractions(containerClient, blobClient);
+        assertThat(resource.getContentAsByteArray()).isEqualTo(expectedData);
+        assertThat(resource.getMetadata().eTag()).isEqualTo("\"0x8D1\"");
+        assertThat(redisTier.getStats().snapshot().hits()).isEqualTo(1);
+    }
+
+    private void stubBlob(String blobName, byte[] data) {
+        BlobProperties properties = mock(BlobProperties.class);
+        when(properties.getBlobSize()).thenReturn((long) data.length);
+        when(properties.getContentType()).thenReturn("image/jpeg");
+        when(properties.getETag()).thenReturn("\"0x8D1\"");
+        when(properties.getLastModified()).thenReturn(OffsetDateTime.now());
+
+        when(containerClient.getBlobClient(blobName)).thenReturn(blobClient);
+        when(blobClient.getProperties()).thenReturn(properties);
+        lenient().doAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(0);
+            outputStream.write(data);
+            return null;
+        }).when(blobClient).downloadStreamWithResponse(any(OutputStream.class), any(), any(), any(), anyBoolean(), any(), any());
+    }
+
+    @Test
+    public void testBlobExistsCaching() throws Exception {
+        // Setup
+        String blobName = "test-document.pdf";
+        stubBlob(blobName, new byte[0]);
+
+        BlobService service = newService(new BlobCache(new LocalBlobCache(1024), null));
+
+        // First call - hits Azure
+        boolean result1 = service.blobExists(blobName);
+        verify(blobClient, times(1)).getProperties();
+        assertThat(result1).isTrue();
+
+        // Second call - from the metadata cache
+        boolean result2 = service.blobExists(blobName);
+        verify(blobClient, times(1)).getProperties(); // Still 1 call
+        assertThat(result2).isTrue();
+    }
+
+    @Test
+    public void testMissingBlobIsNegativelyCached() {
+        // Setup
+        String blobName = "Klingon/background.jpg";
+        BlobStorageException notFound = mock(BlobStorageException.class);
+        when(notFound.getStatusCode()).thenReturn(404);
+        when(containerClient.getBlobClient(blobName)).thenReturn(blobClient);
+        when(blobClient.getProperties()).thenThrow(notFound);
+
+        BlobService service = newService(new BlobCache(new LocalBlobCache(1024), null));
+
+        // First request - Azure reports the blob as missing
+        assertThatThrownBy(() -> service.getBlobResource(blobName)).isInstanceOf(BlobNotFoundException.class);
+
+        // Repeat 404s and existence checks are answered without any remote call
+        clearInvocations(containerClient, blobClient);
+        assertThatThrownBy(() -> service.getBlobResource(blobName)).isInstanceOf(BlobNotFoundException.class);
+        assertThat(service.blobExists(blobName)).isFalse();
+        verifyNoInteractions(containerClient, blobClient);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testMissingBlobCostsNoManifestRead() {
+        // Setup - a manifest shared through Redis
+        String blobName = "Klingon/background.jpg";
+        BlobStorageException notFound = mock(BlobStorageException.class);
+        when(notFound.getStatusCode()).thenReturn(404);
+        when(containerClient.getBlobClient(blobName)).thenReturn(blobClient);
+        when(blobClient.getProperties()).thenThrow(notFound);
+        RedisTemplate<String, byte[]> redisTemplate = mock(RedisTemplate.class);
+        ValueOperations<String, byte[]> valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+
+        BlobService service = newService(new BlobCache(new LocalBlobCache(1024), null),
+            new ContentManifest(redisTemplate, Duration.ofHours(1)));
+        assertThatThrownBy(() -> service.getBlobResource(blobName)).isInstanceOf(BlobNotFoundException.class);
+
+        // Repeat 404s are answered from the negative metadata entry, without reading the manifest
+        clearInvocations(redisTemplate, valueOperations);
+        assertThatThrownBy(() -> service.getBlobResource(blobName)).isInstanceOf(BlobNotFoundException.class);
+        verifyNoInteractions(redisTemplate, valueOperations);
+    }
+
+    @Test
+    public void testIdenticalPayloadsAreCachedOnce() throws Exception {
+        // Setup - two languages reuse the same artwork under different names
+        byte[] artwork = "shared artwork".getBytes();
+        com.azure.storage.blob.BlobClient otherBlobClient = mock(com.azure.storage.blob.BlobClient.class);
+        stubBlob("Tagalog/background.jpg", artwork);
+        BlobProperties otherProperties = mock(BlobProperties.class);
+        when(otherProperties.getBlobSize()).thenReturn((long) artwork.length);
+        when(otherProperties.getETag()).thenReturn("\"0x8D2\"");
+        when(containerClient.getBlobClient("Cebuano/background.jpg")).thenReturn(otherBlobClient);
+        when(otherBlobClient.getProperties()).thenReturn(otherProperties);
+        doAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(0);
+            outputStream.write(artwork);
+            return null;
+        }).when(otherBlobClient).downloadStreamWithResponse(any(OutputStream.class), any(), any(), any(), anyBoolean(), any(), any());
+
+        LocalBlobCache localTier = new LocalBlobCache(1024);
+        ContentManifest manifest = new ContentManifest(null, Duration.ofHours(1));
+        BlobService service = newService(new BlobCache(localTier, null), manifest);
+
+        BlobResource first = service.getBlobResource("Tagalog/background.jpg");
+        first.getContentAsByteArray();
+        BlobResource second = service.getBlobResource("Cebuano/background.jpg");
+        second.getContentAsByteArray();
+
+        // The payload is stored once and each name keeps the ETag of its first response
+        assertThat(localTier.getCurrentBytes()).isEqualTo(artwork.length);
+        assertThat(manifest.snapshot().deduplicated()).isEqualTo(1);
+        assertThat(first.getMetadata().strongETag()).isEqualTo("\"0x8D1\"");
+        assertThat(service.getBlobResource("Tagalog/background.jpg").getMetadata().strongETag()).isEqualTo("\"0x8D1\"");
+        assertThat(service.getBlobResource("Cebuano/background.jpg").getMetadata().strongETag()).isEqualTo("\"0x8D2\"");
+    }
+
+    @Test
+    public void testBlobOverwrittenDuringDownloadIsFetchedAgain() {
+        // Setup - the blob is overwritten between the metadata read and the download
+        String blobName = "Tagalog/background.jpg";
+        byte[] replacement = "replacement background".getBytes();
+        BlobProperties original = mock(BlobProperties.class);
+        when(original.getBlobSize()).thenReturn(19L);
+        when(original.getETag()).thenReturn("\"0x8D1\"");
+        BlobProperties replaced = mock(BlobProperties.class);
+        when(replaced.getBlobSize()).thenReturn((long) replacement.length);
+        when(replaced.getContentType()).thenReturn("image/jpeg");
+        when(replaced.getETag()).thenReturn("\"0x8D9\"");
+        when(containerClient.getBlobClient(blobName)).thenReturn(blobClient);
+        when(blobClient.getProperties()).thenReturn(original, replaced);
+        BlobStorageException preconditionFailed = mock(BlobStorageException.class);
+        when(preconditionFailed.getStatusCode()).thenReturn(412);
+        doAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(0);
+            outputStream.write(replacement);
+            return null;
+        }).when(blobClient).downloadStreamWithResponse(any(OutputStream.class), any(), any(), any(), anyBoolean(), any(), any());
+        doThrow(preconditionFailed).when(blobClient).downloadStreamWithResponse(any(OutputStream.class), any(), any(),
+            argThat(conditions -> conditions != null && "\"0x8D1\"".equals(conditions.getIfMatch())), anyBoolean(), any(), any());
+
+        BlobService service = newService(new BlobCache(new LocalBlobCache(1024), null));
+        CachedBlob blob = service.fetchBlob(blobName);
+
+        // The new content is cached under the new ETag, never under the old one
+        assertThat(blob.content()).isEqualTo(replacement);
+        assertThat(blob.metadata().eTag()).isEqualTo("\"0x8D9\"");
+        assertThat(blob.metadata().size()).isEqualTo(replacement.length);
+    }
+
+    @Test
+    public void testOverwrittenBlobIsServedOnceMetadataExpires() throws Exception {
+        // Setup - a metadata cache on a clock the test moves forward
+        String blobName = "Tagalog/background.jpg";
+        byte[] original = "original background".getBytes();
+        byte[] replacement = "replacement background".getBytes();
+        stubBlob(blobName, original);
+        AtomicLong clock = new AtomicLong();
+        BlobMetadataCache metadataCache = new BlobMetadataCache(Duration.ofMinutes(10), Duration.ofSeconds(30), 100, clock::get);
+        BlobService service = newService(new BlobCache(new LocalBlobCache(1024), null),
+            new ContentManifest(null, Duration.ofHours(1)), metadataCache);
+        assertThat(service.getBlobResource(blobName).getContentAsByteArray()).isEqualTo(original);
+
+        // The blob is overwritten in the store; within the TTL the cached version is still served
+        BlobProperties replaced = mock(BlobProperties.class);
+        when(replaced.getBlobSize()).thenReturn((long) replacement.length);
+        when(replaced.getContentType()).thenReturn("image/jpeg");
+        when(replaced.getETag()).thenReturn("\"0x8D9\"");
+        when(replaced.getLastModified()).thenReturn(OffsetDateTime.now());
+        when(blobClient.getProperties()).thenReturn(replaced);
+        doAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(0);
+            outputStream.write(replacement);
+            return null;
+        }).when(blobClient).downloadStreamWithResponse(any(OutputStream.class), any(), any(), any(), anyBoolean(), any(), any());
+        assertThat(service.getBlobResource(blobName).getContentAsByteArray()).isEqualTo(original);
+
+        // Past the TTL the store is asked again and the new version replaces the cached one
+        clock.addAndGet(Duration.ofMinutes(11).toNanos());
+        BlobResource resource = service.getBlobResource(blobName);
+        assertThat(resource.getContentAsByteArray()).isEqualTo(replacement);
+        assertThat(resource.getMetadata().eTag()).isEqualTo("\"0x8D9\"");
+    }
+
+    private BlobService newService(BlobCache blobCache) {
+        return newService(blobCache, new ContentManifest(null, Duration.ofHours(1)));
+    }
+
+    private BlobService newService(BlobCache blobCache, ContentManifest manifest) {
+        return newService(blobCache, manifest, new BlobMetadataCache(Duration.ofMinutes(10), Duration.ofSeconds(30), 100));
+    }
+
+    private BlobService newService(BlobCache blobCache, ContentManifest manifest, BlobMetadataCache metadataCache) {
+        return new BlobService(new AzureBlobStore(containerClient), blobCache, metadataCache, manifest,
+            new BlobIoExecutor(4, Duration.ofSeconds(1), Duration.ofSeconds(5)));
+    }
+}
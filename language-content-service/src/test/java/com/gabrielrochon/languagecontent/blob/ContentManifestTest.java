@@ -0,0 +1,51 @@
+package com.gabrielrochon.languagecontent.blob;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit test for the in-process entries of the content manifest, and the misses it remembers.
+ */
+public class ContentManifestTest {
+
+    @Test
+    public void testLocalEntriesAreBounded() {
+        ContentManifest manifest = new ContentManifest(null, Duration.ofHours(1), 3);
+
+        for (int i = 0; i < 10; i++) {
+            manifest.put(new BlobMetadata("Language" + i + "/background.jpg", 1, "image/jpeg", "\"0x" + i + "\"", null)
+                .withContentHash(ContentManifest.hash(new byte[] {(byte) i})));
+        }
+
+        assertThat(manifest.snapshot().entries()).isEqualTo(3);
+        assertThat(manifest.getLocal("Language9/background.jpg")).isNotNull();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRedisMissesAreRememberedUntilTheBlobIsHashed() {
+        RedisTemplate<String, byte[]> redisTemplate = mock(RedisTemplate.class);
+        ValueOperations<String, byte[]> valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        ContentManifest manifest = new ContentManifest(redisTemplate, Duration.ofHours(1), 100, Duration.ofMinutes(10));
+
+        assertThat(manifest.get("Tagalog/background.jpg")).isNull();
+        assertThat(manifest.get("Tagalog/background.jpg")).isNull();
+        verify(valueOperations, times(1)).get(anyString());
+
+        BlobMetadata hashed = new BlobMetadata("Tagalog/background.jpg", 1, "image/jpeg", "\"0x8D1\"", null)
+            .withContentHash(ContentManifest.hash(new byte[] {1}));
+        manifest.put(hashed);
+        assertThat(manifest.get("Tagalog/background.jpg")).isEqualTo(hashed);
+    }
+}
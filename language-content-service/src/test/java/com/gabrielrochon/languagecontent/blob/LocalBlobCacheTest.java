@@ -0,0 +1,44 @@
+package com.gabrielrochon.languagecontent.blob;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit test for the byte-weighted eviction of the in-process blob cache tier.
+ */
+public class LocalBlobCacheTest {
+
+    @Test
+    public void testLeastRecentlyUsedBlobsAreEvictedByWeight() {
+        LocalBlobCache cache = new LocalBlobCache(100);
+        cache.put("a", blob("a", 40));
+        cache.put("b", blob("b", 40));
+
+        // Touch "a" so "b" becomes the least recently used entry
+        assertThat(cache.get("a")).isNotNull();
+        cache.put("c", blob("c", 40));
+
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("a")).isNotNull();
+        assertThat(cache.get("c")).isNotNull();
+        assertThat(cache.getCurrentBytes()).isEqualTo(80);
+        assertThat(cache.getStats().snapshot().evictions()).isEqualTo(1);
+    }
+
+    @Test
+    public void testBlobLargerThanBudgetIsNotCached() {
+        LocalBlobCache cache = new LocalBlobCache(100);
+        cache.put("small", blob("small", 60));
+        cache.put("huge", blob("huge", 101));
+
+        assertThat(cache.get("huge")).isNull();
+        assertThat(cache.get("small")).isNotNull();
+        assertThat(cache.getStats().snapshot().hits()).isEqualTo(1);
+        assertThat(cache.getStats().snapshot().misses()).isEqualTo(1);
+    }
+
+    private static CachedBlob blob(String name, int size) {
+        return new CachedBlob(new BlobMetadata(name, size, "image/jpeg", "\"etag\"", null), new byte[size]);
+    }
+}
@@ -0,0 +1,68 @@
+package com.gabrielrochon.languagecontent.blob;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit test for the local filesystem blob store.
+ */
+public class LocalFileBlobStoreTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    public void testBlobIsReadThroughMappingAndStream() throws Exception {
+        byte[] content = "fake background image".getBytes();
+        Files.createDirectories(root.resolve("Tagalog"));
+        Files.write(root.resolve("Tagalog/background.jpg"), content);
+        LocalFileBlobStore store = new LocalFileBlobStore(root.toString());
+
+        BlobMetadata metadata = store.getMetadata("Tagalog/background.jpg");
+        assertThat(metadata.size()).isEqualTo(content.length);
+        assertThat(metadata.mediaType().toString()).isEqualTo("image/jpeg");
+        assertThat(store.download(metadata)).isEqualTo(content);
+
+        // Streams start at the requested offset and hand the rest to the channel
+        ByteArrayOutputStream transferred = new ByteArrayOutputStream();
+        try (InputStream stream = store.openStream(metadata, 5)) {
+            assertThat(stream.transferTo(transferred)).isEqualTo(content.length - 5);
+        }
+        assertThat(transferred.toString()).isEqualTo("background image");
+    }
+
+    @Test
+    public void testMissingAndOutsideBlobsAreNotFound() throws Exception {
+        Files.writeString(root.resolve("secret.txt"), "outside the store");
+        LocalFileBlobStore store = new LocalFileBlobStore(Files.createDirectory(root.resolve("blobs")).toString());
+
+        assertThatThrownBy(() -> store.getMetadata("Klingon/background.jpg"))
+            .isInstanceOf(BlobNotFoundException.class);
+        assertThatThrownBy(() -> store.getMetadata("../secret.txt"))
+            .isInstanceOf(BlobNotFoundException.class);
+    }
+
+    @Test
+    public void testReplacedFileIsNotMixedWithOldMetadata() throws Exception {
+        Path file = root.resolve("background.jpg");
+        Files.writeString(file, "old");
+        LocalFileBlobStore store = new LocalFileBlobStore(root.toString());
+        BlobMetadata metadata = store.getMetadata("background.jpg");
+
+        Files.writeString(file, "new content");
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(60)));
+
+        assertThat(store.getMetadata("background.jpg").eTag()).isNotEqualTo(metadata.eTag());
+        assertThatThrownBy(() -> store.download(metadata)).isInstanceOf(IllegalStateException.class);
+    }
+}
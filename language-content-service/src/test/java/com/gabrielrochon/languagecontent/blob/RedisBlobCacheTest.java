@@ -0,0 +1,62 @@
+package com.gabrielrochon.languagecontent.blob;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit test for the Redis tier of the blob cache and the counters it reports.
+ */
+public class RedisBlobCacheTest {
+
+    private RedisTemplate<String, byte[]> redisTemplate;
+
+    private ValueOperations<String, byte[]> valueOperations;
+
+    private RedisBlobCache cache;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        redisTemplate = mock(RedisTemplate.class);
+        valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        cache = new RedisBlobCache(redisTemplate, Duration.ofHours(1));
+    }
+
+    @Test
+    public void testStoredBlobIsAHit() throws Exception {
+        BlobMetadata metadata = new BlobMetadata("Tagalog/background.jpg", 3, "image/jpeg", "\"0x8D1\"",
+            Instant.parse("2025-01-01T00:00:00Z"));
+        when(valueOperations.get("blob::Tagalog/background.jpg"))
+            .thenReturn(RedisBlobCache.encode(new CachedBlob(metadata, new byte[] {1, 2, 3})));
+
+        CachedBlob blob = cache.get("Tagalog/background.jpg");
+
+        assertThat(blob.content()).containsExactly(1, 2, 3);
+        assertThat(blob.metadata().eTag()).isEqualTo("\"0x8D1\"");
+        assertThat(cache.getStats().snapshot().hits()).isEqualTo(1);
+        assertThat(cache.getStats().snapshot().misses()).isZero();
+    }
+
+    @Test
+    public void testUndecodableValueIsOnlyAMissAndIsDropped() {
+        // An unknown format version, as left behind by another release
+        when(valueOperations.get("blob::Tagalog/background.jpg")).thenReturn(new byte[] {9, 0, 0});
+
+        assertThat(cache.get("Tagalog/background.jpg")).isNull();
+
+        assertThat(cache.getStats().snapshot().hits()).isZero();
+        assertThat(cache.getStats().snapshot().misses()).isEqualTo(1);
+        verify(redisTemplate).delete("blob::Tagalog/background.jpg");
+    }
+}
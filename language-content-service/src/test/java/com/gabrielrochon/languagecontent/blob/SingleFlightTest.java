@@ -0,0 +1,107 @@
+package com.gabrielrochon.languagecontent.blob;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Concurrency test for request coalescing: many simultaneous calls for the same key
+ * must reach the backend exactly once.
+ */
+public class SingleFlightTest {
+
+    private static final int CALLERS_PER_KEY = 16;
+
+    @Test
+    public void testConcurrentCallsReachBackendOncePerKey() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        Map<String, AtomicInteger> backendCalls = new ConcurrentHashMap<>();
+        List<String> keys = List.of("Tagalog/background.jpg", "Spanish/background.jpg");
+
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS_PER_KEY * keys.size());
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (String key : keys) {
+                for (int i = 0; i < CALLERS_PER_KEY; i++) {
+                    results.add(executor.submit(() -> singleFlight.execute(key, () -> {
+                        backendCalls.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+                        // Hold the call open until every other caller has joined an in-flight call
+                        awaitCollapsed(singleFlight, (CALLERS_PER_KEY - 1) * keys.size());
+                        return "content of " + key;
+                    })));
+                }
+            }
+
+            for (int i = 0; i < results.size(); i++) {
+                String key = keys.get(i / CALLERS_PER_KEY);
+                assertThat(results.get(i).get(10, TimeUnit.SECONDS)).isEqualTo("content of " + key);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(backendCalls.get("Tagalog/background.jpg").get()).isEqualTo(1);
+        assertThat(backendCalls.get("Spanish/background.jpg").get()).isEqualTo(1);
+        assertThat(singleFlight.snapshot().executions()).isEqualTo(2);
+        assertThat(singleFlight.snapshot().collapsed()).isEqualTo((CALLERS_PER_KEY - 1) * keys.size());
+    }
+
+    @Test
+    public void testWaitersReceiveTheSameError() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        RuntimeException failure = new RuntimeException("storage unavailable");
+
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS_PER_KEY);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < CALLERS_PER_KEY; i++) {
+                results.add(executor.submit(() -> singleFlight.execute("missing.jpg", () -> {
+                    awaitCollapsed(singleFlight, CALLERS_PER_KEY - 1);
+                    throw failure;
+                })));
+            }
+
+            for (Future<String> result : results) {
+                try {
+                    result.get(10, TimeUnit.SECONDS);
+                    fail("Expected the leader's exception");
+                } catch (java.util.concurrent.ExecutionException e) {
+                    assertThat(e.getCause()).isSameAs(failure);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(singleFlight.snapshot().executions()).isEqualTo(1);
+    }
+
+    @Test
+    public void testSequentialCallsAreNotCoalesced() {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+        AtomicInteger backendCalls = new AtomicInteger();
+
+        singleFlight.execute("key", backendCalls::incrementAndGet);
+        singleFlight.execute("key", backendCalls::incrementAndGet);
+
+        assertThat(backendCalls.get()).isEqualTo(2);
+        assertThat(singleFlight.snapshot().collapsed()).isZero();
+    }
+
+    private static void awaitCollapsed(SingleFlight<?, ?> singleFlight, long expected) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (singleFlight.snapshot().collapsed() < expected && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.gabrielrochon.languagecontent.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Unit test for the near-cache: reads are served locally once the value is in Redis,
+ * writes invalidate this replica and are published to the others, and invalidations
+ * from other replicas drop the local entry.
+ */
+public class NearCacheTest {
+
+    private ConcurrentMapCache remote;
+
+    private CacheInvalidationBus bus;
+
+    private NearCache cache;
+
+    @BeforeEach
+    public void setup() {
+        remote = spy(new ConcurrentMapCache("languages"));
+        bus = mock(CacheInvalidationBus.class);
+        cache = new NearCache(remote, bus, Duration.ofMinutes(5), 100);
+    }
+
+    @Test
+    public void testRemoteValueIsServedLocallyAfterFirstRead() {
+        remote.put("all", "Tagalog");
+
+        assertThat(cache.get("all").get()).isEqualTo("Tagalog");
+        assertThat(cache.get("all").get()).isEqualTo("Tagalog");
+
+        verify(remote, times(1)).get("all");
+        assertThat(cache.getStats().get("local").hits()).isEqualTo(1);
+        assertThat(cache.getStats().get("local").hitRate()).isEqualTo(0.5);
+        assertThat(cache.getStats().get("redis").hits()).isEqualTo(1);
+    }
+
+    @Test
+    public void testLoadedValueIsOnlyKeptLocallyOnceReadFromRemote() {
+        assertThat(cache.get("all", () -> "Tagalog")).isEqualTo("Tagalog");
+        assertThat(cache.getStats().get("redis").misses()).isEqualTo(1);
+
+        // The next read takes the copy stored in the remote cache, then stays local
+        assertThat(cache.get("all", () -> "loaded again")).isEqualTo("Tagalog");
+        assertThat(cache.get("all", () -> "loaded again")).isEqualTo("Tagalog");
+        assertThat(cache.getStats().get("redis").hits()).isEqualTo(1);
+        assertThat(cache.getStats().get("local").hits()).isEqualTo(1);
+    }
+
+    @Test
+    public void testEvictionDropsLocalEntryAndIsPublished() {
+        remote.put("name:Tagalog", "v1");
+        cache.get("name:Tagalog");
+
+        cache.evict("name:Tagalog");
+        remote.put("name:Tagalog", "v2");
+
+        assertThat(cache.get("name:Tagalog").get()).isEqualTo("v2");
+        verify(bus).publish("languages", "name:Tagalog");
+    }
+
+    @Test
+    public void testInvalidationFromAnotherReplicaDropsLocalEntry() {
+        remote.put("all", "v1");
+        cache.get("all");
+        remote.put("all", "v2");
+        assertThat(cache.get("all").get()).isEqualTo("v1");
+
+        cache.invalidateLocal("all");
+
+        assertThat(cache.get("all").get()).isEqualTo("v2");
+    }
+
+    @Test
+    public void testStaleEntryIsServedWhileItIsReloaded() {
+        NearCache refreshing = new NearCache(remote, bus, Duration.ofMinutes(5), 100, Duration.ofMinutes(1), Runnable::run);
+        remote.put("all", new StampedValue("v1", System.currentTimeMillis() - Duration.ofMinutes(2).toMillis()));
+
+        // The reload runs inline here, after the stale value has been chosen
+        assertThat(refreshing.get("all", () -> "v2")).isEqualTo("v1");
+
+        assertThat(((StampedValue) remote.get("all").get()).value()).isEqualTo("v2");
+        assertThat(refreshing.get("all", () -> "v3")).isEqualTo("v2");
+        assertThat(refreshing.getRefreshStats().staleServes()).isEqualTo(1);
+        assertThat(refreshing.getRefreshStats().refreshes()).isEqualTo(1);
+        verify(bus).publish("languages", "all");
+    }
+
+    @Test
+    public void testConcurrentRefreshesOfOtherKeysKeepEachOther() {
+        List<Runnable> scheduled = new ArrayList<>();
+        NearCache refreshing = new NearCache(remote, bus, Duration.ofMinutes(5), 100, Duration.ofMinutes(1), scheduled::add);
+        long stale = System.currentTimeMillis() - Duration.ofMinutes(2).toMillis();
+        remote.put("name:Tagalog", new StampedValue("t1", stale));
+        remote.put("name:Ilocano", new StampedValue("i1", stale));
+
+        assertThat(refreshing.get("name:Tagalog", () -> "t2")).isEqualTo("t1");
+        // The reload of Tagalog runs to completion, invalidating its key, while Ilocano's is loading
+        assertThat(refreshing.get("name:Ilocano", () -> {
+            scheduled.get(0).run();
+            return "i2";
+        })).isEqualTo("i1");
+        scheduled.get(1).run();
+
+        assertThat(((StampedValue) remote.get("name:Tagalog").get()).value()).isEqualTo("t2");
+        assertThat(((StampedValue) remote.get("name:Ilocano").get()).value()).isEqualTo("i2");
+        assertThat(refreshing.getRefreshStats().refreshes()).isEqualTo(2);
+    }
+
+    @Test
+    public void testRefreshRacingAWriteOfItsKeyIsDropped() {
+        List<Runnable> scheduled = new ArrayList<>();
+        NearCache refreshing = new NearCache(remote, bus, Duration.ofMinutes(5), 100, Duration.ofMinutes(1), scheduled::add);
+        remote.put("all", new StampedValue("v1", System.currentTimeMillis() - Duration.ofMinutes(2).toMillis()));
+
+        assertThat(refreshing.get("all", () -> {
+            // Another replica writes the key while the reload reads the database
+            refreshing.invalidateLocal("all");
+            return "v2";
+        })).isEqualTo("v1");
+        scheduled.get(0).run();
+
+        assertThat(remote.get("all")).isNull();
+    }
+
+    @Test
+    public void testPutIfAbsentValuesAreNeverReloaded() {
+        NearCache refreshing = new NearCache(remote, bus, Duration.ofMinutes(5), 100, Duration.ofMinutes(1), Runnable::run);
+
+        assertThat(refreshing.putIfAbsent("version:all", "tag-1")).isNull();
+        assertThat(refreshing.putIfAbsent("version:all", "tag-2").get()).isEqualTo("tag-1");
+
+        // Stored without a stamp, and read without a loader, so no soft TTL applies
+        assertThat(remote.get("version:all").get()).isEqualTo("tag-1");
+        assertThat(refreshing.get("version:all", String.class)).isEqualTo("tag-1");
+        assertThat(refreshing.getRefreshStats().refreshes()).isZero();
+    }
+
+    @Test
+    public void testBusIgnoresItsOwnMessages() {
+        List<String> received = new ArrayList<>();
+        CacheInvalidationBus localBus = new CacheInvalidationBus(mock(StringRedisTemplate.class), "invalidation", "replica-a");
+        MessageListener listener = localBus.listener((cacheName, key) -> received.add(cacheName + "/" + key));
+
+        listener.onMessage(message("replica-a\nlanguages\nall"), null);
+        listener.onMessage(message("replica-b\nlanguages\nname:Tagalog"), null);
+        listener.onMessage(message("replica-b\nmodules"), null);
+
+        assertThat(received).containsExactly("languages/name:Tagalog", "modules/null");
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage("invalidation".getBytes(StandardCharsets.UTF_8), body.getBytes(StandardCharsets.UTF_8));
+    }
+}
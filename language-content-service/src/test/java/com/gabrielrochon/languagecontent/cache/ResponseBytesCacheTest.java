@@ -0,0 +1,96 @@
+package com.gabrielrochon.languagecontent.cache;
+
+import com.gabrielrochon.languagecontent.language.LanguageDto;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit test for the encoded response cache: hits skip the body and its encoding, small
+ * bodies are not compressed, the byte budget evicts the least recently used responses,
+ * and Accept-Encoding is negotiated by name and quality.
+ */
+public class ResponseBytesCacheTest {
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+
+    @Test
+    public void testHitSkipsBodyAndEncoding() {
+        ResponseBytesCache cache = new ResponseBytesCache(jsonMapper, true, 1 << 20, 1024);
+        AtomicInteger loads = new AtomicInteger();
+
+        EncodedResponse first = cache.get("languages|W/\"1\"", () -> {
+            loads.incrementAndGet();
+            return List.of(language("Tagalog"));
+        });
+        EncodedResponse second = cache.get("languages|W/\"1\"", () -> {
+            loads.incrementAndGet();
+            return List.of(language("Tagalog"));
+        });
+
+        assertThat(loads).hasValue(1);
+        assertThat(second).isSameAs(first);
+        assertThat(new String(first.json(), StandardCharsets.UTF_8)).contains("\"name\":\"Tagalog\"");
+        assertThat(first.gzip()).isNull();
+    }
+
+    @Test
+    public void testLargeBodiesHaveGzipVariant() throws IOException {
+        ResponseBytesCache cache = new ResponseBytesCache(jsonMapper, true, 1 << 20, 1024);
+        LanguageDto language = new LanguageDto(1L, "Tagalog", null, "PH", "Ang wikang Tagalog. ".repeat(200));
+
+        EncodedResponse encoded = cache.get("language:Tagalog|W/\"1\"", () -> language);
+
+        assertThat(encoded.gzip().length).isLessThan(encoded.json().length);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(encoded.gzip()))) {
+            assertThat(in.readAllBytes()).isEqualTo(encoded.json());
+        }
+    }
+
+    @Test
+    public void testBudgetEvictsLeastRecentlyUsed() {
+        ResponseBytesCache cache = new ResponseBytesCache(jsonMapper, true, 250, 1024);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("a", () -> language("Waray"));
+        cache.get("b", () -> language("Ilocano"));
+        cache.get("a", () -> language("Waray"));
+        cache.get("c", () -> language("Cebuano"));
+
+        // b was the least recently used when c did not fit
+        cache.get("a", () -> loads.incrementAndGet());
+        assertThat(loads).hasValue(0);
+        cache.get("b", () -> loads.incrementAndGet());
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    public void testNullBodyIsNotCached() {
+        ResponseBytesCache cache = new ResponseBytesCache(jsonMapper, true, 1 << 20, 1024);
+
+        assertThat(cache.get("language:Ivatan|W/\"1\"", () -> null)).isNull();
+        assertThat(cache.get("language:Ivatan|W/\"1\"", () -> language("Ivatan"))).isNotNull();
+    }
+
+    @Test
+    public void testAcceptEncodingNegotiation() {
+        assertThat(ResponseBytesCache.acceptsGzip("gzip, deflate, br")).isTrue();
+        assertThat(ResponseBytesCache.acceptsGzip("br;q=1.0, GZIP;q=0.5")).isTrue();
+        assertThat(ResponseBytesCache.acceptsGzip("*")).isTrue();
+        assertThat(ResponseBytesCache.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(ResponseBytesCache.acceptsGzip("identity")).isFalse();
+        assertThat(ResponseBytesCache.acceptsGzip(null)).isFalse();
+    }
+
+    private static LanguageDto language(String name) {
+        return new LanguageDto(1L, name, null, "PH", null);
+    }
+}
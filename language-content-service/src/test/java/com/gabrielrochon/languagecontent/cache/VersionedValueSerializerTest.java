@@ -0,0 +1,88 @@
+package com.gabrielrochon.languagecontent.cache;
+
+import com.gabrielrochon.languagecontent.language.LanguageDto;
+import com.gabrielrochon.languagecontent.lesson.Lesson;
+import com.gabrielrochon.languagecontent.module.ModuleDto;
+import com.gabrielrochon.languagecontent.sentence.SentenceDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit test for the Redis value serializer: catalog values survive the binary codec,
+ * large payloads are compressed, and values written by other codecs stay readable.
+ */
+public class VersionedValueSerializerTest {
+
+    @Test
+    public void testSentenceListRoundTripsThroughBinaryCodec() {
+        VersionedValueSerializer serializer = new VersionedValueSerializer(CatalogBinaryCodec.NAME, -1);
+        List<SentenceDto> sentences = sentences(3);
+
+        byte[] bytes = serializer.serialize(sentences);
+
+        assertThat(bytes[2]).isEqualTo(new CatalogBinaryCodec().id());
+        assertThat(serializer.deserialize(bytes)).isEqualTo(sentences);
+    }
+
+    @Test
+    public void testLessonRoundTripsThroughBinaryCodec() {
+        VersionedValueSerializer serializer = new VersionedValueSerializer(CatalogBinaryCodec.NAME, -1);
+        Lesson lesson = new Lesson(language(), new ModuleDto(7L, 1L, "Greetings", "Everyday greetings", null, "waving_hand"),
+            sentences(2));
+
+        assertThat(serializer.deserialize(serializer.serialize(lesson))).isEqualTo(lesson);
+    }
+
+    @Test
+    public void testLargePayloadsAreCompressed() {
+        VersionedValueSerializer compressing = new VersionedValueSerializer(CatalogBinaryCodec.NAME, 1024);
+        VersionedValueSerializer plain = new VersionedValueSerializer(CatalogBinaryCodec.NAME, -1);
+        List<SentenceDto> sentences = sentences(200);
+
+        byte[] compressed = compressing.serialize(sentences);
+
+        assertThat(compressed[3] & VersionedValueSerializer.FLAG_DEFLATED).isNotZero();
+        assertThat(compressed.length).isLessThan(plain.serialize(sentences).length);
+        assertThat((List<?>) compressing.deserialize(compressed)).hasSize(200);
+    }
+
+    @Test
+    public void testValuesOfOtherCodecsStayReadable() {
+        VersionedValueSerializer binary = new VersionedValueSerializer(CatalogBinaryCodec.NAME, 1024);
+        LanguageDto language = language();
+
+        // Written by a replica still on JSON, and by the JSON serializer before values had a header
+        byte[] fromJsonCodec = new VersionedValueSerializer(JsonValueCodec.NAME, 1024).serialize(language);
+        byte[] headerless = new GenericJackson2JsonRedisSerializer().serialize(language);
+
+        assertThat(binary.deserialize(fromJsonCodec)).isEqualTo(language);
+        assertThat(binary.deserialize(headerless)).isEqualTo(language);
+    }
+
+    @Test
+    public void testUnsupportedValuesFallBackToJson() {
+        VersionedValueSerializer serializer = new VersionedValueSerializer(CatalogBinaryCodec.NAME, 1024);
+
+        byte[] bytes = serializer.serialize(new ArrayList<>(List.of("a", "b")));
+
+        assertThat(bytes[2]).isEqualTo(new JsonValueCodec().id());
+        assertThat(serializer.deserialize(bytes)).isEqualTo(List.of("a", "b"));
+    }
+
+    private static LanguageDto language() {
+        return new LanguageDto(1L, "Tagalog", null, "PH", null);
+    }
+
+    private static List<SentenceDto> sentences(int count) {
+        List<SentenceDto> sentences = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            sentences.add(new SentenceDto(i + 1L, 7L, i, "Kumusta " + i, "Hello " + i, i % 2 == 0 ? 1 : null));
+        }
+        return sentences;
+    }
+}
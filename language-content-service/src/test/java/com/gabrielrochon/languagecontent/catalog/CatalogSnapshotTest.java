@@ -0,0 +1,99 @@
+package com.gabrielrochon.languagecontent.catalog;
+
+import com.gabrielrochon.languagecontent.language.LanguageDto;
+import com.gabrielrochon.languagecontent.lesson.Lesson;
+import com.gabrielrochon.languagecontent.module.ModuleDto;
+import com.gabrielrochon.languagecontent.sentence.SentenceCursor;
+import com.gabrielrochon.languagecontent.sentence.SentenceDto;
+import com.gabrielrochon.languagecontent.sentence.SentencePage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit test for the catalog snapshot: lookups return the rows the repository queries would,
+ * in the same order, pages follow the sentence cursors, and the returned lists are read-only.
+ */
+public class CatalogSnapshotTest {
+
+    private CatalogSnapshot snapshot;
+
+    @BeforeEach
+    public void setup() {
+        List<LanguageDto> languages = List.of(
+            new LanguageDto(1L, "Tagalog", null, "PH", null),
+            new LanguageDto(2L, "Cebuano", null, "PH", null));
+        List<ModuleDto> modules = List.of(
+            new ModuleDto(10L, 1L, "Greetings", null, null, null),
+            new ModuleDto(11L, 1L, "Numbers", null, null, null),
+            new ModuleDto(20L, 2L, "Greetings", null, null, null));
+        // Ordered as findAllDtos orders them: by module, then position and ID, a null position as 0
+        List<SentenceDto> sentences = List.of(
+            new SentenceDto(104L, 10L, null, "Po", "Sir", 1),
+            new SentenceDto(101L, 10L, 1, "Kumusta", "Hello", 1),
+            new SentenceDto(102L, 10L, 2, "Mabuti", "Fine", 2),
+            new SentenceDto(103L, 10L, 2, "Salamat", "Thanks", 1),
+            new SentenceDto(111L, 11L, 1, "Isa", "One", 1),
+            new SentenceDto(201L, 20L, 1, "Maayong buntag", "Good morning", 1));
+        snapshot = CatalogSnapshot.build(7, languages, modules, sentences);
+    }
+
+    @Test
+    public void testLookupsFollowRepositoryOrder() {
+        assertThat(snapshot.version()).isEqualTo(7);
+        assertThat(snapshot.language("Cebuano").id()).isEqualTo(2L);
+        assertThat(snapshot.language("Ilocano")).isNull();
+        assertThat(snapshot.modulesOfLanguage("Tagalog")).extracting(ModuleDto::id).containsExactly(10L, 11L);
+        assertThat(snapshot.modulesOfLanguage(3L)).isEmpty();
+        assertThat(snapshot.sentencesOfModule(10L)).extracting(SentenceDto::id).containsExactly(104L, 101L, 102L, 103L);
+        assertThat(snapshot.sentencesOfLanguage(1L)).extracting(SentenceDto::id)
+            .containsExactly(104L, 101L, 102L, 103L, 111L);
+        assertThat(snapshot.sentencesOfModule(99L)).isEmpty();
+    }
+
+    @Test
+    public void testPagesFollowCursors() {
+        SentencePage first = snapshot.sentencePage(10L, null, 2);
+        assertThat(first.sentences()).extracting(SentenceDto::id).containsExactly(104L, 101L);
+        assertThat(first.nextCursor()).isNotNull();
+
+        SentencePage second = snapshot.sentencePage(10L, SentenceCursor.decode(first.nextCursor()), 2);
+        assertThat(second.sentences()).extracting(SentenceDto::id).containsExactly(102L, 103L);
+        assertThat(second.nextCursor()).isNull();
+
+        // A cursor between two sentences of the same position
+        SentencePage afterTie = snapshot.sentencePage(10L, new SentenceCursor(2, 102L), 10);
+        assertThat(afterTie.sentences()).extracting(SentenceDto::id).containsExactly(103L);
+    }
+
+    @Test
+    public void testLessonResolvesModuleOfLanguage() {
+        Lesson lesson = snapshot.lesson("Cebuano", "Greetings");
+
+        assertThat(lesson.module().id()).isEqualTo(20L);
+        assertThat(lesson.sentences()).extracting(SentenceDto::learningText).containsExactly("Maayong buntag");
+        assertThat(snapshot.lesson("Cebuano", "Numbers")).isNull();
+        assertThat(snapshot.lesson("Ilocano", "Greetings")).isNull();
+    }
+
+    @Test
+    public void testListsAreReadOnly() {
+        assertThatThrownBy(() -> snapshot.sentencesOfModule(10L).set(0, null))
+            .isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> snapshot.languages().clear())
+            .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    public void testEstimatedSizeGrowsWithContent() {
+        CatalogSnapshot empty = CatalogSnapshot.build(1, List.of(), List.of(), List.of());
+
+        assertThat(snapshot.estimatedBytes()).isGreaterThan(empty.estimatedBytes());
+        assertThat(snapshot.sentenceCount()).isEqualTo(6);
+        assertThat(snapshot.moduleCount()).isEqualTo(3);
+    }
+}
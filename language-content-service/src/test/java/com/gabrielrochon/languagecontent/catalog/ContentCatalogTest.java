@@ -0,0 +1,81 @@
+package com.gabrielrochon.languagecontent.catalog;
+
+import com.gabrielrochon.languagecontent.language.Language;
+import com.gabrielrochon.languagecontent.language.LanguageService;
+import com.gabrielrochon.languagecontent.module.Module;
+import com.gabrielrochon.languagecontent.module.ModuleService;
+import com.gabrielrochon.languagecontent.sentence.Sentence;
+import com.gabrielrochon.languagecontent.sentence.SentenceService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration test for the catalog snapshot: once built, reads are served from it and not
+ * from the database, and a write increments the content version once per transaction so the
+ * next refresh picks it up. The poll interval is long, so the test refreshes the snapshot itself.
+ */
+@SpringBootTest
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:contentcatalogtest",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+    "spring.cache.type=none",
+    "cache.warmup.enabled=false",
+    "catalog.snapshot.enabled=true",
+    "catalog.snapshot.poll-interval=PT1H",
+    "azure.storage.account-name=test",
+    "azure.storage.account-key=test",
+    "azure.storage.container-name=test",
+    "spring.data.redis.host=localhost",
+    "spring.data.redis.port=6379"
+})
+public class ContentCatalogTest {
+
+    @Autowired
+    private ContentCatalog contentCatalog;
+
+    @Autowired
+    private ContentVersionService contentVersionService;
+
+    @Autowired
+    private LanguageService languageService;
+
+    @Autowired
+    private ModuleService moduleService;
+
+    @Autowired
+    private SentenceService sentenceService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void testReadsAreServedFromSnapshot() {
+        Language chavacano = languageService.addLanguage(new Language("Chavacano"));
+        Module greetings = moduleService.addModule(new Module(chavacano, "Greetings"));
+        long version = contentVersionService.getCurrentVersion();
+        sentenceService.addSentence(new Sentence(greetings, 1, "Buenas dias", "Good morning", 1));
+        // One transaction evicts several keys, but counts as one change
+        assertThat(contentVersionService.getCurrentVersion()).isEqualTo(version + 1);
+
+        contentCatalog.refresh();
+        assertThat(contentCatalog.isServing()).isTrue();
+        assertThat(contentCatalog.snapshot().version()).isEqualTo(version + 1);
+
+        // A row written behind the services' back changes no version, so the snapshot does not have it
+        jdbcTemplate.update("insert into language (name) values ('Ibanag')");
+        assertThat(languageService.getLanguageByName("Ibanag")).isNull();
+        assertThat(languageService.getLanguageByName("Chavacano").id()).isEqualTo(chavacano.getId());
+        assertThat(moduleService.getModulesByLanguageName("Chavacano")).hasSize(1);
+        assertThat(sentenceService.getSentencePage(greetings.getId(), null, 10).sentences()).hasSize(1);
+
+        sentenceService.addSentence(new Sentence(greetings, 2, "Gracias", "Thank you", 2));
+        contentCatalog.refresh();
+        assertThat(sentenceService.getSentencesByModuleId(greetings.getId())).hasSize(2);
+    }
+}
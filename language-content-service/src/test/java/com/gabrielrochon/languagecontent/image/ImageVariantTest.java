@@ -0,0 +1,55 @@
+package com.gabrielrochon.languagecontent.image;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit test for image variant normalization and generation.
+ */
+public class ImageVariantTest {
+
+    @Test
+    public void testParametersSnapToAllowLists() {
+        ImageVariant variant = ImageVariant.of(500, "JPG", 72);
+
+        assertThat(variant.width()).isEqualTo(640);
+        assertThat(variant.format()).isEqualTo("jpeg");
+        assertThat(variant.quality()).isEqualTo(75);
+        assertThat(ImageVariant.of(10000, null, null).width()).isEqualTo(1920);
+    }
+
+    @Test
+    public void testUnsupportedFormatIsRejected() {
+        assertThatThrownBy(() -> ImageVariant.of(640, "gif", null))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testVariantIsResizedAndReEncoded() throws Exception {
+        BufferedImage source = new BufferedImage(2400, 1600, BufferedImage.TYPE_INT_RGB);
+        ImageVariant variant = ImageVariant.of(320, null, null).resolve("image/jpeg");
+
+        byte[] encoded = ImageVariantService.encode(ImageVariantService.resize(source, variant), variant);
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(encoded));
+
+        assertThat(decoded.getWidth()).isEqualTo(320);
+        assertThat(decoded.getHeight()).isEqualTo(213);
+    }
+
+    @Test
+    public void testImagesAreNeverUpscaled() {
+        BufferedImage source = new BufferedImage(200, 100, BufferedImage.TYPE_INT_RGB);
+        ImageVariant variant = ImageVariant.of(1280, "png", null).resolve("image/jpeg");
+
+        BufferedImage resized = ImageVariantService.resize(source, variant);
+
+        assertThat(resized.getWidth()).isEqualTo(200);
+        assertThat(resized.getHeight()).isEqualTo(100);
+    }
+}